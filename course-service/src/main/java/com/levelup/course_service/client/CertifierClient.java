@@ -0,0 +1,133 @@
+package com.levelup.course_service.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.levelup.course_service.exception.CertifierException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls the external certifier to issue certificates. Requests from all worker threads share one token bucket,
+ * so bursts of completions are spread out to the configured rate instead of hitting the certifier at once.
+ */
+@Component
+@Slf4j
+public class CertifierClient {
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final TokenBucket tokenBucket;
+
+    @Value("${certifier.issueUrl}")
+    private String certifierUrl;
+
+    @Value("${certifier.validateUrl}")
+    private String certifierValidateUrl;
+
+    @Value("${certifier.apiKey}")
+    private String apiKey;
+
+    @Value("${certifier.version}")
+    private String certifierVersion;
+
+    @Value("${certifier.timeout:10s}")
+    private Duration timeout;
+
+    public CertifierClient(WebClient webClient,
+            ObjectMapper objectMapper,
+            @Value("${certifier.rate-limit.requests-per-second:5}") double requestsPerSecond,
+            @Value("${certifier.rate-limit.burst:5}") int burst) {
+        this.webClient = webClient;
+        this.objectMapper = objectMapper;
+        this.tokenBucket = new TokenBucket(requestsPerSecond, burst);
+    }
+
+    /**
+     * Issues a certificate and returns its public id. Blocks until the rate limiter admits the call.
+     */
+    public String issue(Map<String, Object> payload) {
+        tokenBucket.acquire();
+        try {
+            String body = webClient.post()
+                    .uri(certifierUrl)
+                    .headers(h -> {
+                        h.setContentType(MediaType.APPLICATION_JSON);
+                        h.setBearerAuth(apiKey);
+                        h.set("Certifier-Version", certifierVersion);
+                        h.set("accept", "application/json");
+                    })
+                    .bodyValue(payload)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .block(timeout);
+
+            JsonNode publicId = objectMapper.readTree(body).get("publicId");
+            if (publicId == null || publicId.asText().isBlank()) {
+                throw new CertifierException("Certifier response has no publicId", false);
+            }
+            return publicId.asText();
+
+        } catch (WebClientResponseException e) {
+            log.warn("Certifier returned {}: {}", e.getStatusCode(), e.getResponseBodyAsString());
+            boolean retryable = e.getStatusCode().is5xxServerError()
+                    || e.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+            throw new CertifierException("Certifier returned " + e.getStatusCode(), retryable, e);
+        } catch (CertifierException e) {
+            throw e;
+        } catch (Exception e) {
+            // Timeouts, connection failures and unreadable bodies
+            throw new CertifierException("Certifier call failed: " + e.getMessage(), true, e);
+        }
+    }
+
+    public String validationUrl(String publicId) {
+        return certifierValidateUrl + publicId;
+    }
+
+    /**
+     * Blocking token bucket: up to {@code burst} calls pass immediately, then calls are admitted at the refill rate.
+     */
+    static class TokenBucket {
+
+        private final double permitsPerNano;
+        private final double capacity;
+        private double available;
+        private long lastRefillNanos;
+
+        TokenBucket(double permitsPerSecond, int burst) {
+            this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, burst);
+            this.available = capacity;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        void acquire() {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                available = Math.min(capacity, available + (now - lastRefillNanos) * permitsPerNano);
+                lastRefillNanos = now;
+                // Take the token now, possibly going negative, so concurrent callers queue up behind each other
+                available -= 1;
+                waitNanos = available >= 0 ? 0 : (long) (-available / permitsPerNano);
+            }
+            if (waitNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CertifierException("Interrupted while waiting for certifier rate limit", true, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.levelup.course_service.config;
+
+import com.levelup.course_service.repository.CourseEnrollmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Makes sure the unique (enrollment_id, lesson_id) constraint behind the idempotent completion insert exists.
+ * Progress updates used to store the client's list as sent, repeats included, and ddl-auto only logs a failed
+ * ALTER on such data, which would leave every completion failing its ON CONFLICT insert. Repeated completions
+ * are collapsed first; if the constraint still cannot be added, startup fails.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CompletedLessonConstraintInitializer implements SmartInitializingSingleton {
+
+    private final CourseEnrollmentRepository enrollmentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enrollmentRepository.completedLessonConstraintExists()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            enrollmentRepository.lockCompletedLessonsForConstraintMigration();
+            // Another replica may have added it while this one waited for the lock
+            if (enrollmentRepository.completedLessonConstraintExists()) {
+                return;
+            }
+
+            int pairs = enrollmentRepository.deleteDuplicateCompletedLessons();
+            if (pairs > 0) {
+                log.warn("Collapsed repeated completions of {} (enrollment, lesson) pairs", pairs);
+            }
+
+            enrollmentRepository.addCompletedLessonConstraint();
+            log.info("Added unique constraint on enrollment_completed_lessons (enrollment_id, lesson_id)");
+        });
+    }
+}
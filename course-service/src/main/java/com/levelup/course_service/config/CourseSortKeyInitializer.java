@@ -0,0 +1,46 @@
+package com.levelup.course_service.config;
+
+import com.levelup.course_service.repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Makes the catalog sort keys rating_average and created_at NOT NULL on tables created while they were nullable,
+ * which ddl-auto never changes on an existing column. The catalog orders and pages on the bare columns so that
+ * its (status, key, id) indexes apply; missing values are backfilled first, and startup fails if the columns
+ * cannot be altered.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourseSortKeyInitializer implements SmartInitializingSingleton {
+
+    private final CourseRepository courseRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!courseRepository.sortKeysNullable()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            courseRepository.lockForSortKeyMigration();
+            // Another replica may have altered them while this one waited for the lock
+            if (!courseRepository.sortKeysNullable()) {
+                return;
+            }
+
+            int backfilled = courseRepository.backfillSortKeys();
+            if (backfilled > 0) {
+                log.warn("Backfilled a missing rating average or creation time on {} courses", backfilled);
+            }
+
+            courseRepository.requireSortKeys();
+            log.info("Made courses rating_average and created_at NOT NULL");
+        });
+    }
+}
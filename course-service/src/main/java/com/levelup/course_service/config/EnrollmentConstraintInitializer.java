@@ -0,0 +1,64 @@
+package com.levelup.course_service.config;
+
+import com.levelup.course_service.repository.CourseEnrollmentRepository;
+import com.levelup.course_service.service.CourseCounterService;
+import com.levelup.course_service.service.CourseRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Makes sure the unique (user_id, course_id) constraint behind the batched enrollment insert exists before the
+ * enrollment consumer starts. ddl-auto only logs a failed ALTER, which on a table holding duplicate pairs would
+ * leave every batch failing its ON CONFLICT insert. Duplicates without progress, completions or a certificate are
+ * removed first; if any pair still has several enrollments, or the constraint cannot be added, startup fails.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EnrollmentConstraintInitializer implements SmartInitializingSingleton {
+
+    private final CourseEnrollmentRepository enrollmentRepository;
+    private final CourseCounterService courseCounterService;
+    private final CourseRollupService courseRollupService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enrollmentRepository.userCourseConstraintExists()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            enrollmentRepository.lockForConstraintMigration();
+            // Another replica may have added it while this one waited for the lock
+            if (enrollmentRepository.userCourseConstraintExists()) {
+                return;
+            }
+
+            Map<UUID, Long> deleted = enrollmentRepository.deleteRedundantDuplicates();
+            deleted.forEach((courseId, count) -> {
+                courseCounterService.recordEnrollments(courseId, -count.intValue());
+                courseRollupService.recordEnrollments(courseId, -count);
+            });
+            if (!deleted.isEmpty()) {
+                log.warn("Removed {} duplicate enrollments across {} courses",
+                        deleted.values().stream().mapToLong(Long::longValue).sum(), deleted.size());
+            }
+
+            long remaining = enrollmentRepository.countDuplicatePairs();
+            if (remaining > 0) {
+                throw new IllegalStateException(remaining + " (user, course) pairs have several enrollments with "
+                        + "progress or certificates; merge them before starting course-service");
+            }
+
+            enrollmentRepository.addUserCourseConstraint();
+            log.info("Added unique constraint on course_enrollments (user_id, course_id)");
+        });
+    }
+}
@@ -3,9 +3,11 @@ package com.levelup.course_service.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,12 +16,15 @@ public class RabbitMQConfig {
 
     // Exchange names
     public static final String COURSE_ENROLLMENT_EXCHANGE = "course.enrollment.exchange";
+    public static final String INSTRUCTOR_EXCHANGE = "instructor.exchange";
 
     // Queue names
     public static final String COURSE_ENROLLMENT_QUEUE = "course.enrollment.queue";
+    public static final String COURSE_ENROLLMENT_PARKING_QUEUE = "course.enrollment.parking";
 
     // Routing keys
     public static final String COURSE_ENROLLMENT_ROUTING_KEY = "course.enrollment";
+    public static final String INSTRUCTOR_CHANGED_ROUTING_KEY = "instructor.changed";
 
     @Bean
     public Jackson2JsonMessageConverter messageConverter() {
@@ -28,6 +33,32 @@ public class RabbitMQConfig {
         return new Jackson2JsonMessageConverter(objectMapper);
     }
 
+    /**
+     * Container for the enrollment consumer: hands the listener up to {@code batch-size} messages at once
+     * so a burst of purchases is written with a few statements instead of one transaction per message.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory enrollmentBatchContainerFactory(
+            ConnectionFactory connectionFactory,
+            @Value("${course.enrollment-consumer.batch-size:100}") int batchSize,
+            @Value("${course.enrollment-consumer.prefetch:250}") int prefetch,
+            @Value("${course.enrollment-consumer.concurrency:2}") int concurrency,
+            @Value("${course.enrollment-consumer.max-concurrency:4}") int maxConcurrency,
+            @Value("${course.enrollment-consumer.receive-timeout-ms:1000}") long receiveTimeoutMs) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter());
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(maxConcurrency, concurrency));
+        // A partial batch is delivered once no further message arrives within this timeout
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        return factory;
+    }
+
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
@@ -53,4 +84,31 @@ public class RabbitMQConfig {
                 .to(courseEnrollmentExchange())
                 .with(COURSE_ENROLLMENT_ROUTING_KEY);
     }
-}
\ No newline at end of file
+
+    // Enrollment messages that cannot be processed are parked here, through the default exchange, for inspection.
+    // A dead-letter argument on the existing queue would make its redeclaration fail on running brokers.
+    @Bean
+    public Queue courseEnrollmentParkingQueue() {
+        return QueueBuilder.durable(COURSE_ENROLLMENT_PARKING_QUEUE).build();
+    }
+
+    // Instructor changes published by user-service. The queue is exclusive to this instance and removed
+    // when it disconnects, so the change reaches the instructor cache on every replica.
+    @Bean
+    public TopicExchange instructorExchange() {
+        return new TopicExchange(INSTRUCTOR_EXCHANGE);
+    }
+
+    @Bean
+    public Queue instructorChangeQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding instructorChangeBinding() {
+        return BindingBuilder
+                .bind(instructorChangeQueue())
+                .to(instructorExchange())
+                .with(INSTRUCTOR_CHANGED_ROUTING_KEY);
+    }
+}
@@ -2,17 +2,28 @@ package com.levelup.course_service.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 
 import com.levelup.course_service.entity.Course;
+import com.levelup.course_service.service.CatalogCache;
+import com.levelup.course_service.service.CourseOutlineService;
 import com.levelup.course_service.service.CourseService;
+import com.levelup.course_service.dto.CategoryCountDTO;
+import com.levelup.course_service.dto.CourseCatalogFilter;
+import com.levelup.course_service.dto.CourseCatalogPageDTO;
 import com.levelup.course_service.dto.CourseDTO;
+import com.levelup.course_service.dto.CourseFacetCountDTO;
+import com.levelup.course_service.dto.CourseOutlineDTO;
 import com.levelup.course_service.dto.CourseDetailsRequestDTO;
 import com.levelup.course_service.dto.CourseDetailsResponseDTO;
+import com.levelup.course_service.dto.CourseRatingSummaryDTO;
 
 @RestController
 @RequestMapping("/api/courses")
@@ -21,6 +32,8 @@ import com.levelup.course_service.dto.CourseDetailsResponseDTO;
 public class CourseController {
 
     private final CourseService courseService;
+    private final CatalogCache catalogCache;
+    private final CourseOutlineService courseOutlineService;
 
     @PostMapping
     public ResponseEntity<Course> createCourse(
@@ -35,11 +48,60 @@ public class CourseController {
         return ResponseEntity.ok(courseService.getAllCourses());
     }
 
+    /**
+     * Cursor-paged catalog of course summaries. Pass the returned nextCursor to fetch the following page.
+     */
+    @GetMapping("/catalog")
+    public ResponseEntity<CourseCatalogPageDTO> getCatalog(
+            @RequestParam(required = false) Course.Status status,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Course.CourseLevel level,
+            @RequestParam(required = false) String language,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String tag,
+            @RequestParam(defaultValue = "NEWEST") CourseCatalogFilter.Sort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CourseCatalogFilter filter = CourseCatalogFilter.builder()
+                .status(status)
+                .category(category)
+                .level(level)
+                .language(language)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .tag(tag)
+                .sort(sort)
+                .build();
+        try {
+            return ResponseEntity.ok(courseService.getCatalog(filter, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Course> getCourseById(@PathVariable UUID id) {
-        return courseService.getCourseById(id)
+    public ResponseEntity<byte[]> getCourseById(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CatalogCache.CachedResponse cached = catalogCache.getCourse(id,
+                () -> courseService.getCourseById(id).orElse(null));
+        if (cached == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return cached.toResponse(ifNoneMatch);
+    }
+
+    /**
+     * Course summary, ordered lesson headers and the caller's progress in one response, for the lesson player.
+     */
+    @GetMapping("/{courseId}/outline")
+    public ResponseEntity<CourseOutlineDTO> getCourseOutline(
+            @PathVariable UUID courseId,
+            @RequestHeader(value = "X-User-ID", required = false) UUID currentUserId) {
+        return courseOutlineService.getOutline(courseId, currentUserId)
                 .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
@@ -59,8 +121,22 @@ public class CourseController {
     }
 
     @GetMapping("/categories")
-    public ResponseEntity<List<String>> getCoursesByCategory() {
-        return ResponseEntity.ok(courseService.getAllCategory());
+    public ResponseEntity<byte[]> getCoursesByCategory(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return catalogCache.getCategories(courseService::getAllCategory).toResponse(ifNoneMatch);
+    }
+
+    @GetMapping("/categories/counts")
+    public ResponseEntity<List<CategoryCountDTO>> getCategoryCounts() {
+        return ResponseEntity.ok(courseService.getCategoryCounts());
+    }
+
+    /**
+     * Published-course counts per category, level and language, for catalog filter facets.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<List<CourseFacetCountDTO>> getCourseFacets() {
+        return ResponseEntity.ok(courseService.getCourseFacets());
     }
 
     @PutMapping("/state/{status}/{courseId}")
@@ -74,7 +150,13 @@ public class CourseController {
         return ResponseEntity.ok(courseService.getMyCourses(currentUserId));
     }
 
-    @PostMapping("/details")
+    /**
+     * Id, title, price and instructor of the given courses, for service-to-service calls. Answers CBOR when the
+     * caller accepts application/cbor, JSON otherwise.
+     */
+    @PostMapping(value = "/details",
+            consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE },
+            produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE })
     public ResponseEntity<CourseDetailsResponseDTO> getCourseDetails(@RequestBody CourseDetailsRequestDTO request) {
         log.info("Fetching course details for IDs: {}", request.getCourseIds());
         return ResponseEntity.ok(courseService.getCourseDetailsByIds(request.getCourseIds()));
@@ -94,4 +176,14 @@ public class CourseController {
         courseService.rateCourse(courseId, currentUserId, rating);
         return ResponseEntity.ok("Course rated successfully");
     }
+
+    /**
+     * Rating count, average and 1-5 star histogram of a course.
+     */
+    @GetMapping("/{courseId}/ratings")
+    public ResponseEntity<CourseRatingSummaryDTO> getRatingSummary(@PathVariable UUID courseId) {
+        return courseService.getRatingSummary(courseId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
 }
\ No newline at end of file
@@ -1,10 +1,14 @@
 package com.levelup.course_service.controller;
 
 import com.levelup.course_service.dto.CertificateDTO;
+import com.levelup.course_service.dto.CertificateRequestStatusDTO;
 import com.levelup.course_service.dto.CourseEnrollmentResponseDTO;
+import com.levelup.course_service.dto.EnrollmentPageDTO;
+import com.levelup.course_service.entity.CourseEnrollment;
 import com.levelup.course_service.service.CertificateService;
 import com.levelup.course_service.service.CourseEnrollmentService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -29,6 +33,42 @@ public class CourseEnrollmentController {
         return enrollmentService.getEnrollmentsByCourse(courseId);
     }
 
+    /**
+     * Cursor-paged enrollment summaries of a user, newest first, without completed lesson lists.
+     */
+    @GetMapping("/user/{userId}/summaries")
+    public ResponseEntity<EnrollmentPageDTO> getPageByUser(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(enrollmentService.getEnrollmentPageByUser(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Cursor-paged enrollment summaries of a course, newest first, optionally filtered by status.
+     */
+    @GetMapping("/course/{courseId}/summaries")
+    public ResponseEntity<EnrollmentPageDTO> getPageByCourse(
+            @PathVariable UUID courseId,
+            @RequestParam(required = false) CourseEnrollment.Status status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(enrollmentService.getEnrollmentPageByCourse(courseId, status, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/course/{courseId}/stats")
+    public ResponseEntity<java.util.Map<String, Object>> getCourseStats(@PathVariable UUID courseId) {
+        return ResponseEntity.ok(enrollmentService.getCourseEnrollmentStats(courseId));
+    }
+
     @PutMapping("/{enrollmentId}/progress")
     public void updateProgress(
             @PathVariable UUID enrollmentId,
@@ -36,9 +76,22 @@ public class CourseEnrollmentController {
         enrollmentService.updateProgress(enrollmentId, completedLessons);
     }
 
+    /**
+     * Queues certificate issuance. Answers 202 while the certificate is being issued and 200 once it exists;
+     * poll the status endpoint until the status is ISSUED or FAILED.
+     */
     @GetMapping("/certificate/{enrollmentId}/request")
-    public ResponseEntity<String> requestCertificate(@PathVariable UUID enrollmentId, @RequestHeader("X-User-ID") UUID currentUserId) {
-        return ResponseEntity.ok(certificateService.requestCertificate(enrollmentId, currentUserId));
+    public ResponseEntity<CertificateRequestStatusDTO> requestCertificate(@PathVariable UUID enrollmentId, @RequestHeader("X-User-ID") UUID currentUserId) {
+        CertificateRequestStatusDTO status = certificateService.requestCertificate(enrollmentId, currentUserId);
+        return ResponseEntity.status(status.getCertificateUrl() != null ? HttpStatus.OK : HttpStatus.ACCEPTED)
+                .body(status);
+    }
+
+    @GetMapping("/certificate/{enrollmentId}/status")
+    public ResponseEntity<CertificateRequestStatusDTO> getCertificateStatus(@PathVariable UUID enrollmentId, @RequestHeader("X-User-ID") UUID currentUserId) {
+        return certificateService.getCertificateStatus(enrollmentId, currentUserId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @GetMapping("/analytics")
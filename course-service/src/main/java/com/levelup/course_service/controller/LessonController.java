@@ -1,6 +1,7 @@
 package com.levelup.course_service.controller;
 
 import com.levelup.course_service.dto.LessonDTO;
+import com.levelup.course_service.service.CatalogCache;
 import com.levelup.course_service.service.LessonService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.*;
@@ -15,6 +16,7 @@ import java.util.UUID;
 public class LessonController {
 
     private final LessonService lessonService;
+    private final CatalogCache catalogCache;
 
     @PostMapping
     public ResponseEntity<LessonDTO> createLesson(
@@ -37,8 +39,27 @@ public class LessonController {
     }
 
     @GetMapping("/course/{courseId}")
-    public ResponseEntity<List<LessonDTO>> getLessonsByCourse(@PathVariable UUID courseId) {
-        return ResponseEntity.ok(lessonService.getLessonsByCourse(courseId));
+    public ResponseEntity<byte[]> getLessonsByCourse(
+            @PathVariable UUID courseId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return catalogCache.getLessons(courseId, () -> lessonService.getLessonsByCourse(courseId))
+                .toResponse(ifNoneMatch);
+    }
+
+    @PutMapping("/course/{courseId}")
+    public ResponseEntity<List<LessonDTO>> saveLessons(
+            @PathVariable UUID courseId,
+            @RequestBody List<LessonDTO> lessons,
+            @RequestHeader("X-User-ID") UUID currentUserId) {
+        return ResponseEntity.ok(lessonService.saveLessons(courseId, lessons, currentUserId));
+    }
+
+    @PutMapping("/course/{courseId}/order")
+    public ResponseEntity<List<LessonDTO>> reorderLessons(
+            @PathVariable UUID courseId,
+            @RequestBody List<UUID> lessonIds,
+            @RequestHeader("X-User-ID") UUID currentUserId) {
+        return ResponseEntity.ok(lessonService.reorderLessons(courseId, lessonIds, currentUserId));
     }
 
     @DeleteMapping("/{id}")
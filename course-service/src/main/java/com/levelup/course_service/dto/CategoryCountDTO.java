@@ -0,0 +1,13 @@
+package com.levelup.course_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryCountDTO {
+    private String category;
+    private long publishedCourses;
+}
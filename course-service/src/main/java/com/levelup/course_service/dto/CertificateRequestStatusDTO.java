@@ -0,0 +1,23 @@
+package com.levelup.course_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CertificateRequestStatusDTO {
+    private UUID enrollmentId;
+    private String status;
+    private String certificateUrl; // Set once the status is ISSUED
+    private int attempts;
+    private String lastError;
+    private Instant requestedAt;
+    private Instant updatedAt;
+}
@@ -0,0 +1,33 @@
+package com.levelup.course_service.dto;
+
+import com.levelup.course_service.entity.Course;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Catalog query filters; null fields are not applied.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseCatalogFilter {
+    private Course.Status status;
+    private String category;
+    private Course.CourseLevel level;
+    private String language;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private String tag;
+
+    @Builder.Default
+    private Sort sort = Sort.NEWEST;
+
+    public enum Sort {
+        NEWEST, RATING, ENROLLMENTS
+    }
+}
@@ -0,0 +1,16 @@
+package com.levelup.course_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseCatalogPageDTO {
+    private List<CourseSummaryDTO> courses;
+    // Opaque cursor for the next page; null when this is the last page
+    private String nextCursor;
+}
@@ -14,6 +14,7 @@ public class CourseEnrollmentResponseDTO {
     private UUID id;
     private UUID userId;
     private UUID courseId;
+    private String courseTitle;
     private Instant enrollmentDate;
     private List<String> completedLessons;
     private double progressPercentage;
@@ -0,0 +1,16 @@
+package com.levelup.course_service.dto;
+
+import com.levelup.course_service.entity.Course;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseFacetCountDTO {
+    private String category;
+    private Course.CourseLevel level;
+    private String language;
+    private long publishedCourses;
+}
@@ -0,0 +1,37 @@
+package com.levelup.course_service.dto;
+
+import com.levelup.course_service.entity.Course;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class CourseOutlineDTO {
+    private UUID courseId;
+    // Hash of the course fields and lesson headers below; the same on every instance for the same content
+    private String version;
+    private String title;
+    private String category;
+    private String language;
+    private String thumbnailUrl;
+    private UUID instructorId;
+    private Integer duration;
+    private Course.CourseLevel level;
+    private Course.Status status;
+    private List<LessonHeaderDTO> lessons;
+
+    // Progress of the requesting user; empty when the user is not enrolled
+    private UUID enrollmentId;
+    private String enrollmentStatus;
+    private Double progressPercentage;
+    private int completedLessonCount;
+    // Base64 bit set, bit i (byte i / 8, bit i % 8) set when lessons[i] is completed
+    private String completionBitmap;
+}
@@ -0,0 +1,19 @@
+package com.levelup.course_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseRatingSummaryDTO {
+    private UUID courseId;
+    private long ratingCount;
+    private double ratingAverage;
+    // Number of per-user ratings for each star value 1 to 5
+    private Map<Integer, Long> histogram;
+}
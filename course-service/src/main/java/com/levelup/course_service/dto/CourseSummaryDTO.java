@@ -0,0 +1,34 @@
+package com.levelup.course_service.dto;
+
+import com.levelup.course_service.entity.Course;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Catalog card for a course: only the columns the listing needs, read straight from the courses table.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseSummaryDTO {
+    private UUID id;
+    private String title;
+    private UUID instructorId;
+    private String category;
+    private String language;
+    private Course.CourseLevel level;
+    private Course.Status status;
+    private String thumbnailUrl;
+    private BigDecimal priceAmount;
+    private String priceCurrency;
+    private BigDecimal ratingAverage;
+    private int ratingCount;
+    private int enrollmentCount;
+    private Integer duration; // in hours
+    private Instant createdAt;
+}
@@ -0,0 +1,32 @@
+package com.levelup.course_service.dto;
+
+import com.levelup.course_service.entity.CourseEnrollment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Enrollment row for paged listings: no completed lesson list, read straight from course_enrollments.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrollmentSummaryDTO {
+    private UUID id;
+    private UUID userId;
+    private UUID courseId;
+    private Instant enrollmentDate;
+    private CourseEnrollment.Status status;
+    private double progressPercentage;
+    // Filled in by the user listing only
+    private String courseTitle;
+
+    // Used by the listing query, which does not read course titles
+    public EnrollmentSummaryDTO(UUID id, UUID userId, UUID courseId, Instant enrollmentDate,
+            CourseEnrollment.Status status, double progressPercentage) {
+        this(id, userId, courseId, enrollmentDate, status, progressPercentage, null);
+    }
+}
@@ -0,0 +1,16 @@
+package com.levelup.course_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstructorChangedMessage {
+    private UUID userId;
+    private UUID instructorId;
+    private String change; // REGISTERED, APPROVED, DELETED
+}
@@ -0,0 +1,22 @@
+package com.levelup.course_service.dto;
+
+import com.levelup.course_service.entity.Lesson;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LessonHeaderDTO {
+    private UUID id;
+    private String title;
+    private String contentType;
+    private int order;
+    private UUID quizId;
+    private Lesson.Status status;
+}
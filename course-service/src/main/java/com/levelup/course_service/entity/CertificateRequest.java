@@ -0,0 +1,65 @@
+package com.levelup.course_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An asynchronous certificate issuance for one enrollment, driven by CertificateIssuanceWorker.
+ * REQUESTED rows wait for {@code nextAttemptAt}; a worker moves them to ISSUING while it calls the certifier,
+ * then to ISSUED, back to REQUESTED for a retry, or to FAILED once attempts are exhausted.
+ * The certifier's id is stored as soon as it answers, so a retry finishes that certificate instead of issuing another.
+ */
+@Entity
+@Table(
+        name = "certificate_requests",
+        uniqueConstraints = @UniqueConstraint(name = "uk_certificate_request_enrollment", columnNames = "enrollment_id"),
+        indexes = @Index(name = "idx_certificate_requests_status_next_attempt", columnList = "status, next_attempt_at")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CertificateRequest {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "enrollment_id", nullable = false)
+    private UUID enrollmentId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "course_id", nullable = false)
+    private UUID courseId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "public_id")
+    private String publicId;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "requested_at", nullable = false)
+    private Instant requestedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public enum Status {
+        REQUESTED, ISSUING, ISSUED, FAILED
+    }
+}
@@ -2,6 +2,7 @@ package com.levelup.course_service.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -9,7 +10,14 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "courses")
+@Table(name = "courses", indexes = {
+        // Catalog listing: equality filters first, then the sort key and id used by the cursor
+        @Index(name = "idx_courses_status_created_at", columnList = "status, created_at, id"),
+        @Index(name = "idx_courses_status_rating", columnList = "status, rating_average, id"),
+        @Index(name = "idx_courses_status_enrollments", columnList = "status, enrollment_count, id"),
+        @Index(name = "idx_courses_status_category_created_at", columnList = "status, category, created_at, id"),
+        @Index(name = "idx_courses_instructor", columnList = "instructor_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,7 +41,8 @@ public class Course {
     private String category;
 
     @ElementCollection
-    @CollectionTable(name = "course_tags", joinColumns = @JoinColumn(name = "course_id"))
+    @CollectionTable(name = "course_tags", joinColumns = @JoinColumn(name = "course_id"),
+            indexes = @Index(name = "idx_course_tags_tag_course", columnList = "tag, course_id"))
     @Column(name = "tag")
     private List<String> tags;
 
@@ -52,7 +61,8 @@ public class Course {
     @Column(name = "published_at")
     private Instant publishedAt;
 
-    @Column(name = "enrollment_count")
+    // Counter columns are only moved by CourseCounterService, never by saving the entity
+    @Column(name = "enrollment_count", updatable = false)
     private int enrollmentCount;
 
     @Column(name = "price_amount", precision = 12, scale = 2)
@@ -61,19 +71,26 @@ public class Course {
     @Column(name = "price_currency", length = 10)
     private String priceCurrency;
 
-    @Column(name = "rating_average", precision = 3, scale = 2)
-    private BigDecimal ratingAverage;
+    // Not null so the catalog can sort and page on the bare column through its index; 0 until rated
+    @ColumnDefault("0")
+    @Column(name = "rating_average", precision = 3, scale = 2, nullable = false, updatable = false)
+    @Builder.Default
+    private BigDecimal ratingAverage = BigDecimal.ZERO;
 
-    @Column(name = "rating_count")
+    @Column(name = "rating_count", updatable = false)
     private int ratingCount;
 
+    // Sum of all star ratings; null for courses rated before it was tracked
+    @Column(name = "rating_total", updatable = false)
+    private Long ratingTotal;
+
     @Column(name = "duration")
     private Integer duration; // in hours
 
     @Enumerated(EnumType.STRING)
     private CourseLevel level;
 
-    @Column(name = "created_at", updatable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
     @Column(name = "updated_at")
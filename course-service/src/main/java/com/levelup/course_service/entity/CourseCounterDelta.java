@@ -0,0 +1,41 @@
+package com.levelup.course_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A pending change to a course's enrollment and rating counters. Writers only ever insert these rows,
+ * so concurrent enrollments never contend on the course row; CourseCounterService folds them into the course.
+ */
+@Entity
+@Table(name = "course_counter_deltas", indexes = {
+        @Index(name = "idx_course_counter_deltas_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseCounterDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "course_id", nullable = false)
+    private UUID courseId;
+
+    @Column(name = "enrollment_delta", nullable = false)
+    private int enrollmentDelta;
+
+    @Column(name = "rating_count_delta", nullable = false)
+    private int ratingCountDelta;
+
+    @Column(name = "rating_total_delta", nullable = false)
+    private int ratingTotalDelta;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
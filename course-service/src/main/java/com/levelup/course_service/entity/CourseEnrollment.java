@@ -2,6 +2,7 @@ package com.levelup.course_service.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.http.ProblemDetail;
 
 import java.time.Instant;
@@ -9,7 +10,16 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "course_enrollments")
+@Table(
+        name = "course_enrollments",
+        uniqueConstraints = @UniqueConstraint(name = "uk_enrollment_user_course", columnNames = {"user_id", "course_id"}),
+        indexes = {
+                // Paged listings: equality filters first, then the sort key and id used by the cursor
+                @Index(name = "idx_enrollments_course_date", columnList = "course_id, enrollment_date, id"),
+                @Index(name = "idx_enrollments_course_status_date", columnList = "course_id, status, enrollment_date, id"),
+                @Index(name = "idx_enrollments_user_date", columnList = "user_id, enrollment_date, id")
+        }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -39,12 +49,16 @@ public class CourseEnrollment {
     @Column(name = "updated_at")
     private Instant updatedAt;
 
+    // Read-only view; completions are inserted idempotently through CourseEnrollmentRepository
     @ElementCollection
     @CollectionTable(
             name = "enrollment_completed_lessons",
-            joinColumns = @JoinColumn(name = "enrollment_id")
+            joinColumns = @JoinColumn(name = "enrollment_id"),
+            uniqueConstraints = @UniqueConstraint(
+                    name = "uk_enrollment_completed_lesson", columnNames = {"enrollment_id", "lesson_id"})
     )
     @Column(name = "lesson_id")
+    @BatchSize(size = 100)
     private List<UUID> completedLessons;
 
     @Column(name = "progress_percentage", nullable = false)
@@ -0,0 +1,41 @@
+package com.levelup.course_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A user's star rating for a course. One row per (course, user); rating again replaces the previous stars.
+ */
+@Entity
+@Table(
+        name = "course_ratings",
+        uniqueConstraints = @UniqueConstraint(name = "uk_course_rating_course_user", columnNames = {"course_id", "user_id"})
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseRating {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "course_id", nullable = false)
+    private UUID courseId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private int rating;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,56 @@
+package com.levelup.course_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Per-course enrollment, completion and rating counters backing the admin analytics and the rating histogram.
+ * Maintained by CourseRollupService on enrollment, completion and rating, and recomputed nightly.
+ */
+@Entity
+@Table(name = "course_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseRollup {
+
+    @Id
+    @Column(name = "course_id")
+    private UUID courseId;
+
+    @Column(name = "enrollment_count", nullable = false)
+    private long enrollmentCount;
+
+    @Column(name = "completion_count", nullable = false)
+    private long completionCount;
+
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    // Sum of all star ratings, so the average is rating_total / rating_count
+    @Column(name = "rating_total", nullable = false)
+    private long ratingTotal;
+
+    // Star histogram of per-user ratings; defaults let the columns be added to an existing table
+    @Column(name = "one_star_count", nullable = false, columnDefinition = "bigint not null default 0")
+    private long oneStarCount;
+
+    @Column(name = "two_star_count", nullable = false, columnDefinition = "bigint not null default 0")
+    private long twoStarCount;
+
+    @Column(name = "three_star_count", nullable = false, columnDefinition = "bigint not null default 0")
+    private long threeStarCount;
+
+    @Column(name = "four_star_count", nullable = false, columnDefinition = "bigint not null default 0")
+    private long fourStarCount;
+
+    @Column(name = "five_star_count", nullable = false, columnDefinition = "bigint not null default 0")
+    private long fiveStarCount;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
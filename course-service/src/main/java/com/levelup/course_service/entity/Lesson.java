@@ -7,7 +7,9 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "lessons")
+@Table(name = "lessons", indexes = {
+        @Index(name = "idx_lessons_course_order", columnList = "course_id, lesson_order")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
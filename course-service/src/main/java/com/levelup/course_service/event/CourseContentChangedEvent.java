@@ -0,0 +1,28 @@
+package com.levelup.course_service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * Published by the course and lesson write paths so read-side caches can drop what the change affected.
+ */
+@Data
+@AllArgsConstructor
+public class CourseContentChangedEvent {
+
+    private UUID courseId;
+    private Scope scope;
+
+    public enum Scope {
+        /** Course row changed, but not in a way that affects catalog-wide listings (ratings, counters). */
+        COURSE,
+        /** Course created, edited or published; catalog-wide listings such as categories are affected too. */
+        CATALOG,
+        /** Lessons of the course were added, edited, reordered or removed. */
+        LESSONS,
+        /** Course was deleted together with its lessons. */
+        DELETED
+    }
+}
@@ -0,0 +1,33 @@
+package com.levelup.course_service.event;
+
+import com.levelup.course_service.entity.Course;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * Published when a course's catalog facets may have changed: on create (before is null),
+ * edit or state change, and delete (after is null).
+ */
+@Data
+@AllArgsConstructor
+public class CourseFacetChangedEvent {
+
+    private UUID courseId;
+    private CourseFacet before;
+    private CourseFacet after;
+
+    @Data
+    @AllArgsConstructor
+    public static class CourseFacet {
+        private String category;
+        private Course.CourseLevel level;
+        private String language;
+        private Course.Status status;
+
+        public static CourseFacet of(Course course) {
+            return new CourseFacet(course.getCategory(), course.getLevel(), course.getLanguage(), course.getStatus());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.levelup.course_service.exception;
+
+import lombok.Getter;
+
+@Getter
+public class CertifierException extends RuntimeException {
+
+    // False when repeating the same request cannot succeed, e.g. the certifier rejected the payload
+    private final boolean retryable;
+
+    public CertifierException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public CertifierException(String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+}
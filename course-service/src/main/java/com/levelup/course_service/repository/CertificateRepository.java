@@ -1,8 +1,10 @@
 package com.levelup.course_service.repository;
 
+import com.levelup.course_service.dto.CertificateDTO;
 import com.levelup.course_service.entity.Certificate;
-import com.levelup.course_service.entity.CourseEnrollment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,5 +13,9 @@ import java.util.UUID;
 public interface CertificateRepository extends JpaRepository<Certificate, UUID> {
     boolean existsByEnrollmentId(UUID enrollmentId);
     Optional<Certificate> findByEnrollmentId(UUID enrollmentId);
-    List<Certificate> findByEnrollmentIn(List<CourseEnrollment> enrollments);
+
+    @Query("SELECT new com.levelup.course_service.dto.CertificateDTO(c.publicId, c.certificateUrl, co.title) "
+            + "FROM Certificate c JOIN c.enrollment e JOIN Course co ON co.id = e.courseId "
+            + "WHERE e.userId = :userId")
+    List<CertificateDTO> findCertificateDtosByUserId(@Param("userId") UUID userId);
 }
@@ -0,0 +1,43 @@
+package com.levelup.course_service.repository;
+
+import com.levelup.course_service.entity.CertificateRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface CertificateRequestRepository extends JpaRepository<CertificateRequest, UUID> {
+
+    Optional<CertificateRequest> findByEnrollmentId(UUID enrollmentId);
+
+    // No conflict target, so the statement also runs on H2 in PostgreSQL mode; enrollment_id is the only natural key
+    @Modifying
+    @Query(value = "INSERT INTO certificate_requests (id, enrollment_id, user_id, course_id, status, attempts, "
+            + "next_attempt_at, requested_at, updated_at) "
+            + "VALUES (:id, :enrollmentId, :userId, :courseId, 'REQUESTED', 0, :now, :now, :now) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id,
+            @Param("enrollmentId") UUID enrollmentId,
+            @Param("userId") UUID userId,
+            @Param("courseId") UUID courseId,
+            @Param("now") Instant now);
+
+    // SKIP LOCKED lets workers on several replicas claim disjoint batches
+    @Query(value = "SELECT * FROM certificate_requests WHERE status = 'REQUESTED' AND next_attempt_at <= :now "
+            + "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<CertificateRequest> lockDue(@Param("now") Instant now, @Param("limit") int limit);
+
+    // Returns requests whose worker died mid-call to the queue
+    @Modifying
+    @Query("UPDATE CertificateRequest r "
+            + "SET r.status = com.levelup.course_service.entity.CertificateRequest.Status.REQUESTED, "
+            + "r.nextAttemptAt = :now, r.updatedAt = :now "
+            + "WHERE r.status = com.levelup.course_service.entity.CertificateRequest.Status.ISSUING "
+            + "AND r.updatedAt < :staleBefore")
+    int requeueStale(@Param("staleBefore") Instant staleBefore, @Param("now") Instant now);
+}
@@ -0,0 +1,38 @@
+package com.levelup.course_service.repository;
+
+import com.levelup.course_service.dto.CourseCatalogFilter;
+import com.levelup.course_service.dto.CourseSummaryDTO;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Catalog queries built from optional filters, returning summary projections instead of entities.
+ */
+public interface CourseCatalogRepository {
+
+    // Creation time given to courses stored before created_at was required, so that they sort last
+    Instant UNDATED = Instant.EPOCH;
+
+    /**
+     * Returns up to {@code limit} courses in the filter's sort order, descending by sort key and then id.
+     * When {@code afterValue} and {@code afterId} are set, only rows after that position are returned.
+     */
+    List<CourseSummaryDTO> findCatalogPage(CourseCatalogFilter filter, Comparable<?> afterValue, UUID afterId,
+            int limit);
+
+    /**
+     * Whether rating_average or created_at still accepts NULL, as on tables created before both were required.
+     */
+    boolean sortKeysNullable();
+
+    void lockForSortKeyMigration();
+
+    /**
+     * Gives unrated courses a 0 average and undated ones {@link #UNDATED}; returns the number of courses changed.
+     */
+    int backfillSortKeys();
+
+    void requireSortKeys();
+}
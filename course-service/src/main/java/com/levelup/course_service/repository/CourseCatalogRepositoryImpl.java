@@ -0,0 +1,131 @@
+package com.levelup.course_service.repository;
+
+import com.levelup.course_service.dto.CourseCatalogFilter;
+import com.levelup.course_service.dto.CourseSummaryDTO;
+import com.levelup.course_service.entity.Course;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class CourseCatalogRepositoryImpl implements CourseCatalogRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<CourseSummaryDTO> findCatalogPage(CourseCatalogFilter filter, Comparable<?> afterValue,
+            UUID afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CourseSummaryDTO> query = cb.createQuery(CourseSummaryDTO.class);
+        Root<Course> course = query.from(Course.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getStatus() != null) {
+            predicates.add(cb.equal(course.get("status"), filter.getStatus()));
+        }
+        if (filter.getCategory() != null) {
+            predicates.add(cb.equal(course.get("category"), filter.getCategory()));
+        }
+        if (filter.getLevel() != null) {
+            predicates.add(cb.equal(course.get("level"), filter.getLevel()));
+        }
+        if (filter.getLanguage() != null) {
+            predicates.add(cb.equal(course.get("language"), filter.getLanguage()));
+        }
+        if (filter.getMinPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(course.get("priceAmount"), filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(course.get("priceAmount"), filter.getMaxPrice()));
+        }
+        if (filter.getTag() != null) {
+            // Resolved through the (tag, course_id) index rather than joining every course to its tags
+            Subquery<UUID> tagged = query.subquery(UUID.class);
+            Root<Course> taggedCourse = tagged.from(Course.class);
+            Join<Course, String> tag = taggedCourse.join("tags");
+            tagged.select(taggedCourse.get("id")).where(cb.equal(tag, filter.getTag()));
+            predicates.add(course.get("id").in(tagged));
+        }
+
+        Expression sortKey = sortKey(course, filter.getSort());
+        Path<UUID> id = course.get("id");
+        if (afterValue != null && afterId != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(sortKey, (Comparable) afterValue),
+                    cb.and(cb.equal(sortKey, afterValue), cb.lessThan(id, afterId))));
+        }
+
+        query.select(cb.construct(CourseSummaryDTO.class,
+                        course.get("id"),
+                        course.get("title"),
+                        course.get("instructorId"),
+                        course.get("category"),
+                        course.get("language"),
+                        course.get("level"),
+                        course.get("status"),
+                        course.get("thumbnailUrl"),
+                        course.get("priceAmount"),
+                        course.get("priceCurrency"),
+                        course.get("ratingAverage"),
+                        course.get("ratingCount"),
+                        course.get("enrollmentCount"),
+                        course.get("duration"),
+                        course.get("createdAt")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(sortKey), cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Sort keys are bare NOT NULL columns, so the (status, key, id) indexes serve both the ORDER BY and the
+     * cursor predicate.
+     */
+    private Expression<?> sortKey(Root<Course> course, CourseCatalogFilter.Sort sort) {
+        return switch (sort) {
+            case RATING -> course.get("ratingAverage");
+            case ENROLLMENTS -> course.get("enrollmentCount");
+            case NEWEST -> course.get("createdAt");
+        };
+    }
+
+    @Override
+    public boolean sortKeysNullable() {
+        Number count = (Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM information_schema.columns "
+                        + "WHERE LOWER(table_name) = 'courses' "
+                        + "AND LOWER(column_name) IN ('rating_average', 'created_at') "
+                        + "AND is_nullable = 'YES'")
+                .getSingleResult();
+        return count.longValue() > 0;
+    }
+
+    @Override
+    public void lockForSortKeyMigration() {
+        entityManager.createNativeQuery("LOCK TABLE courses IN SHARE ROW EXCLUSIVE MODE").executeUpdate();
+    }
+
+    @Override
+    public int backfillSortKeys() {
+        return entityManager.createNativeQuery("UPDATE courses SET "
+                        + "rating_average = COALESCE(rating_average, 0), "
+                        + "created_at = COALESCE(created_at, :undated) "
+                        + "WHERE rating_average IS NULL OR created_at IS NULL")
+                .setParameter("undated", UNDATED)
+                .executeUpdate();
+    }
+
+    @Override
+    public void requireSortKeys() {
+        entityManager.createNativeQuery("ALTER TABLE courses "
+                + "ALTER COLUMN rating_average SET DEFAULT 0, "
+                + "ALTER COLUMN rating_average SET NOT NULL, "
+                + "ALTER COLUMN created_at SET NOT NULL").executeUpdate();
+    }
+}
@@ -0,0 +1,17 @@
+package com.levelup.course_service.repository;
+
+import com.levelup.course_service.entity.CourseCounterDelta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface CourseCounterDeltaRepository extends JpaRepository<CourseCounterDelta, UUID> {
+
+    // SKIP LOCKED lets every replica fold a disjoint set of deltas at the same time
+    @Query(value = "SELECT * FROM course_counter_deltas ORDER BY created_at "
+            + "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<CourseCounterDelta> lockPending(@Param("limit") int limit);
+}
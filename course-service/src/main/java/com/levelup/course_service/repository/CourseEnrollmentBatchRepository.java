@@ -0,0 +1,68 @@
+package com.levelup.course_service.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface CourseEnrollmentBatchRepository {
+
+    /**
+     * Inserts the enrollments with multi-row INSERT statements, skipping (user, course) pairs that already exist.
+     * Returns the course id of every row actually inserted.
+     */
+    List<UUID> insertIgnoringExisting(Collection<NewEnrollment> enrollments);
+
+    /**
+     * Whether the unique (user_id, course_id) constraint that insertIgnoringExisting relies on is in place.
+     */
+    boolean userCourseConstraintExists();
+
+    /**
+     * Takes a lock on course_enrollments that blocks writers, and other replicas migrating, until commit.
+     */
+    void lockForConstraintMigration();
+
+    /**
+     * Deletes duplicate enrollments of a (user, course) pair that carry no progress, completions or certificate,
+     * keeping the most advanced enrollment of the pair. Returns the number of rows deleted per course.
+     */
+    Map<UUID, Long> deleteRedundantDuplicates();
+
+    /**
+     * Number of (user, course) pairs that still have more than one enrollment.
+     */
+    long countDuplicatePairs();
+
+    void addUserCourseConstraint();
+
+    /**
+     * Whether the unique (enrollment_id, lesson_id) constraint that insertCompletedLesson relies on is in place.
+     */
+    boolean completedLessonConstraintExists();
+
+    /**
+     * Takes a lock on enrollment_completed_lessons that blocks writers, and other replicas migrating, until commit.
+     */
+    void lockCompletedLessonsForConstraintMigration();
+
+    /**
+     * Collapses repeated completions of a lesson within an enrollment into a single row.
+     * Returns the number of (enrollment, lesson) pairs that had duplicates.
+     */
+    int deleteDuplicateCompletedLessons();
+
+    void addCompletedLessonConstraint();
+
+    @Data
+    @AllArgsConstructor
+    class NewEnrollment {
+        private UUID userId;
+        private UUID courseId;
+        private Instant enrollmentTime;
+    }
+}
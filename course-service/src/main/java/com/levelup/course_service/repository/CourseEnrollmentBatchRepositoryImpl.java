@@ -0,0 +1,184 @@
+package com.levelup.course_service.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.query.NativeQuery;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class CourseEnrollmentBatchRepositoryImpl implements CourseEnrollmentBatchRepository {
+
+    // Keeps each statement well below the driver's bind parameter limit
+    private static final int ROWS_PER_STATEMENT = 500;
+    private static final int PARAMS_PER_ROW = 4;
+    private static final int IDS_PER_DELETE = 1000;
+
+    private static final String USER_COURSE_CONSTRAINT = "uk_enrollment_user_course";
+    private static final String COMPLETED_LESSON_CONSTRAINT = "uk_enrollment_completed_lesson";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UUID> insertIgnoringExisting(Collection<NewEnrollment> enrollments) {
+        List<NewEnrollment> rows = new ArrayList<>(enrollments);
+        List<UUID> insertedCourseIds = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += ROWS_PER_STATEMENT) {
+            int to = Math.min(from + ROWS_PER_STATEMENT, rows.size());
+            insertedCourseIds.addAll(insertChunk(rows.subList(from, to)));
+        }
+        return insertedCourseIds;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<UUID> insertChunk(List<NewEnrollment> chunk) {
+        // Shared timestamp for created_at and updated_at goes after the per-row parameters
+        int nowParam = chunk.size() * PARAMS_PER_ROW + 1;
+        StringBuilder sql = new StringBuilder("INSERT INTO course_enrollments "
+                + "(id, user_id, course_id, enrollment_date, status, created_at, updated_at, progress_percentage) VALUES ");
+        for (int i = 0; i < chunk.size(); i++) {
+            int p = i * PARAMS_PER_ROW;
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(?").append(p + 1)
+                    .append(", ?").append(p + 2)
+                    .append(", ?").append(p + 3)
+                    .append(", ?").append(p + 4)
+                    .append(", 'IN_PROGRESS', ?").append(nowParam)
+                    .append(", ?").append(nowParam)
+                    .append(", 0)");
+        }
+        sql.append(" ON CONFLICT (user_id, course_id) DO NOTHING RETURNING course_id");
+
+        Query query = entityManager.createNativeQuery(sql.toString(), UUID.class);
+        query.setParameter(nowParam, Instant.now());
+        for (int i = 0; i < chunk.size(); i++) {
+            NewEnrollment enrollment = chunk.get(i);
+            int p = i * PARAMS_PER_ROW;
+            query.setParameter(p + 1, UUID.randomUUID());
+            query.setParameter(p + 2, enrollment.getUserId());
+            query.setParameter(p + 3, enrollment.getCourseId());
+            query.setParameter(p + 4, enrollment.getEnrollmentTime());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public boolean userCourseConstraintExists() {
+        return uniqueConstraintExists("course_enrollments", USER_COURSE_CONSTRAINT);
+    }
+
+    @Override
+    public void lockForConstraintMigration() {
+        entityManager.createNativeQuery("LOCK TABLE course_enrollments IN SHARE ROW EXCLUSIVE MODE").executeUpdate();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<UUID, Long> deleteRedundantDuplicates() {
+        // Rank the enrollments of each pair: a certified one first, then the furthest along, then the oldest
+        List<Object[]> redundant = entityManager.createNativeQuery("SELECT ranked.id, ranked.course_id FROM ("
+                        + "SELECT e.id, e.course_id, e.progress_percentage, ROW_NUMBER() OVER ("
+                        + "PARTITION BY e.user_id, e.course_id ORDER BY "
+                        + "CASE WHEN EXISTS (SELECT 1 FROM course_certificates c WHERE c.enrollment_id = e.id) "
+                        + "THEN 0 ELSE 1 END, e.progress_percentage DESC, e.enrollment_date, e.id) AS pair_rank "
+                        + "FROM course_enrollments e) ranked "
+                        + "WHERE ranked.pair_rank > 1 AND ranked.progress_percentage = 0 "
+                        + "AND NOT EXISTS (SELECT 1 FROM course_certificates c WHERE c.enrollment_id = ranked.id) "
+                        + "AND NOT EXISTS (SELECT 1 FROM certificate_requests r WHERE r.enrollment_id = ranked.id) "
+                        + "AND NOT EXISTS (SELECT 1 FROM enrollment_completed_lessons l "
+                        + "WHERE l.enrollment_id = ranked.id)")
+                .unwrap(NativeQuery.class)
+                .addScalar("id", UUID.class)
+                .addScalar("course_id", UUID.class)
+                .getResultList();
+
+        Map<UUID, Long> deletedPerCourse = new LinkedHashMap<>();
+        List<UUID> ids = new ArrayList<>(redundant.size());
+        for (Object[] row : redundant) {
+            ids.add((UUID) row[0]);
+            deletedPerCourse.merge((UUID) row[1], 1L, Long::sum);
+        }
+        for (int from = 0; from < ids.size(); from += IDS_PER_DELETE) {
+            entityManager.createNativeQuery("DELETE FROM course_enrollments WHERE id IN (:ids)")
+                    .setParameter("ids", ids.subList(from, Math.min(from + IDS_PER_DELETE, ids.size())))
+                    .executeUpdate();
+        }
+        return deletedPerCourse;
+    }
+
+    @Override
+    public long countDuplicatePairs() {
+        Number count = (Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM ("
+                        + "SELECT 1 FROM course_enrollments GROUP BY user_id, course_id HAVING COUNT(*) > 1) pairs")
+                .getSingleResult();
+        return count.longValue();
+    }
+
+    @Override
+    public void addUserCourseConstraint() {
+        entityManager.createNativeQuery("ALTER TABLE course_enrollments ADD CONSTRAINT " + USER_COURSE_CONSTRAINT
+                + " UNIQUE (user_id, course_id)").executeUpdate();
+    }
+
+    @Override
+    public boolean completedLessonConstraintExists() {
+        return uniqueConstraintExists("enrollment_completed_lessons", COMPLETED_LESSON_CONSTRAINT);
+    }
+
+    @Override
+    public void lockCompletedLessonsForConstraintMigration() {
+        entityManager.createNativeQuery("LOCK TABLE enrollment_completed_lessons IN SHARE ROW EXCLUSIVE MODE")
+                .executeUpdate();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int deleteDuplicateCompletedLessons() {
+        List<Object[]> pairs = entityManager.createNativeQuery("SELECT enrollment_id, lesson_id "
+                        + "FROM enrollment_completed_lessons GROUP BY enrollment_id, lesson_id HAVING COUNT(*) > 1")
+                .unwrap(NativeQuery.class)
+                .addScalar("enrollment_id", UUID.class)
+                .addScalar("lesson_id", UUID.class)
+                .getResultList();
+
+        // The copies are identical and the table has no key to tell them apart, so each pair is rewritten once
+        for (Object[] pair : pairs) {
+            entityManager.createNativeQuery("DELETE FROM enrollment_completed_lessons "
+                            + "WHERE enrollment_id = :enrollmentId AND lesson_id = :lessonId")
+                    .setParameter("enrollmentId", pair[0])
+                    .setParameter("lessonId", pair[1])
+                    .executeUpdate();
+            entityManager.createNativeQuery("INSERT INTO enrollment_completed_lessons (enrollment_id, lesson_id) "
+                            + "VALUES (:enrollmentId, :lessonId)")
+                    .setParameter("enrollmentId", pair[0])
+                    .setParameter("lessonId", pair[1])
+                    .executeUpdate();
+        }
+        return pairs.size();
+    }
+
+    @Override
+    public void addCompletedLessonConstraint() {
+        entityManager.createNativeQuery("ALTER TABLE enrollment_completed_lessons ADD CONSTRAINT "
+                + COMPLETED_LESSON_CONSTRAINT + " UNIQUE (enrollment_id, lesson_id)").executeUpdate();
+    }
+
+    private boolean uniqueConstraintExists(String table, String constraint) {
+        Number count = (Number) entityManager.createNativeQuery("SELECT COUNT(*) "
+                        + "FROM information_schema.table_constraints "
+                        + "WHERE LOWER(table_name) = '" + table + "' "
+                        + "AND LOWER(constraint_name) = '" + constraint + "' "
+                        + "AND constraint_type = 'UNIQUE'")
+                .getSingleResult();
+        return count.longValue() > 0;
+    }
+}
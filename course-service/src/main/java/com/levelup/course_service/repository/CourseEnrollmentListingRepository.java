@@ -0,0 +1,20 @@
+package com.levelup.course_service.repository;
+
+import com.levelup.course_service.dto.EnrollmentSummaryDTO;
+import com.levelup.course_service.entity.CourseEnrollment;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset-paged enrollment listings, newest enrollment first, returning summary projections instead of entities.
+ * When {@code afterDate} and {@code afterId} are set, only rows after that position are returned.
+ */
+public interface CourseEnrollmentListingRepository {
+
+    List<EnrollmentSummaryDTO> findCoursePage(UUID courseId, CourseEnrollment.Status status, Instant afterDate,
+            UUID afterId, int limit);
+
+    List<EnrollmentSummaryDTO> findUserPage(UUID userId, Instant afterDate, UUID afterId, int limit);
+}
@@ -0,0 +1,72 @@
+package com.levelup.course_service.repository;
+
+import com.levelup.course_service.dto.EnrollmentSummaryDTO;
+import com.levelup.course_service.entity.CourseEnrollment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class CourseEnrollmentListingRepositoryImpl implements CourseEnrollmentListingRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<EnrollmentSummaryDTO> findCoursePage(UUID courseId, CourseEnrollment.Status status,
+            Instant afterDate, UUID afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EnrollmentSummaryDTO> query = cb.createQuery(EnrollmentSummaryDTO.class);
+        Root<CourseEnrollment> enrollment = query.from(CourseEnrollment.class);
+
+        // Served by idx_enrollments_course_status_date
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(enrollment.get("courseId"), courseId));
+        if (status != null) {
+            predicates.add(cb.equal(enrollment.get("status"), status));
+        }
+        return page(cb, query, enrollment, predicates, afterDate, afterId, limit);
+    }
+
+    @Override
+    public List<EnrollmentSummaryDTO> findUserPage(UUID userId, Instant afterDate, UUID afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EnrollmentSummaryDTO> query = cb.createQuery(EnrollmentSummaryDTO.class);
+        Root<CourseEnrollment> enrollment = query.from(CourseEnrollment.class);
+
+        // Served by idx_enrollments_user_date
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(enrollment.get("userId"), userId));
+        return page(cb, query, enrollment, predicates, afterDate, afterId, limit);
+    }
+
+    private List<EnrollmentSummaryDTO> page(CriteriaBuilder cb, CriteriaQuery<EnrollmentSummaryDTO> query,
+            Root<CourseEnrollment> enrollment, List<Predicate> predicates, Instant afterDate, UUID afterId,
+            int limit) {
+        Path<Instant> date = enrollment.get("enrollmentDate");
+        Path<UUID> id = enrollment.get("id");
+        if (afterDate != null && afterId != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(date, afterDate),
+                    cb.and(cb.equal(date, afterDate), cb.lessThan(id, afterId))));
+        }
+
+        query.select(cb.construct(EnrollmentSummaryDTO.class,
+                        id,
+                        enrollment.get("userId"),
+                        enrollment.get("courseId"),
+                        date,
+                        enrollment.get("status"),
+                        enrollment.get("progressPercentage")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(date), cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
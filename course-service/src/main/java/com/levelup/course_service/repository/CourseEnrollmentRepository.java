@@ -1,12 +1,20 @@
 package com.levelup.course_service.repository;
 
 import com.levelup.course_service.entity.CourseEnrollment;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface CourseEnrollmentRepository extends JpaRepository<CourseEnrollment, UUID> {
+public interface CourseEnrollmentRepository extends JpaRepository<CourseEnrollment, UUID>, CourseEnrollmentBatchRepository,
+        CourseEnrollmentListingRepository {
     List<CourseEnrollment> findByUserId(UUID userId);
 
     List<CourseEnrollment> findByCourseId(UUID courseId);
@@ -16,4 +24,89 @@ public interface CourseEnrollmentRepository extends JpaRepository<CourseEnrollme
     Optional<CourseEnrollment> findByUserIdAndCourseId(UUID userId, UUID courseId);
 
     int countByCourseId(UUID courseId);
+
+    /**
+     * Loads the enrollment and locks its row until commit, serializing progress changes on one enrollment.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM CourseEnrollment e WHERE e.id = :enrollmentId")
+    Optional<CourseEnrollment> findByIdForUpdate(@Param("enrollmentId") UUID enrollmentId);
+
+    @Query("SELECT e.status FROM CourseEnrollment e WHERE e.id = :enrollmentId")
+    CourseEnrollment.Status findStatusById(@Param("enrollmentId") UUID enrollmentId);
+
+    /**
+     * Enrollment state repeated on each row, with one completed lesson per row (null when there are none).
+     */
+    interface ProgressRow {
+        UUID getEnrollmentId();
+
+        CourseEnrollment.Status getStatus();
+
+        double getProgressPercentage();
+
+        UUID getLessonId();
+    }
+
+    @Query("SELECT e.id AS enrollmentId, e.status AS status, e.progressPercentage AS progressPercentage, "
+            + "cl AS lessonId FROM CourseEnrollment e LEFT JOIN e.completedLessons cl "
+            + "WHERE e.userId = :userId AND e.courseId = :courseId")
+    List<ProgressRow> findProgressRows(@Param("userId") UUID userId, @Param("courseId") UUID courseId);
+
+    interface CourseEnrollmentStats {
+        Long getTotal();
+
+        Long getCompleted();
+
+        Double getAverageProgress();
+
+        Long getBelow25();
+
+        Long getBelow50();
+
+        Long getBelow75();
+
+        Long getBelow100();
+    }
+
+    @Query("SELECT COUNT(e) AS total, "
+            + "SUM(CASE WHEN e.status = com.levelup.course_service.entity.CourseEnrollment.Status.COMPLETED "
+            + "  THEN 1 ELSE 0 END) AS completed, "
+            + "AVG(e.progressPercentage) AS averageProgress, "
+            + "SUM(CASE WHEN e.progressPercentage < 25 THEN 1 ELSE 0 END) AS below25, "
+            + "SUM(CASE WHEN e.progressPercentage >= 25 AND e.progressPercentage < 50 THEN 1 ELSE 0 END) AS below50, "
+            + "SUM(CASE WHEN e.progressPercentage >= 50 AND e.progressPercentage < 75 THEN 1 ELSE 0 END) AS below75, "
+            + "SUM(CASE WHEN e.progressPercentage >= 75 AND e.progressPercentage < 100 THEN 1 ELSE 0 END) AS below100 "
+            + "FROM CourseEnrollment e WHERE e.courseId = :courseId")
+    CourseEnrollmentStats getCourseStats(@Param("courseId") UUID courseId);
+
+    // Completed lessons are written with these statements only; the entity's collection is never saved back
+    @Modifying
+    @Query(value = "INSERT INTO enrollment_completed_lessons (enrollment_id, lesson_id) "
+            + "VALUES (:enrollmentId, :lessonId) "
+            + "ON CONFLICT (enrollment_id, lesson_id) DO NOTHING", nativeQuery = true)
+    int insertCompletedLesson(@Param("enrollmentId") UUID enrollmentId, @Param("lessonId") UUID lessonId);
+
+    @Modifying
+    @Query(value = "DELETE FROM enrollment_completed_lessons WHERE enrollment_id = :enrollmentId "
+            + "AND lesson_id NOT IN (:keep)", nativeQuery = true)
+    int deleteCompletedLessonsNotIn(@Param("enrollmentId") UUID enrollmentId, @Param("keep") Collection<UUID> keep);
+
+    @Modifying
+    @Query(value = "DELETE FROM enrollment_completed_lessons WHERE enrollment_id = :enrollmentId", nativeQuery = true)
+    int deleteCompletedLessons(@Param("enrollmentId") UUID enrollmentId);
+
+    /**
+     * Recomputes progress and status from the number of completed lessons.
+     * Status follows the same rule as the entity's lifecycle callback.
+     */
+    @Modifying
+    @Query(value = "UPDATE course_enrollments e SET progress_percentage = p.progress, "
+            + "status = CASE WHEN p.progress >= 100 THEN 'COMPLETED' ELSE 'IN_PROGRESS' END, "
+            + "updated_at = now() "
+            + "FROM (SELECT CASE WHEN :lessonCount > 0 "
+            + "  THEN CAST(COUNT(*) * 100.0 / :lessonCount AS double precision) ELSE 0 END AS progress "
+            + "  FROM enrollment_completed_lessons WHERE enrollment_id = :enrollmentId) p "
+            + "WHERE e.id = :enrollmentId", nativeQuery = true)
+    int recomputeProgress(@Param("enrollmentId") UUID enrollmentId, @Param("lessonCount") int lessonCount);
 }
@@ -0,0 +1,13 @@
+package com.levelup.course_service.repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface CourseRatingReplaceRepository {
+
+    /**
+     * Replaces an existing rating and returns the stars it had, or empty when the user has not rated the course.
+     * The row lock taken by the subselect makes the returned value the one actually overwritten.
+     */
+    Optional<Integer> replaceRating(UUID courseId, UUID userId, int rating);
+}
@@ -0,0 +1,32 @@
+package com.levelup.course_service.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public class CourseRatingReplaceRepositoryImpl implements CourseRatingReplaceRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Integer> replaceRating(UUID courseId, UUID userId, int rating) {
+        // A write that returns rows: flushed like the other writes, but read as a result list
+        entityManager.flush();
+        List<?> previous = entityManager.createNativeQuery("UPDATE course_ratings r "
+                        + "SET rating = :rating, updated_at = now() "
+                        + "FROM (SELECT id, rating FROM course_ratings "
+                        + "WHERE course_id = :courseId AND user_id = :userId FOR UPDATE) previous "
+                        + "WHERE r.id = previous.id RETURNING previous.rating")
+                .setParameter("courseId", courseId)
+                .setParameter("userId", userId)
+                .setParameter("rating", rating)
+                .getResultList();
+        // Ratings already loaded into this persistence context would still hold the replaced value
+        entityManager.clear();
+        return previous.stream().findFirst().map(value -> ((Number) value).intValue());
+    }
+}
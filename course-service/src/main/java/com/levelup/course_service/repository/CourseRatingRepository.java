@@ -0,0 +1,21 @@
+package com.levelup.course_service.repository;
+
+import com.levelup.course_service.entity.CourseRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.UUID;
+
+public interface CourseRatingRepository extends JpaRepository<CourseRating, UUID>, CourseRatingReplaceRepository {
+
+    @Modifying
+    @Query(value = "INSERT INTO course_ratings (id, course_id, user_id, rating, created_at, updated_at) "
+            + "VALUES (:id, :courseId, :userId, :rating, now(), now()) "
+            + "ON CONFLICT (course_id, user_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id,
+            @Param("courseId") UUID courseId,
+            @Param("userId") UUID userId,
+            @Param("rating") int rating);
+}
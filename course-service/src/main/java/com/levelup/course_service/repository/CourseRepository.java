@@ -1,13 +1,132 @@
 package com.levelup.course_service.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
+import com.levelup.course_service.dto.CourseDetailsDTO;
 import com.levelup.course_service.entity.Course;
+import com.levelup.course_service.entity.Lesson;
 
 
-public interface CourseRepository extends JpaRepository<Course, UUID> {
+public interface CourseRepository extends JpaRepository<Course, UUID>, CourseCatalogRepository {
     List<Course> findByInstructorId(UUID instructorId);
+
+    long countByStatus(Course.Status status);
+
+    // Relative update so folds from several replicas compose; a missing rating_total is derived from the average
+    @Modifying
+    @Query("UPDATE Course c SET "
+            + "c.enrollmentCount = c.enrollmentCount + :enrollments, "
+            + "c.ratingCount = c.ratingCount + :ratings, "
+            + "c.ratingTotal = COALESCE(c.ratingTotal, ROUND(COALESCE(c.ratingAverage, 0) * c.ratingCount, 0)) "
+            + "+ :ratingTotal, "
+            + "c.ratingAverage = CASE WHEN c.ratingCount + :ratings > 0 "
+            + "THEN CAST(COALESCE(c.ratingTotal, ROUND(COALESCE(c.ratingAverage, 0) * c.ratingCount, 0)) "
+            + "+ :ratingTotal AS BigDecimal) / (c.ratingCount + :ratings) "
+            + "ELSE c.ratingAverage END "
+            + "WHERE c.id = :courseId")
+    int applyCounterDeltas(@Param("courseId") UUID courseId,
+            @Param("enrollments") int enrollments,
+            @Param("ratings") int ratings,
+            @Param("ratingTotal") long ratingTotal);
+
+    // Checkout lookups from payment-service read only these four columns
+    @Query("SELECT new com.levelup.course_service.dto.CourseDetailsDTO(c.id, c.title, c.priceAmount, c.instructorId) "
+            + "FROM Course c WHERE c.id IN :ids")
+    List<CourseDetailsDTO> findDetailsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    interface CourseTitle {
+        UUID getId();
+
+        String getTitle();
+    }
+
+    @Query("SELECT c.id AS id, c.title AS title FROM Course c WHERE c.id IN :ids")
+    List<CourseTitle> findTitlesByIdIn(@Param("ids") Collection<? extends UUID> ids);
+
+    /**
+     * Course summary columns repeated on each row, followed by one lesson header per row in display order.
+     * Lesson columns are null for a course without lessons.
+     */
+    interface OutlineRow {
+        UUID getCourseId();
+
+        String getTitle();
+
+        String getCategory();
+
+        String getLanguage();
+
+        String getThumbnailUrl();
+
+        UUID getInstructorId();
+
+        Integer getDuration();
+
+        Course.CourseLevel getLevel();
+
+        Course.Status getStatus();
+
+        UUID getLessonId();
+
+        String getLessonTitle();
+
+        Lesson.ContentType getLessonContentType();
+
+        Integer getLessonOrder();
+
+        UUID getLessonQuizId();
+
+        Lesson.Status getLessonStatus();
+    }
+
+    @Query("SELECT c.id AS courseId, c.title AS title, c.category AS category, c.language AS language, "
+            + "c.thumbnailUrl AS thumbnailUrl, c.instructorId AS instructorId, c.duration AS duration, "
+            + "c.level AS level, c.status AS status, "
+            + "l.id AS lessonId, l.title AS lessonTitle, l.contentType AS lessonContentType, "
+            + "l.order AS lessonOrder, l.quizId AS lessonQuizId, l.status AS lessonStatus "
+            + "FROM Course c LEFT JOIN Lesson l ON l.course = c "
+            + "WHERE c.id = :courseId ORDER BY l.order, l.createdAt")
+    List<OutlineRow> findOutlineRows(@Param("courseId") UUID courseId);
+
+    interface FacetCount {
+        String getCategory();
+
+        Course.CourseLevel getLevel();
+
+        String getLanguage();
+
+        Course.Status getStatus();
+
+        long getCourseCount();
+    }
+
+    /**
+     * Course counts per distinct (category, level, language, status) combination.
+     */
+    @Query("SELECT c.category AS category, c.level AS level, c.language AS language, c.status AS status, "
+            + "COUNT(c) AS courseCount FROM Course c GROUP BY c.category, c.level, c.language, c.status")
+    List<FacetCount> countByFacet();
+
+    interface CourseFacetRow {
+        UUID getId();
+
+        String getCategory();
+
+        Course.CourseLevel getLevel();
+
+        String getLanguage();
+
+        Course.Status getStatus();
+    }
+
+    @Query("SELECT c.id AS id, c.category AS category, c.level AS level, c.language AS language, "
+            + "c.status AS status FROM Course c WHERE c.id IN :ids")
+    List<CourseFacetRow> findFacetsByIdIn(@Param("ids") Collection<UUID> ids);
 }
\ No newline at end of file
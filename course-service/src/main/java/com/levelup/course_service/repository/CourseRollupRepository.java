@@ -0,0 +1,119 @@
+package com.levelup.course_service.repository;
+
+import com.levelup.course_service.entity.CourseRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface CourseRollupRepository extends JpaRepository<CourseRollup, UUID> {
+
+    @Modifying
+    @Query(value = "INSERT INTO course_rollups (course_id, enrollment_count, completion_count, rating_count, "
+            + "rating_total, updated_at) "
+            + "VALUES (:courseId, :enrollments, :completions, :ratings, :ratingTotal, now()) "
+            + "ON CONFLICT (course_id) DO UPDATE SET "
+            + "enrollment_count = course_rollups.enrollment_count + EXCLUDED.enrollment_count, "
+            + "completion_count = course_rollups.completion_count + EXCLUDED.completion_count, "
+            + "rating_count = course_rollups.rating_count + EXCLUDED.rating_count, "
+            + "rating_total = course_rollups.rating_total + EXCLUDED.rating_total, "
+            + "updated_at = EXCLUDED.updated_at", nativeQuery = true)
+    int applyDelta(@Param("courseId") UUID courseId,
+            @Param("enrollments") long enrollments,
+            @Param("completions") long completions,
+            @Param("ratings") long ratings,
+            @Param("ratingTotal") long ratingTotal);
+
+    /**
+     * Moves the rating aggregate of a course; each star argument is the change in ratings with that many stars.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO course_rollups (course_id, enrollment_count, completion_count, rating_count, "
+            + "rating_total, one_star_count, two_star_count, three_star_count, four_star_count, five_star_count, "
+            + "updated_at) "
+            + "VALUES (:courseId, 0, 0, :ratings, :ratingTotal, :oneStar, :twoStar, :threeStar, :fourStar, "
+            + ":fiveStar, now()) "
+            + "ON CONFLICT (course_id) DO UPDATE SET "
+            + "rating_count = course_rollups.rating_count + EXCLUDED.rating_count, "
+            + "rating_total = course_rollups.rating_total + EXCLUDED.rating_total, "
+            + "one_star_count = course_rollups.one_star_count + EXCLUDED.one_star_count, "
+            + "two_star_count = course_rollups.two_star_count + EXCLUDED.two_star_count, "
+            + "three_star_count = course_rollups.three_star_count + EXCLUDED.three_star_count, "
+            + "four_star_count = course_rollups.four_star_count + EXCLUDED.four_star_count, "
+            + "five_star_count = course_rollups.five_star_count + EXCLUDED.five_star_count, "
+            + "updated_at = EXCLUDED.updated_at", nativeQuery = true)
+    int applyRatingDelta(@Param("courseId") UUID courseId,
+            @Param("ratings") long ratings,
+            @Param("ratingTotal") long ratingTotal,
+            @Param("oneStar") long oneStar,
+            @Param("twoStar") long twoStar,
+            @Param("threeStar") long threeStar,
+            @Param("fourStar") long fourStar,
+            @Param("fiveStar") long fiveStar);
+
+    interface Totals {
+        Long getEnrollments();
+
+        Long getCompletions();
+    }
+
+    @Query("SELECT SUM(r.enrollmentCount) AS enrollments, SUM(r.completionCount) AS completions "
+            + "FROM CourseRollup r")
+    Totals sumTotals();
+
+    interface CategoryTotals {
+        String getCategory();
+
+        Long getEnrollments();
+
+        Long getCompletions();
+    }
+
+    @Query("SELECT c.category AS category, SUM(r.enrollmentCount) AS enrollments, "
+            + "SUM(r.completionCount) AS completions "
+            + "FROM CourseRollup r JOIN Course c ON c.id = r.courseId "
+            + "WHERE c.category IS NOT NULL GROUP BY c.category")
+    List<CategoryTotals> sumByCategory();
+
+    @Query("SELECT AVG(CAST(r.ratingTotal AS double) / r.ratingCount) FROM CourseRollup r WHERE r.ratingCount > 0")
+    Double averageRating();
+
+    // Blocks concurrent increments so the rebuild can neither lose nor double count them
+    @Modifying
+    @Query(value = "LOCK TABLE course_rollups IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM course_rollups", nativeQuery = true)
+    void clear();
+
+    @Modifying
+    @Query(value = "INSERT INTO course_rollups (course_id, enrollment_count, completion_count, rating_count, "
+            + "rating_total, one_star_count, two_star_count, three_star_count, four_star_count, five_star_count, "
+            + "updated_at) "
+            + "SELECT c.id, COALESCE(e.enrollments, 0), COALESCE(e.completions, 0), "
+            + "c.rating_count + COALESCE(d.ratings, 0), "
+            + "COALESCE(c.rating_total, CAST(ROUND(c.rating_average * c.rating_count) AS BIGINT), 0) "
+            + "+ COALESCE(d.rating_total, 0), "
+            + "COALESCE(s.one_star, 0), COALESCE(s.two_star, 0), COALESCE(s.three_star, 0), "
+            + "COALESCE(s.four_star, 0), COALESCE(s.five_star, 0), now() "
+            + "FROM courses c LEFT JOIN ("
+            + "  SELECT course_id, COUNT(*) AS enrollments, "
+            + "  SUM(CASE WHEN status = 'COMPLETED' THEN 1 ELSE 0 END) AS completions "
+            + "  FROM course_enrollments GROUP BY course_id) e ON e.course_id = c.id "
+            // Ratings not yet folded into the course row
+            + "LEFT JOIN ("
+            + "  SELECT course_id, SUM(rating_count_delta) AS ratings, SUM(rating_total_delta) AS rating_total "
+            + "  FROM course_counter_deltas GROUP BY course_id) d ON d.course_id = c.id "
+            + "LEFT JOIN ("
+            + "  SELECT course_id, SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END) AS one_star, "
+            + "  SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END) AS two_star, "
+            + "  SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END) AS three_star, "
+            + "  SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END) AS four_star, "
+            + "  SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END) AS five_star "
+            + "  FROM course_ratings GROUP BY course_id) s ON s.course_id = c.id", nativeQuery = true)
+    int rebuildFromSource();
+}
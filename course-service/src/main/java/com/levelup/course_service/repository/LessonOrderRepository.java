@@ -0,0 +1,13 @@
+package com.levelup.course_service.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface LessonOrderRepository {
+
+    /**
+     * Sets lesson_order to the 1-based position of each lesson in {@code lessonIds} with a single UPDATE.
+     * Only lessons of the given course are touched; returns the number of rows updated.
+     */
+    int reorder(UUID courseId, List<UUID> lessonIds);
+}
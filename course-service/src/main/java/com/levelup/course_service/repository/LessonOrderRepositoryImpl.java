@@ -0,0 +1,42 @@
+package com.levelup.course_service.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public class LessonOrderRepositoryImpl implements LessonOrderRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int reorder(UUID courseId, List<UUID> lessonIds) {
+        if (lessonIds.isEmpty()) {
+            return 0;
+        }
+
+        // UPDATE ... SET lesson_order = CASE id WHEN ?1 THEN 1 WHEN ?2 THEN 2 ... END;
+        // the shared parameters go after the per-lesson ones
+        int n = lessonIds.size();
+        StringBuilder jpql = new StringBuilder("UPDATE Lesson l SET l.order = CASE l.id");
+        for (int i = 0; i < n; i++) {
+            jpql.append(" WHEN ?").append(i + 1).append(" THEN ").append(i + 1);
+        }
+        jpql.append(" ELSE l.order END, l.updatedAt = ?").append(n + 1)
+                .append(" WHERE l.course.id = ?").append(n + 2)
+                .append(" AND l.id IN ?").append(n + 3);
+
+        Query query = entityManager.createQuery(jpql.toString());
+        for (int i = 0; i < n; i++) {
+            query.setParameter(i + 1, lessonIds.get(i));
+        }
+        query.setParameter(n + 1, Instant.now());
+        query.setParameter(n + 2, courseId);
+        query.setParameter(n + 3, lessonIds);
+        return query.executeUpdate();
+    }
+}
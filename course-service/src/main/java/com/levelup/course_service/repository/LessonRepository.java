@@ -2,14 +2,56 @@ package com.levelup.course_service.repository;
 
 import com.levelup.course_service.entity.Lesson;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface LessonRepository extends JpaRepository<Lesson, UUID> {
-    List<Lesson> findByCourseId(UUID courseId);
+public interface LessonRepository extends JpaRepository<Lesson, UUID>, LessonOrderRepository {
     Integer countByCourseId(UUID courseId);
-}
\ No newline at end of file
+
+    List<Lesson> findByCourseIdAndIdIn(UUID courseId, Collection<UUID> ids);
+
+    /**
+     * Lesson row without the course association, in display order.
+     */
+    interface LessonRow {
+        UUID getId();
+
+        UUID getCourseId();
+
+        String getTitle();
+
+        Lesson.ContentType getContentType();
+
+        String getContentUrl();
+
+        String getContentId();
+
+        String getTextContent();
+
+        UUID getQuizId();
+
+        int getLessonOrder();
+
+        Lesson.Status getStatus();
+
+        Instant getCreatedAt();
+
+        Instant getUpdatedAt();
+    }
+
+    // Served by idx_lessons_course_order
+    @Query("SELECT l.id AS id, l.course.id AS courseId, l.title AS title, l.contentType AS contentType, "
+            + "l.contentUrl AS contentUrl, l.contentId AS contentId, l.textContent AS textContent, "
+            + "l.quizId AS quizId, l.order AS lessonOrder, l.status AS status, "
+            + "l.createdAt AS createdAt, l.updatedAt AS updatedAt "
+            + "FROM Lesson l WHERE l.course.id = :courseId ORDER BY l.order, l.createdAt")
+    List<LessonRow> findOrderedByCourseId(@Param("courseId") UUID courseId);
+}
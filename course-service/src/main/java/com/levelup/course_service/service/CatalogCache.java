@@ -0,0 +1,140 @@
+package com.levelup.course_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.levelup.course_service.event.CourseContentChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Serialized responses for the public catalog reads (course detail, lesson lists, categories).
+ * Entries are versioned per course region and bumped through CourseContentChangedEvent; see VersionedCache.
+ * ETags are content hashes, stable across instances and restarts.
+ */
+@Component
+@Slf4j
+public class CatalogCache {
+
+    private static final String CATEGORIES = "categories";
+
+    private final ObjectMapper objectMapper;
+    private final VersionedCache<CachedResponse> cache;
+    private final Timer servedAge;
+
+    public CatalogCache(ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${course.catalog-cache.ttl:5m}") Duration ttl,
+            @Value("${course.catalog-cache.max-size:10000}") long maxSize) {
+        this.objectMapper = objectMapper;
+        this.cache = new VersionedCache<>("course.catalog", ttl, maxSize, meterRegistry);
+        this.servedAge = Timer.builder("course.catalog.cache.served.age")
+                .description("Age of cached catalog responses when served")
+                .register(meterRegistry);
+    }
+
+    public CachedResponse getCourse(UUID courseId, Supplier<?> loader) {
+        return get("course:" + courseId, loader);
+    }
+
+    public CachedResponse getLessons(UUID courseId, Supplier<?> loader) {
+        return get("lessons:" + courseId, loader);
+    }
+
+    public CachedResponse getCategories(Supplier<?> loader) {
+        return get(CATEGORIES, loader);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseContentChanged(CourseContentChangedEvent event) {
+        String course = "course:" + event.getCourseId();
+        String lessons = "lessons:" + event.getCourseId();
+        switch (event.getScope()) {
+            case COURSE -> cache.bump(course);
+            case CATALOG -> {
+                cache.bump(course);
+                cache.bump(CATEGORIES);
+            }
+            case LESSONS -> cache.bump(lessons);
+            case DELETED -> {
+                cache.remove(course);
+                cache.remove(lessons);
+                cache.bump(CATEGORIES);
+            }
+        }
+    }
+
+    /**
+     * Returns the cached response for the region, loading and serializing it on a miss.
+     * Returns null when the loader finds nothing; absent results are not cached.
+     */
+    private CachedResponse get(String region, Supplier<?> loader) {
+        CachedResponse cached = cache.get(region, () -> serialize(loader.get()));
+        if (cached != null) {
+            servedAge.record(Duration.between(cached.getCachedAt(), Instant.now()));
+        }
+        return cached;
+    }
+
+    private CachedResponse serialize(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(value);
+            return new CachedResponse(body, "\"" + VersionedCache.contentHash(body) + "\"", Instant.now());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize catalog response", e);
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class CachedResponse {
+        private final byte[] body;
+        private final String etag;
+        private final Instant cachedAt;
+
+        /**
+         * 304 when the client's If-None-Match already names this version, otherwise the cached JSON body.
+         */
+        public ResponseEntity<byte[]> toResponse(String ifNoneMatch) {
+            CacheControl cacheControl = CacheControl.noCache().cachePublic();
+            if (ifNoneMatch != null && matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
+        }
+
+        private boolean matches(String ifNoneMatch) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
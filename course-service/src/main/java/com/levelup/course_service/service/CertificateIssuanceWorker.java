@@ -0,0 +1,285 @@
+package com.levelup.course_service.service;
+
+import com.levelup.course_service.client.CertifierClient;
+import com.levelup.course_service.client.UserServiceClient;
+import com.levelup.course_service.dto.UserDTO;
+import com.levelup.course_service.entity.Certificate;
+import com.levelup.course_service.entity.CertificateRequest;
+import com.levelup.course_service.entity.Course;
+import com.levelup.course_service.exception.CertifierException;
+import com.levelup.course_service.repository.CertificateRepository;
+import com.levelup.course_service.repository.CertificateRequestRepository;
+import com.levelup.course_service.repository.CourseEnrollmentRepository;
+import com.levelup.course_service.repository.CourseRepository;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Drives certificate requests through REQUESTED, ISSUING and ISSUED or FAILED.
+ * Each poll claims at most as many due requests as there are idle issuer threads, using SKIP LOCKED so that
+ * replicas never claim the same request, and hands them to a bounded pool. Certifier calls are rate limited
+ * by CertifierClient; retryable failures are rescheduled with exponential backoff until attempts run out.
+ */
+@Component
+@Slf4j
+public class CertificateIssuanceWorker {
+
+    private final CertificateRequestRepository certificateRequestRepository;
+    private final CertificateRepository certificateRepository;
+    private final CourseEnrollmentRepository enrollmentRepository;
+    private final CourseRepository courseRepository;
+    private final UserServiceClient userServiceClient;
+    private final LessonCountCache lessonCountCache;
+    private final CertifierClient certifierClient;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor certificateIssuanceExecutor;
+    private final Semaphore idleWorkers;
+
+    private final Counter issuedCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+
+    @Value("${certifier.groupId}")
+    private String groupId;
+
+    @Value("${course.certificates.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${course.certificates.retry-base-delay:30s}")
+    private Duration retryBaseDelay;
+
+    @Value("${course.certificates.retry-max-delay:30m}")
+    private Duration retryMaxDelay;
+
+    @Value("${course.certificates.issuing-timeout:10m}")
+    private Duration issuingTimeout;
+
+    public CertificateIssuanceWorker(CertificateRequestRepository certificateRequestRepository,
+            CertificateRepository certificateRepository,
+            CourseEnrollmentRepository enrollmentRepository,
+            CourseRepository courseRepository,
+            UserServiceClient userServiceClient,
+            LessonCountCache lessonCountCache,
+            CertifierClient certifierClient,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("certificateIssuanceExecutor") ThreadPoolTaskExecutor certificateIssuanceExecutor,
+            MeterRegistry meterRegistry) {
+        this.certificateRequestRepository = certificateRequestRepository;
+        this.certificateRepository = certificateRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.courseRepository = courseRepository;
+        this.userServiceClient = userServiceClient;
+        this.lessonCountCache = lessonCountCache;
+        this.certifierClient = certifierClient;
+        this.transactionTemplate = transactionTemplate;
+        this.certificateIssuanceExecutor = certificateIssuanceExecutor;
+        this.idleWorkers = new Semaphore(certificateIssuanceExecutor.getMaxPoolSize());
+
+        this.issuedCounter = meterRegistry.counter("course.certificates.issuance", "outcome", "issued");
+        this.retriedCounter = meterRegistry.counter("course.certificates.issuance", "outcome", "retried");
+        this.failedCounter = meterRegistry.counter("course.certificates.issuance", "outcome", "failed");
+    }
+
+    /**
+     * Claims due requests for the idle workers and returns how many were dispatched.
+     */
+    @Scheduled(fixedDelayString = "${course.certificates.poll-interval-ms:1000}")
+    public int dispatchDueRequests() {
+        int capacity = idleWorkers.drainPermits();
+        if (capacity == 0) {
+            return 0;
+        }
+
+        List<UUID> claimed = Collections.emptyList();
+        try {
+            List<UUID> result = transactionTemplate.execute(status -> claim(capacity));
+            if (result != null) {
+                claimed = result;
+            }
+        } finally {
+            // Hand back the permits nobody is going to use
+            idleWorkers.release(capacity - claimed.size());
+        }
+
+        for (UUID requestId : claimed) {
+            certificateIssuanceExecutor.execute(() -> {
+                try {
+                    issue(requestId);
+                } finally {
+                    idleWorkers.release();
+                }
+            });
+        }
+        return claimed.size();
+    }
+
+    private List<UUID> claim(int limit) {
+        Instant now = Instant.now();
+        int requeued = certificateRequestRepository.requeueStale(now.minus(issuingTimeout), now);
+        if (requeued > 0) {
+            log.warn("Requeued {} certificate requests stuck in ISSUING", requeued);
+        }
+
+        List<CertificateRequest> due = certificateRequestRepository.lockDue(now, limit);
+        for (CertificateRequest request : due) {
+            request.setStatus(CertificateRequest.Status.ISSUING);
+            request.setAttempts(request.getAttempts() + 1);
+            request.setUpdatedAt(now);
+        }
+        return due.stream().map(CertificateRequest::getId).toList();
+    }
+
+    private void issue(UUID requestId) {
+        CertificateRequest request = certificateRequestRepository.findById(requestId).orElse(null);
+        if (request == null || request.getStatus() != CertificateRequest.Status.ISSUING) {
+            return;
+        }
+
+        // Issued during this attempt and not yet stored on the request
+        String unrecordedId = null;
+        try {
+            // Set when an earlier attempt got the certificate but could not finish recording it
+            String publicId = request.getPublicId();
+            if (publicId == null) {
+                Course course = courseRepository.findById(request.getCourseId())
+                        .orElseThrow(() -> new CertifierException("Course not found", false));
+                UserDTO user = userServiceClient.getUserData(request.getUserId());
+
+                Map<String, Object> payload = buildPayload(
+                        user.getLastName() + " " + user.getFirstName(),
+                        user.getEmail(),
+                        course.getTitle(),
+                        course.getDuration(),
+                        lessonCountCache.get(course.getId()));
+
+                unrecordedId = certifierClient.issue(payload);
+                recordPublicId(requestId, unrecordedId);
+                publicId = unrecordedId;
+                unrecordedId = null;
+            }
+            markIssued(requestId, publicId);
+
+        } catch (CertifierException e) {
+            markAttemptFailed(requestId, e.getMessage(), e.isRetryable());
+        } catch (FeignException e) {
+            markAttemptFailed(requestId, "User service call failed: " + e.status(), true);
+        } catch (Exception e) {
+            if (unrecordedId != null) {
+                // The certificate exists at the certifier but not here; a retry would issue a second one
+                log.error("Certificate {} was issued for certificate request {} but could not be recorded",
+                        unrecordedId, requestId, e);
+                markAttemptFailed(requestId, "Issued " + unrecordedId + " but could not record it: "
+                        + e.getMessage(), false);
+            } else {
+                log.error("Unexpected error issuing certificate request {}", requestId, e);
+                markAttemptFailed(requestId, e.getMessage(), true);
+            }
+        }
+    }
+
+    /**
+     * Stores the certifier's id in its own transaction right after the call, so that a failure while
+     * saving the certificate is retried without going back to the certifier.
+     */
+    private void recordPublicId(UUID requestId, String publicId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            CertificateRequest request = certificateRequestRepository.findById(requestId).orElseThrow();
+            request.setPublicId(publicId);
+            request.setUpdatedAt(Instant.now());
+        });
+    }
+
+    private void markIssued(UUID requestId, String publicId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            CertificateRequest request = certificateRequestRepository.findById(requestId).orElseThrow();
+            if (!certificateRepository.existsByEnrollmentId(request.getEnrollmentId())) {
+                certificateRepository.save(Certificate.builder()
+                        .enrollment(enrollmentRepository.getReferenceById(request.getEnrollmentId()))
+                        .publicId(publicId)
+                        .certificateUrl(certifierClient.validationUrl(publicId))
+                        .build());
+            }
+            request.setStatus(CertificateRequest.Status.ISSUED);
+            request.setLastError(null);
+            request.setUpdatedAt(Instant.now());
+        });
+        issuedCounter.increment();
+        log.info("Certificate {} issued for certificate request {}", publicId, requestId);
+    }
+
+    private void markAttemptFailed(UUID requestId, String error, boolean retryable) {
+        CertificateRequest.Status outcome = transactionTemplate.execute(status -> {
+            CertificateRequest request = certificateRequestRepository.findById(requestId).orElseThrow();
+            Instant now = Instant.now();
+            request.setLastError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+            request.setUpdatedAt(now);
+            if (retryable && request.getAttempts() < maxAttempts) {
+                request.setStatus(CertificateRequest.Status.REQUESTED);
+                request.setNextAttemptAt(now.plus(backoff(request.getAttempts())));
+            } else {
+                request.setStatus(CertificateRequest.Status.FAILED);
+            }
+            return request.getStatus();
+        });
+
+        if (outcome == CertificateRequest.Status.FAILED) {
+            failedCounter.increment();
+            log.warn("Certificate request {} failed: {}", requestId, error);
+        } else {
+            retriedCounter.increment();
+            log.info("Certificate request {} will be retried: {}", requestId, error);
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = retryBaseDelay.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(retryMaxDelay) > 0 ? retryMaxDelay : delay;
+    }
+
+    private Map<String, Object> buildPayload(
+            String recipientName,
+            String recipientEmail,
+            String courseTitle,
+            Integer durationHours,
+            Integer lessonCount
+    ) {
+        Map<String, Object> payload = new HashMap<>();
+        Map<String, String> recipient = new HashMap<>();
+        Map<String, String> customAttributes = new HashMap<>();
+
+        recipient.put("name", recipientName);
+        recipient.put("email", recipientEmail);
+
+        customAttributes.put("custom.duration", String.valueOf(durationHours));
+        customAttributes.put("custom.title", courseTitle);
+        customAttributes.put("custom.lessons", String.valueOf(lessonCount));
+
+        payload.put("recipient", recipient);
+        payload.put("customAttributes", customAttributes);
+        payload.put("groupId", groupId);
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        payload.put("issueDate", LocalDate.now().format(formatter));
+
+        return payload;
+    }
+}
@@ -1,11 +1,14 @@
 package com.levelup.course_service.service;
 
 import com.levelup.course_service.dto.CertificateDTO;
+import com.levelup.course_service.dto.CertificateRequestStatusDTO;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface CertificateService {
-    String requestCertificate(UUID enrollmentId, UUID userId);
+    CertificateRequestStatusDTO requestCertificate(UUID enrollmentId, UUID userId);
+    Optional<CertificateRequestStatusDTO> getCertificateStatus(UUID enrollmentId, UUID userId);
     List<CertificateDTO> getCertificatesByUser(UUID currentUserId);
 }
@@ -0,0 +1,143 @@
+package com.levelup.course_service.service;
+
+import com.levelup.course_service.dto.CategoryCountDTO;
+import com.levelup.course_service.dto.CourseFacetCountDTO;
+import com.levelup.course_service.entity.Course;
+import com.levelup.course_service.event.CourseFacetChangedEvent;
+import com.levelup.course_service.event.CourseFacetChangedEvent.CourseFacet;
+import com.levelup.course_service.repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory course counts per (category, level, language, status), serving the category list and catalog
+ * facets without touching the courses table. Loaded from a grouped query at startup, kept current from
+ * CourseFacetChangedEvent and reloaded periodically to pick up changes made through other instances.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourseCategoryRegistry {
+
+    private final CourseRepository courseRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Object reloadLock = new Object();
+
+    private Map<CourseFacet, Long> counts = new HashMap<>();
+
+    // Latest facet of each course changed while a reload is running (null value: deleted); null when idle
+    private Map<UUID, CourseFacet> changedDuringReload;
+
+    public synchronized List<String> getCategories() {
+        return counts.keySet().stream()
+                .map(CourseFacet::getCategory)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    public synchronized List<CategoryCountDTO> getPublishedCountsByCategory() {
+        Map<String, Long> byCategory = new TreeMap<>();
+        counts.forEach((facet, count) -> {
+            if (facet.getCategory() != null && facet.getStatus() == Course.Status.PUBLISHED) {
+                byCategory.merge(facet.getCategory(), count, Long::sum);
+            }
+        });
+        return byCategory.entrySet().stream()
+                .map(entry -> new CategoryCountDTO(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    public synchronized List<CourseFacetCountDTO> getPublishedFacets() {
+        return counts.entrySet().stream()
+                .filter(entry -> entry.getKey().getStatus() == Course.Status.PUBLISHED)
+                .map(entry -> new CourseFacetCountDTO(entry.getKey().getCategory(), entry.getKey().getLevel(),
+                        entry.getKey().getLanguage(), entry.getValue()))
+                .sorted(Comparator.comparing(CourseFacetCountDTO::getPublishedCourses).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCourseFacetChanged(CourseFacetChangedEvent event) {
+        if (Objects.equals(event.getBefore(), event.getAfter())) {
+            return;
+        }
+        if (event.getBefore() != null) {
+            counts.computeIfPresent(event.getBefore(), (facet, count) -> count > 1 ? count - 1 : null);
+        }
+        if (event.getAfter() != null) {
+            counts.merge(event.getAfter(), 1L, Long::sum);
+        }
+        if (changedDuringReload != null) {
+            changedDuringReload.put(event.getCourseId(), event.getAfter());
+        }
+    }
+
+    /**
+     * Replaces the counts with a fresh grouped query. A change committed while the query runs may or may not
+     * be in its result, so changes seen during the reload are reconciled per course before the swap: the
+     * facet the query counted, read in the same snapshot, is replaced by the course's latest facet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${course.category-registry.reload-interval-ms:600000}",
+            initialDelayString = "${course.category-registry.reload-interval-ms:600000}")
+    public void reload() {
+        synchronized (reloadLock) {
+            synchronized (this) {
+                changedDuringReload = new HashMap<>();
+            }
+            TransactionTemplate snapshot = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+            snapshot.setReadOnly(true);
+            try {
+                int size = snapshot.execute(status -> {
+                    Map<CourseFacet, Long> loaded = new HashMap<>();
+                    for (CourseRepository.FacetCount row : courseRepository.countByFacet()) {
+                        loaded.put(new CourseFacet(row.getCategory(), row.getLevel(), row.getLanguage(),
+                                row.getStatus()), row.getCourseCount());
+                    }
+                    swapIn(loaded);
+                    return loaded.size();
+                });
+                log.info("Course category registry loaded with {} facet combinations", size);
+            } finally {
+                synchronized (this) {
+                    changedDuringReload = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs inside the reload's snapshot. Holds the monitor, so no change can slip in between reading the
+     * changed courses and the swap.
+     */
+    private synchronized void swapIn(Map<CourseFacet, Long> loaded) {
+        if (!changedDuringReload.isEmpty()) {
+            // What the grouped query counted for these courses; a course created after the snapshot is absent
+            Set<UUID> changed = changedDuringReload.keySet();
+            for (CourseRepository.CourseFacetRow row : courseRepository.findFacetsByIdIn(changed)) {
+                loaded.computeIfPresent(new CourseFacet(row.getCategory(), row.getLevel(), row.getLanguage(),
+                        row.getStatus()), (facet, count) -> count > 1 ? count - 1 : null);
+            }
+            for (CourseFacet latest : changedDuringReload.values()) {
+                if (latest != null) {
+                    loaded.merge(latest, 1L, Long::sum);
+                }
+            }
+        }
+        counts = loaded;
+    }
+}
@@ -0,0 +1,107 @@
+package com.levelup.course_service.service;
+
+import com.levelup.course_service.entity.CourseCounterDelta;
+import com.levelup.course_service.event.CourseContentChangedEvent;
+import com.levelup.course_service.repository.CourseCounterDeltaRepository;
+import com.levelup.course_service.repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Maintains the enrollment and rating counters on courses without touching the course row on the write path.
+ * Record methods append a delta row inside the caller's transaction; a scheduled fold, which may run on every
+ * replica at once, claims pending deltas with SKIP LOCKED and applies them as one relative update per course.
+ * Counters read from the course therefore lag by at most one fold interval.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CourseCounterService {
+
+    private final CourseCounterDeltaRepository courseCounterDeltaRepository;
+    private final CourseRepository courseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${course.counters.fold-batch-size:1000}")
+    private int foldBatchSize;
+
+    @Transactional
+    public void recordEnrollments(UUID courseId, int count) {
+        record(courseId, count, 0, 0);
+    }
+
+    @Transactional
+    public void recordRating(UUID courseId, int ratingCountDelta, int ratingTotalDelta) {
+        record(courseId, 0, ratingCountDelta, ratingTotalDelta);
+    }
+
+    /**
+     * Applies all pending deltas to their courses and returns how many were folded.
+     */
+    @Scheduled(fixedDelayString = "${course.counters.fold-interval-ms:5000}")
+    public int foldPendingDeltas() {
+        int folded = 0;
+        int batch;
+        do {
+            batch = foldBatch();
+            folded += batch;
+        } while (batch == foldBatchSize);
+
+        if (folded > 0) {
+            log.debug("Folded {} course counter deltas", folded);
+        }
+        return folded;
+    }
+
+    private int foldBatch() {
+        Integer folded = transactionTemplate.execute(status -> {
+            List<CourseCounterDelta> batch = courseCounterDeltaRepository.lockPending(foldBatchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            Map<UUID, long[]> totals = new LinkedHashMap<>();
+            List<UUID> ids = new ArrayList<>(batch.size());
+            for (CourseCounterDelta delta : batch) {
+                long[] sums = totals.computeIfAbsent(delta.getCourseId(), id -> new long[3]);
+                sums[0] += delta.getEnrollmentDelta();
+                sums[1] += delta.getRatingCountDelta();
+                sums[2] += delta.getRatingTotalDelta();
+                ids.add(delta.getId());
+            }
+
+            totals.forEach((courseId, sums) -> {
+                courseRepository.applyCounterDeltas(courseId, (int) sums[0], (int) sums[1], sums[2]);
+                eventPublisher.publishEvent(
+                        new CourseContentChangedEvent(courseId, CourseContentChangedEvent.Scope.COURSE));
+            });
+            courseCounterDeltaRepository.deleteAllByIdInBatch(ids);
+            return batch.size();
+        });
+        return folded != null ? folded : 0;
+    }
+
+    private void record(UUID courseId, int enrollments, int ratings, int ratingTotal) {
+        courseCounterDeltaRepository.save(CourseCounterDelta.builder()
+                .courseId(courseId)
+                .enrollmentDelta(enrollments)
+                .ratingCountDelta(ratings)
+                .ratingTotalDelta(ratingTotal)
+                .createdAt(Instant.now())
+                .build());
+    }
+}
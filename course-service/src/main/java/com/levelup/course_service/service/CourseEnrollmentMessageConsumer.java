@@ -2,14 +2,29 @@ package com.levelup.course_service.service;
 
 import com.levelup.course_service.config.RabbitMQConfig;
 import com.levelup.course_service.dto.CourseEnrollmentMessage;
+import com.levelup.course_service.repository.CourseEnrollmentBatchRepository.NewEnrollment;
 import com.levelup.course_service.service.impl.CourseEnrollmentServiceImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.CannotCreateTransactionException;
 
+import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -17,40 +32,130 @@ import java.util.UUID;
 @Slf4j
 public class CourseEnrollmentMessageConsumer {
 
+        static final String ERROR_HEADER = "x-enrollment-error";
+
         private final CourseEnrollmentServiceImpl courseEnrollmentService;
+        private final Jackson2JsonMessageConverter messageConverter;
+        private final RabbitTemplate rabbitTemplate;
+
+        /**
+         * Handles a batch of purchase messages in one transaction. Duplicate (user, course) pairs within
+         * the batch are collapsed, and pairs already enrolled are skipped by the insert, so redelivery is safe.
+         * Malformed messages are parked without touching the rest of the batch. If the batch insert fails for
+         * a reason other than an unavailable database, the messages are retried one by one and the ones that
+         * still fail are parked, so a single bad message cannot requeue the batch forever.
+         */
+        @RabbitListener(queues = RabbitMQConfig.COURSE_ENROLLMENT_QUEUE,
+                        containerFactory = "enrollmentBatchContainerFactory")
+        public void handleCourseEnrollmentMessages(List<Message> messages) {
+                log.info("Received {} course enrollment messages", messages.size());
 
-        @RabbitListener(queues = RabbitMQConfig.COURSE_ENROLLMENT_QUEUE)
-        @Transactional
-        public void handleCourseEnrollmentMessage(CourseEnrollmentMessage message) {
+                List<Received> received = new ArrayList<>(messages.size());
+                Instant now = Instant.now();
+                for (Message message : messages) {
+                        CourseEnrollmentMessage payload = convert(message);
+                        if (payload == null) {
+                                continue;
+                        }
+                        // Use purchase time or current time as fallback
+                        Instant enrollmentTime = payload.getPurchaseTime() != null
+                                        ? payload.getPurchaseTime().toInstant(ZoneOffset.UTC)
+                                        : now;
+                        received.add(new Received(message, payload, enrollmentTime));
+                }
+                if (received.isEmpty()) {
+                        return;
+                }
+
+                int created;
                 try {
-                        log.info("Received course enrollment message for user: {} with {} courses",
-                                        message.getUserId(), message.getCourseIds().size());
-                        log.info("Message details - Status: {}, PurchaseTime: {}",
-                                        message.getStatus(), message.getPurchaseTime());
-
-                        // Create enrollment for each course using the service method
-                        for (UUID courseId : message.getCourseIds()) {
-                                // Use purchase time or current time as fallback
-                                var enrollmentTime = message.getPurchaseTime() != null
-                                                ? message.getPurchaseTime().toInstant(ZoneOffset.UTC)
-                                                : java.time.Instant.now();
-
-                                // Use the centralized enrollment method from service
-                                courseEnrollmentService.createEnrollmentFromPayment(
-                                                message.getUserId(),
-                                                courseId,
-                                                enrollmentTime);
-
-                                log.info("Course enrollment processed for user: {} and course: {}",
-                                                message.getUserId(), courseId);
+                        created = courseEnrollmentService.createEnrollmentsFromPayment(toEnrollments(received));
+                } catch (RuntimeException e) {
+                        if (isRetryable(e)) {
+                                log.error("Course enrollment batch failed, requeueing: {}", e.getMessage(), e);
+                                throw e;
                         }
+                        log.warn("Course enrollment batch of {} messages failed, processing them one by one: {}",
+                                        received.size(), e.getMessage());
+                        created = processOneByOne(received);
+                }
 
-                        log.info("Successfully processed course enrollment message for user: {}",
-                                        message.getUserId());
+                log.info("Processed {} course enrollment messages: {} new enrollments", messages.size(), created);
+        }
+
+        private int processOneByOne(List<Received> received) {
+                // Oldest purchase first, so a pair bought twice keeps its earliest enrollment time as in a batch
+                List<Received> ordered = new ArrayList<>(received);
+                ordered.sort(Comparator.comparing(Received::enrollmentTime));
 
-                } catch (Exception e) {
-                        log.error("Error processing course enrollment message: {}", e.getMessage(), e);
-                        throw e; // Re-throw to trigger message requeue if needed
+                int created = 0;
+                for (Received one : ordered) {
+                        try {
+                                created += courseEnrollmentService.createEnrollmentsFromPayment(toEnrollments(List.of(one)));
+                        } catch (RuntimeException e) {
+                                if (isRetryable(e)) {
+                                        throw e;
+                                }
+                                park(one.message(), e.getMessage());
+                        }
+                }
+                return created;
+        }
+
+        private CourseEnrollmentMessage convert(Message message) {
+                Object payload;
+                try {
+                        message.getMessageProperties().setInferredArgumentType(CourseEnrollmentMessage.class);
+                        payload = messageConverter.fromMessage(message);
+                } catch (MessageConversionException e) {
+                        park(message, "Unreadable message: " + e.getMessage());
+                        return null;
                 }
+
+                if (!(payload instanceof CourseEnrollmentMessage enrollment)) {
+                        park(message, "Unexpected content type: " + message.getMessageProperties().getContentType());
+                        return null;
+                }
+                if (enrollment.getUserId() == null || enrollment.getCourseIds() == null) {
+                        park(message, "Message without user or courses");
+                        return null;
+                }
+                return enrollment;
+        }
+
+        private Collection<NewEnrollment> toEnrollments(List<Received> received) {
+                Map<List<UUID>, NewEnrollment> pairs = new LinkedHashMap<>();
+                for (Received one : received) {
+                        UUID userId = one.payload().getUserId();
+                        for (UUID courseId : one.payload().getCourseIds()) {
+                                // Keep the earliest purchase when the same pair arrives more than once
+                                pairs.merge(List.of(userId, courseId),
+                                                new NewEnrollment(userId, courseId, one.enrollmentTime()),
+                                                (existing, candidate) -> candidate.getEnrollmentTime()
+                                                                .isBefore(existing.getEnrollmentTime())
+                                                                                ? candidate : existing);
+                        }
+                }
+                return pairs.values();
+        }
+
+        private void park(Message message, String reason) {
+                log.error("Parking course enrollment message on {}: {}", RabbitMQConfig.COURSE_ENROLLMENT_PARKING_QUEUE,
+                                reason);
+                message.getMessageProperties().setHeader(ERROR_HEADER, String.valueOf(reason));
+                rabbitTemplate.send("", RabbitMQConfig.COURSE_ENROLLMENT_PARKING_QUEUE, message);
+        }
+
+        /**
+         * Failures that say nothing about the messages themselves; the batch is requeued and tried again later.
+         */
+        private boolean isRetryable(RuntimeException e) {
+                return e instanceof TransientDataAccessException
+                                || e instanceof RecoverableDataAccessException
+                                || e instanceof DataAccessResourceFailureException
+                                || e instanceof CannotCreateTransactionException;
+        }
+
+        private record Received(Message message, CourseEnrollmentMessage payload, Instant enrollmentTime) {
         }
-}
\ No newline at end of file
+}
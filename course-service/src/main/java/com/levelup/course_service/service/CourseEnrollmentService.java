@@ -1,6 +1,8 @@
 package com.levelup.course_service.service;
 
 import com.levelup.course_service.dto.CourseEnrollmentResponseDTO;
+import com.levelup.course_service.dto.EnrollmentPageDTO;
+import com.levelup.course_service.entity.CourseEnrollment;
 
 import java.util.List;
 import java.util.UUID;
@@ -10,6 +12,12 @@ public interface CourseEnrollmentService {
 
     List<CourseEnrollmentResponseDTO> getEnrollmentsByCourse(UUID courseId);
 
+    EnrollmentPageDTO getEnrollmentPageByCourse(UUID courseId, CourseEnrollment.Status status, String cursor, int size);
+
+    EnrollmentPageDTO getEnrollmentPageByUser(UUID userId, String cursor, int size);
+
+    java.util.Map<String, Object> getCourseEnrollmentStats(UUID courseId);
+
     void updateProgress(UUID enrollmentId, List<String> completedLessons);
     
     java.util.Map<String, Object> getEnrollmentAnalytics();
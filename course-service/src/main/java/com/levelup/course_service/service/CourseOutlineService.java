@@ -0,0 +1,149 @@
+package com.levelup.course_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.levelup.course_service.dto.CourseOutlineDTO;
+import com.levelup.course_service.dto.LessonHeaderDTO;
+import com.levelup.course_service.event.CourseContentChangedEvent;
+import com.levelup.course_service.repository.CourseEnrollmentRepository;
+import com.levelup.course_service.repository.CourseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Everything the lesson player needs to open a course: course summary, ordered lesson headers and the
+ * caller's progress. The shared part is read with one query per course and cached in a VersionedCache that
+ * course and lesson edits bump, like CatalogCache. Progress is read per request with one query and merged in.
+ */
+@Service
+public class CourseOutlineService {
+
+    private final CourseRepository courseRepository;
+    private final CourseEnrollmentRepository enrollmentRepository;
+    private final ObjectMapper objectMapper;
+    private final VersionedCache<CourseOutlineDTO> outlines;
+
+    public CourseOutlineService(CourseRepository courseRepository,
+            CourseEnrollmentRepository enrollmentRepository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${course.outline-cache.ttl:10m}") Duration ttl,
+            @Value("${course.outline-cache.max-size:5000}") long maxSize) {
+        this.courseRepository = courseRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.objectMapper = objectMapper;
+        this.outlines = new VersionedCache<>("course.outline", ttl, maxSize, meterRegistry);
+    }
+
+    /**
+     * Returns the outline of the course with the user's progress merged in, or empty when the course does not
+     * exist. {@code userId} may be null for anonymous callers.
+     */
+    public Optional<CourseOutlineDTO> getOutline(UUID courseId, UUID userId) {
+        CourseOutlineDTO outline = outlines.get(courseId.toString(), () -> load(courseId));
+        if (outline == null) {
+            return Optional.empty();
+        }
+        return Optional.of(userId != null ? withProgress(outline, userId) : outline);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseContentChanged(CourseContentChangedEvent event) {
+        // Counter and rating changes (COURSE) do not appear in the outline
+        if (event.getScope() == CourseContentChangedEvent.Scope.COURSE) {
+            return;
+        }
+        if (event.getScope() == CourseContentChangedEvent.Scope.DELETED) {
+            outlines.remove(event.getCourseId().toString());
+        } else {
+            outlines.bump(event.getCourseId().toString());
+        }
+    }
+
+    private CourseOutlineDTO load(UUID courseId) {
+        List<CourseRepository.OutlineRow> rows = courseRepository.findOutlineRows(courseId);
+        if (rows.isEmpty()) {
+            return null;
+        }
+
+        List<LessonHeaderDTO> lessons = new ArrayList<>(rows.size());
+        for (CourseRepository.OutlineRow row : rows) {
+            if (row.getLessonId() != null) {
+                lessons.add(LessonHeaderDTO.builder()
+                        .id(row.getLessonId())
+                        .title(row.getLessonTitle())
+                        .contentType(row.getLessonContentType().name())
+                        .order(row.getLessonOrder())
+                        .quizId(row.getLessonQuizId())
+                        .status(row.getLessonStatus())
+                        .build());
+            }
+        }
+
+        CourseRepository.OutlineRow course = rows.get(0);
+        CourseOutlineDTO outline = CourseOutlineDTO.builder()
+                .courseId(course.getCourseId())
+                .title(course.getTitle())
+                .category(course.getCategory())
+                .language(course.getLanguage())
+                .thumbnailUrl(course.getThumbnailUrl())
+                .instructorId(course.getInstructorId())
+                .duration(course.getDuration())
+                .level(course.getLevel())
+                .status(course.getStatus())
+                .lessons(List.copyOf(lessons))
+                .build();
+        // Hash of the outline itself, so every instance reports the same version for the same content
+        try {
+            return outline.toBuilder()
+                    .version(VersionedCache.contentHash(objectMapper.writeValueAsBytes(outline)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize course outline", e);
+        }
+    }
+
+    private CourseOutlineDTO withProgress(CourseOutlineDTO outline, UUID userId) {
+        List<CourseEnrollmentRepository.ProgressRow> rows =
+                enrollmentRepository.findProgressRows(userId, outline.getCourseId());
+        if (rows.isEmpty()) {
+            return outline;
+        }
+
+        Set<UUID> completed = new HashSet<>();
+        for (CourseEnrollmentRepository.ProgressRow row : rows) {
+            if (row.getLessonId() != null) {
+                completed.add(row.getLessonId());
+            }
+        }
+
+        List<LessonHeaderDTO> lessons = outline.getLessons();
+        BitSet bitmap = new BitSet(lessons.size());
+        for (int i = 0; i < lessons.size(); i++) {
+            if (completed.contains(lessons.get(i).getId())) {
+                bitmap.set(i);
+            }
+        }
+
+        CourseEnrollmentRepository.ProgressRow enrollment = rows.get(0);
+        return outline.toBuilder()
+                .enrollmentId(enrollment.getEnrollmentId())
+                .enrollmentStatus(enrollment.getStatus().name())
+                .progressPercentage(enrollment.getProgressPercentage())
+                .completedLessonCount(bitmap.cardinality())
+                .completionBitmap(Base64.getEncoder().encodeToString(bitmap.toByteArray()))
+                .build();
+    }
+}
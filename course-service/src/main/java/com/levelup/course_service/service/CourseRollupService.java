@@ -0,0 +1,75 @@
+package com.levelup.course_service.service;
+
+import com.levelup.course_service.repository.CourseRepository;
+import com.levelup.course_service.repository.CourseRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+/**
+ * Keeps the course_rollups counters in step with enrollments, completions and ratings.
+ * Each record method joins the caller's transaction so the counter moves with the change it counts.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CourseRollupService {
+
+    private final CourseRollupRepository courseRollupRepository;
+    private final CourseRepository courseRepository;
+
+    @Transactional
+    public void recordEnrollments(UUID courseId, long count) {
+        courseRollupRepository.applyDelta(courseId, count, 0, 0, 0);
+    }
+
+    @Transactional
+    public void recordCompletionChange(UUID courseId, boolean wasCompleted, boolean isCompleted) {
+        if (wasCompleted != isCompleted) {
+            courseRollupRepository.applyDelta(courseId, 0, isCompleted ? 1 : -1, 0, 0);
+        }
+    }
+
+    /**
+     * Records a new rating, or a changed one when {@code previousRating} is not null.
+     */
+    @Transactional
+    public void recordRating(UUID courseId, Integer previousRating, int rating) {
+        long[] stars = new long[6];
+        stars[rating]++;
+        if (previousRating != null) {
+            stars[previousRating]--;
+        }
+        courseRollupRepository.applyRatingDelta(courseId,
+                previousRating == null ? 1 : 0,
+                rating - (previousRating == null ? 0 : previousRating),
+                stars[1], stars[2], stars[3], stars[4], stars[5]);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void seedRollupsIfEmpty() {
+        if (courseRollupRepository.count() == 0 && courseRepository.count() > 0) {
+            rebuildRollups();
+        }
+    }
+
+    /**
+     * Recomputes every counter from enrollments and course ratings, correcting any drift.
+     */
+    @Scheduled(cron = "${course.rollups.rebuild-cron:0 15 3 * * *}")
+    @Transactional
+    public void rebuildRollups() {
+        log.info("Rebuilding course rollups");
+        courseRollupRepository.lockForRebuild();
+        courseRollupRepository.clear();
+        int rows = courseRollupRepository.rebuildFromSource();
+        log.info("Course rollups rebuilt for {} courses", rows);
+    }
+}
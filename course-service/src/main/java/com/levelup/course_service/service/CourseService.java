@@ -5,14 +5,21 @@ import java.util.Optional;
 import java.util.UUID;
 
 import com.levelup.course_service.entity.Course;
+import com.levelup.course_service.dto.CategoryCountDTO;
+import com.levelup.course_service.dto.CourseCatalogFilter;
+import com.levelup.course_service.dto.CourseCatalogPageDTO;
 import com.levelup.course_service.dto.CourseDTO;
+import com.levelup.course_service.dto.CourseFacetCountDTO;
 import com.levelup.course_service.dto.CourseDetailsResponseDTO;
+import com.levelup.course_service.dto.CourseRatingSummaryDTO;
 
 public interface CourseService {
     Course createCourse(CourseDTO dto, UUID currentUserId);
 
     List<Course> getAllCourses();
 
+    CourseCatalogPageDTO getCatalog(CourseCatalogFilter filter, String cursor, int size);
+
     Optional<Course> getCourseById(UUID id);
 
     void deleteCourse(UUID id, UUID currentUserId);
@@ -23,6 +30,10 @@ public interface CourseService {
 
     List<String> getAllCategory();
 
+    List<CategoryCountDTO> getCategoryCounts();
+
+    List<CourseFacetCountDTO> getCourseFacets();
+
     List<Course> getMyCourses(UUID currentUserId);
 
     CourseDetailsResponseDTO getCourseDetailsByIds(List<UUID> courseIds);
@@ -30,4 +41,6 @@ public interface CourseService {
     java.util.Map<String, Object> getCourseAnalytics();
 
     void rateCourse(UUID courseId, UUID currentUserId, int rating);
+
+    Optional<CourseRatingSummaryDTO> getRatingSummary(UUID courseId);
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.levelup.course_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.levelup.course_service.event.CourseContentChangedEvent;
+import com.levelup.course_service.repository.CourseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Course titles for endpoints that show a course by name next to enrollment or certificate data.
+ * Misses are loaded in one query per call. Entries are dropped when a course is edited or deleted here, and
+ * the short TTL bounds staleness for edits made on other instances.
+ */
+@Component
+public class CourseTitleCache {
+
+    private final CourseRepository courseRepository;
+    private final Cache<UUID, String> titles;
+
+    public CourseTitleCache(CourseRepository courseRepository,
+            MeterRegistry meterRegistry,
+            @Value("${course.title-cache.ttl:1m}") Duration ttl,
+            @Value("${course.title-cache.max-size:20000}") long maxSize) {
+        this.courseRepository = courseRepository;
+        this.titles = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, titles, "course.title");
+    }
+
+    public String getTitle(UUID courseId) {
+        return getTitles(List.of(courseId)).get(courseId);
+    }
+
+    /**
+     * Returns the titles of the given courses; courses that do not exist are absent from the map.
+     */
+    public Map<UUID, String> getTitles(Collection<UUID> courseIds) {
+        return titles.getAll(courseIds, this::loadTitles);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseContentChanged(CourseContentChangedEvent event) {
+        if (event.getScope() == CourseContentChangedEvent.Scope.CATALOG
+                || event.getScope() == CourseContentChangedEvent.Scope.DELETED) {
+            titles.invalidate(event.getCourseId());
+        }
+    }
+
+    private Map<UUID, String> loadTitles(Set<? extends UUID> courseIds) {
+        Map<UUID, String> loaded = new HashMap<>();
+        for (CourseRepository.CourseTitle title : courseRepository.findTitlesByIdIn(courseIds)) {
+            loaded.put(title.getId(), title.getTitle());
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,56 @@
+package com.levelup.course_service.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.levelup.course_service.client.UserServiceClient;
+import com.levelup.course_service.dto.InstructorValidationResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Instructor validations from user-service, keyed by user ID, so that course and lesson edits do not call
+ * user-service each time. Users who are not instructors are cached too, for a shorter TTL so that a new
+ * approval takes effect quickly even if its change message is lost. Entries are dropped when user-service
+ * reports an instructor change. Failed calls are not cached.
+ */
+@Component
+public class InstructorAuthorizationCache {
+
+    private final LoadingCache<UUID, InstructorValidationResponseDTO> validations;
+
+    public InstructorAuthorizationCache(UserServiceClient userServiceClient,
+            MeterRegistry meterRegistry,
+            @Value("${course.instructor-cache.ttl:5m}") Duration ttl,
+            @Value("${course.instructor-cache.negative-ttl:30s}") Duration negativeTtl,
+            @Value("${course.instructor-cache.max-size:10000}") long maxSize) {
+        this.validations = Caffeine.newBuilder()
+                .expireAfter(Expiry.<UUID, InstructorValidationResponseDTO>writing(
+                        (userId, validation) -> isValid(validation) ? ttl : negativeTtl))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build(userServiceClient::validateInstructorByUserId);
+        CaffeineCacheMetrics.monitor(meterRegistry, validations, "course.instructor-validation");
+    }
+
+    public InstructorValidationResponseDTO validate(UUID userId) {
+        return validations.get(userId);
+    }
+
+    public void invalidate(UUID userId) {
+        validations.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        validations.invalidateAll();
+    }
+
+    private static boolean isValid(InstructorValidationResponseDTO validation) {
+        return Boolean.TRUE.equals(validation.getIsValidInstructor());
+    }
+}
@@ -0,0 +1,28 @@
+package com.levelup.course_service.service;
+
+import com.levelup.course_service.dto.InstructorChangedMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InstructorChangeMessageConsumer {
+
+    private final InstructorAuthorizationCache instructorAuthorizationCache;
+
+    /**
+     * Each instance listens on its own queue, so every local cache sees every change.
+     */
+    @RabbitListener(queues = "#{instructorChangeQueue.name}")
+    public void handleInstructorChangedMessage(InstructorChangedMessage message) {
+        log.info("Received instructor {} change for user: {}", message.getChange(), message.getUserId());
+        if (message.getUserId() == null) {
+            instructorAuthorizationCache.invalidateAll();
+            return;
+        }
+        instructorAuthorizationCache.invalidate(message.getUserId());
+    }
+}
@@ -0,0 +1,50 @@
+package com.levelup.course_service.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.levelup.course_service.event.CourseContentChangedEvent;
+import com.levelup.course_service.repository.LessonRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Number of lessons per course, used to turn completed lessons into a progress percentage.
+ * Entries are dropped after lesson changes commit on this instance, and expire after a TTL to bound
+ * staleness for changes made on other instances.
+ */
+@Component
+public class LessonCountCache {
+
+    private final LoadingCache<UUID, Integer> counts;
+
+    public LessonCountCache(LessonRepository lessonRepository,
+            MeterRegistry meterRegistry,
+            @Value("${course.lesson-count-cache.ttl:5m}") Duration ttl,
+            @Value("${course.lesson-count-cache.max-size:10000}") long maxSize) {
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build(lessonRepository::countByCourseId);
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "course.lesson-count");
+    }
+
+    public int get(UUID courseId) {
+        Integer count = counts.get(courseId);
+        return count != null ? count : 0;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseContentChanged(CourseContentChangedEvent event) {
+        if (event.getScope() == CourseContentChangedEvent.Scope.LESSONS
+                || event.getScope() == CourseContentChangedEvent.Scope.DELETED) {
+            counts.invalidate(event.getCourseId());
+        }
+    }
+}
@@ -11,5 +11,7 @@ public interface LessonService {
     void deleteLesson(UUID id, UUID currentUserId);
     LessonDTO getLessonById(UUID id);
     List<LessonDTO> getLessonsByCourse(UUID courseId);
+    List<LessonDTO> saveLessons(UUID courseId, List<LessonDTO> lessons, UUID currentUserId);
+    List<LessonDTO> reorderLessons(UUID courseId, List<UUID> lessonIds, UUID currentUserId);
     String changeLessonState(UUID lessonId, UUID currentUserId, String status);
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.levelup.course_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Local cache whose keys carry a per-region version. Write paths bump a region after their change commits, which
+ * drops the current entry; a read that raced with the write can only populate the superseded version. Versions
+ * live on this instance only, so entries also expire after a TTL, which bounds staleness for changes made on
+ * other instances. Regions that go away for good are removed, so versions are only held for live regions.
+ */
+final class VersionedCache<V> {
+
+    private final Cache<String, V> cache;
+    private final ConcurrentHashMap<String, Long> versions = new ConcurrentHashMap<>();
+
+    VersionedCache(String metricName, Duration ttl, long maxSize, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, metricName);
+        Gauge.builder(metricName + ".versioned.regions", versions, Map::size)
+                .description("Regions with a version held on this instance")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the entry for the region's current version, loading it on a miss.
+     * Returns null when the loader does; absent results are not cached.
+     */
+    V get(String region, Supplier<V> loader) {
+        return cache.get(key(region, versions.getOrDefault(region, 0L)), k -> loader.get());
+    }
+
+    void bump(String region) {
+        long current = versions.merge(region, 1L, Long::sum);
+        cache.invalidate(key(region, current - 1));
+    }
+
+    /**
+     * Forgets a region that no longer exists. Later reads start again from version 0, so that entry is dropped
+     * too in case a read that raced with the region's first bump populated it.
+     */
+    void remove(String region) {
+        Long current = versions.remove(region);
+        if (current != null) {
+            cache.invalidate(key(region, current));
+        }
+        cache.invalidate(key(region, 0L));
+    }
+
+    /**
+     * Short hash of cached content, the same on every instance and across restarts; used where clients need
+     * to tell versions apart, since the region versions above are local counters.
+     */
+    static String contentHash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String key(String region, long version) {
+        return region + ":v" + version;
+    }
+}
@@ -1,22 +1,34 @@
 package com.levelup.course_service.service.impl;
 
 import com.levelup.course_service.dto.CourseEnrollmentResponseDTO;
-import com.levelup.course_service.entity.Course;
+import com.levelup.course_service.dto.EnrollmentPageDTO;
+import com.levelup.course_service.dto.EnrollmentSummaryDTO;
 import com.levelup.course_service.entity.CourseEnrollment;
-import com.levelup.course_service.entity.Lesson;
+import com.levelup.course_service.repository.CourseEnrollmentBatchRepository;
 import com.levelup.course_service.repository.CourseEnrollmentRepository;
-import com.levelup.course_service.repository.CourseRepository;
-import com.levelup.course_service.repository.LessonRepository;
+import com.levelup.course_service.repository.CourseRollupRepository;
+import com.levelup.course_service.service.CourseCounterService;
 import com.levelup.course_service.service.CourseEnrollmentService;
+import com.levelup.course_service.service.CourseRollupService;
+import com.levelup.course_service.service.CourseTitleCache;
+import com.levelup.course_service.service.LessonCountCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,9 +36,14 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CourseEnrollmentServiceImpl implements CourseEnrollmentService {
 
+    private static final int MAX_ENROLLMENT_PAGE_SIZE = 100;
+
     private final CourseEnrollmentRepository enrollmentRepository;
-    private final CourseRepository courseRepository;
-    private final LessonRepository lessonRepository;
+    private final CourseRollupRepository courseRollupRepository;
+    private final CourseRollupService courseRollupService;
+    private final CourseCounterService courseCounterService;
+    private final LessonCountCache lessonCountCache;
+    private final CourseTitleCache courseTitleCache;
 
     /**
      * Create enrollment from RabbitMQ message (payment success)
@@ -54,98 +71,213 @@ public class CourseEnrollmentServiceImpl implements CourseEnrollmentService {
                 .build();
 
         enrollment = enrollmentRepository.save(enrollment);
+        courseRollupService.recordEnrollments(courseId, 1);
         log.info("Enrollment created with ID: {}", enrollment.getId());
 
-        // Update course enrollment count
-        updateCourseEnrollmentCount(courseId);
+        // Course enrollment count is folded in asynchronously so hot courses don't serialise on their row
+        courseCounterService.recordEnrollments(courseId, 1);
 
         return enrollment;
     }
 
     /**
-     * Update enrollment count in course table
+     * Creates enrollments for a batch of paid (user, course) pairs. Pairs that are already enrolled are skipped
+     * by the unique constraint, so redelivered messages are harmless. Enrollment counts are then recorded once
+     * per course with the number of rows actually inserted.
      */
     @Transactional
-    public void updateCourseEnrollmentCount(UUID courseId) {
-        Course course = courseRepository.findById(courseId).orElse(null);
-        if (course != null) {
-            int enrollmentCount = enrollmentRepository.countByCourseId(courseId);
-            course.setEnrollmentCount(enrollmentCount);
-            course.setUpdatedAt(Instant.now());
-            courseRepository.save(course);
-            log.info("Updated enrollment count for course {}: {}", courseId, enrollmentCount);
+    public int createEnrollmentsFromPayment(Collection<CourseEnrollmentBatchRepository.NewEnrollment> enrollments) {
+        if (enrollments.isEmpty()) {
+            return 0;
         }
+
+        List<UUID> insertedCourseIds = enrollmentRepository.insertIgnoringExisting(enrollments);
+
+        Map<UUID, Long> insertedPerCourse = insertedCourseIds.stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        insertedPerCourse.forEach((courseId, count) -> {
+            courseCounterService.recordEnrollments(courseId, count.intValue());
+            courseRollupService.recordEnrollments(courseId, count);
+        });
+
+        log.info("Created {} enrollments across {} courses ({} requested)", insertedCourseIds.size(),
+                insertedPerCourse.size(), enrollments.size());
+        return insertedCourseIds.size();
     }
 
     @Override
     public List<CourseEnrollmentResponseDTO> getEnrollmentsByUser(UUID userId) {
-        return enrollmentRepository.findByUserId(userId).stream().map(this::toDto).collect(Collectors.toList());
+        return toDtos(enrollmentRepository.findByUserId(userId));
     }
 
     @Override
     public List<CourseEnrollmentResponseDTO> getEnrollmentsByCourse(UUID courseId) {
-        return enrollmentRepository.findByCourseId(courseId).stream().map(this::toDto).collect(Collectors.toList());
+        return toDtos(enrollmentRepository.findByCourseId(courseId));
     }
 
     @Override
-    public void updateProgress(UUID enrollmentId, List<String> completedLessons) {
-        CourseEnrollment enrollment = enrollmentRepository.findById(enrollmentId)
-                .orElseThrow(() -> new RuntimeException("Enrollment not found"));
+    public EnrollmentPageDTO getEnrollmentPageByCourse(UUID courseId, CourseEnrollment.Status status, String cursor,
+            int size) {
+        int pageSize = pageSize(size);
+        Cursor after = decodeCursor(cursor);
+        // One extra row tells whether another page exists
+        return toPage(enrollmentRepository.findCoursePage(courseId, status, after.date(), after.id(), pageSize + 1),
+                pageSize);
+    }
 
-        List<Lesson> courseLessons = lessonRepository.findByCourseId(enrollment.getCourseId());
+    @Override
+    public EnrollmentPageDTO getEnrollmentPageByUser(UUID userId, String cursor, int size) {
+        int pageSize = pageSize(size);
+        Cursor after = decodeCursor(cursor);
+        EnrollmentPageDTO page = toPage(
+                enrollmentRepository.findUserPage(userId, after.date(), after.id(), pageSize + 1), pageSize);
 
-        int totalLessons = courseLessons.size();
+        Map<UUID, String> titles = courseTitleCache.getTitles(page.getEnrollments().stream()
+                .map(EnrollmentSummaryDTO::getCourseId)
+                .collect(Collectors.toSet()));
+        page.getEnrollments().forEach(enrollment -> enrollment.setCourseTitle(titles.get(enrollment.getCourseId())));
+        return page;
+    }
 
-        double progress = totalLessons == 0 ? 0.0 : ((double) completedLessons.size() / totalLessons) * 100;
+    /**
+     * Enrollment and completion counts of one course with a histogram of progress, computed in one query.
+     */
+    @Override
+    public Map<String, Object> getCourseEnrollmentStats(UUID courseId) {
+        CourseEnrollmentRepository.CourseEnrollmentStats stats = enrollmentRepository.getCourseStats(courseId);
+        long total = stats.getTotal() != null ? stats.getTotal() : 0;
+        long completed = stats.getCompleted() != null ? stats.getCompleted() : 0;
 
-        enrollment.setCompletedLessons(
-                completedLessons.stream()
-                        .map(UUID::fromString)
-                        .collect(Collectors.toList()));
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        buckets.put("0-24", orZero(stats.getBelow25()));
+        buckets.put("25-49", orZero(stats.getBelow50()));
+        buckets.put("50-74", orZero(stats.getBelow75()));
+        buckets.put("75-99", orZero(stats.getBelow100()));
+        buckets.put("100", total - buckets.values().stream().mapToLong(Long::longValue).sum());
 
-        enrollment.setProgressPercentage(progress);
-        enrollment.setUpdatedAt(Instant.now());
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("courseId", courseId);
+        result.put("totalEnrollments", total);
+        result.put("completedEnrollments", completed);
+        result.put("completionRate", total > 0 ? Math.round((double) completed / total * 1000) / 1000.0 : 0.0);
+        double averageProgress = stats.getAverageProgress() != null ? stats.getAverageProgress() : 0.0;
+        result.put("averageProgress", Math.round(averageProgress * 10) / 10.0);
+        result.put("progressBuckets", buckets);
+        return result;
+    }
 
-        if (progress == 100.0) {
-            enrollment.setStatus(CourseEnrollment.Status.COMPLETED);
+    private EnrollmentPageDTO toPage(List<EnrollmentSummaryDTO> rows, int pageSize) {
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+            EnrollmentSummaryDTO last = rows.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getEnrollmentDate() + "|" + last.getId());
         }
+        return new EnrollmentPageDTO(rows, nextCursor);
+    }
+
+    private int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_ENROLLMENT_PAGE_SIZE));
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0;
+    }
+
+    private record Cursor(Instant date, UUID id) {
+    }
 
-        enrollmentRepository.save(enrollment);
+    private String encodeCursor(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
     }
 
+    private Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new Cursor(null, null);
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid enrollment cursor");
+            }
+            return new Cursor(Instant.parse(parts[0]), UUID.fromString(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid enrollment cursor", e);
+        }
+    }
+
+    /**
+     * Replaces the set of completed lessons and recomputes progress from it.
+     */
     @Override
-    public String completeLesson(UUID enrollmentId, UUID lessonId) {
-        CourseEnrollment enrollment = enrollmentRepository.findById(enrollmentId)
+    @Transactional
+    public void updateProgress(UUID enrollmentId, List<String> completedLessons) {
+        CourseEnrollment enrollment = enrollmentRepository.findByIdForUpdate(enrollmentId)
                 .orElseThrow(() -> new RuntimeException("Enrollment not found"));
 
-        if (enrollment.getCompletedLessons().contains(lessonId)) {
-            return "Lesson already completed.";
-        }
+        Set<UUID> lessonIds = completedLessons.stream()
+                .map(UUID::fromString)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
 
-        List<Lesson> courseLessons = lessonRepository.findByCourseId(enrollment.getCourseId());
-        int totalLessons = courseLessons.size();
+        if (lessonIds.isEmpty()) {
+            enrollmentRepository.deleteCompletedLessons(enrollmentId);
+        } else {
+            enrollmentRepository.deleteCompletedLessonsNotIn(enrollmentId, lessonIds);
+            for (UUID lessonId : lessonIds) {
+                enrollmentRepository.insertCompletedLesson(enrollmentId, lessonId);
+            }
+        }
 
-        List<UUID> updatedCompletedLessons = new ArrayList<>(enrollment.getCompletedLessons());
-        updatedCompletedLessons.add(lessonId);
-        enrollment.setCompletedLessons(updatedCompletedLessons);
+        recomputeProgress(enrollment);
+    }
 
-        double progress = totalLessons == 0 ? 0.0 : ((double) updatedCompletedLessons.size() / totalLessons) * 100;
-        enrollment.setProgressPercentage(progress);
-        enrollment.setUpdatedAt(Instant.now());
+    /**
+     * Marks one lesson complete. The insert is idempotent and progress is recomputed with a single
+     * aggregate over the enrollment's completions, so the cost does not depend on the size of the course.
+     */
+    @Override
+    @Transactional
+    public String completeLesson(UUID enrollmentId, UUID lessonId) {
+        CourseEnrollment enrollment = enrollmentRepository.findByIdForUpdate(enrollmentId)
+                .orElseThrow(() -> new RuntimeException("Enrollment not found"));
 
-        if (progress == 100.0) {
-            enrollment.setStatus(CourseEnrollment.Status.COMPLETED);
+        if (enrollmentRepository.insertCompletedLesson(enrollmentId, lessonId) == 0) {
+            return "Lesson already completed.";
         }
 
-        enrollmentRepository.save(enrollment);
+        recomputeProgress(enrollment);
         return "Lesson marked as completed.";
     }
 
-    private CourseEnrollmentResponseDTO toDto(CourseEnrollment enrollment) {
+    /**
+     * Expects the enrollment row to be locked by the caller, so its status and completions cannot change
+     * between reading the old status and recomputing the new one.
+     */
+    private void recomputeProgress(CourseEnrollment enrollment) {
+        boolean wasCompleted = enrollment.getStatus() == CourseEnrollment.Status.COMPLETED;
+        enrollmentRepository.recomputeProgress(enrollment.getId(), lessonCountCache.get(enrollment.getCourseId()));
+        boolean isCompleted = enrollmentRepository.findStatusById(enrollment.getId())
+                == CourseEnrollment.Status.COMPLETED;
+        courseRollupService.recordCompletionChange(enrollment.getCourseId(), wasCompleted, isCompleted);
+    }
+
+    private List<CourseEnrollmentResponseDTO> toDtos(List<CourseEnrollment> enrollments) {
+        // One title lookup for the whole page, served mostly from the cache
+        Map<UUID, String> titles = courseTitleCache.getTitles(enrollments.stream()
+                .map(CourseEnrollment::getCourseId)
+                .collect(Collectors.toSet()));
+        return enrollments.stream()
+                .map(enrollment -> toDto(enrollment, titles.get(enrollment.getCourseId())))
+                .collect(Collectors.toList());
+    }
+
+    private CourseEnrollmentResponseDTO toDto(CourseEnrollment enrollment, String courseTitle) {
         return CourseEnrollmentResponseDTO.builder()
                 .id(enrollment.getId())
                 .userId(enrollment.getUserId())
                 .courseId(enrollment.getCourseId())
+                .courseTitle(courseTitle)
                 .enrollmentDate(enrollment.getEnrollmentDate())
                 .completedLessons(enrollment.getCompletedLessons().stream()
                         .map(UUID::toString)
@@ -158,60 +290,36 @@ public class CourseEnrollmentServiceImpl implements CourseEnrollmentService {
     @Override
     public java.util.Map<String, Object> getEnrollmentAnalytics() {
         java.util.Map<String, Object> analytics = new java.util.HashMap<>();
-        
-        List<CourseEnrollment> allEnrollments = enrollmentRepository.findAll();
-        List<Course> allCourses = courseRepository.findAll();
-        
-        // Basic enrollment statistics
-        int totalEnrollments = allEnrollments.size();
-        long totalCompletions = allEnrollments.stream()
-                .mapToLong(enrollment -> enrollment.getStatus() == CourseEnrollment.Status.COMPLETED ? 1 : 0)
-                .sum();
-        
+
+        // Basic enrollment statistics from the rollups
+        CourseRollupRepository.Totals totals = courseRollupRepository.sumTotals();
+        long totalEnrollments = totals.getEnrollments() != null ? totals.getEnrollments() : 0;
+        long totalCompletions = totals.getCompletions() != null ? totals.getCompletions() : 0;
+
         double completionRate = totalEnrollments > 0 ? (double) totalCompletions / totalEnrollments : 0.0;
-        
+
         analytics.put("totalEnrollments", totalEnrollments);
         analytics.put("totalCompletions", totalCompletions);
         analytics.put("completionRate", Math.round(completionRate * 1000) / 1000.0);
-        
+
         // Category-wise enrollment and completion statistics
-        java.util.Map<String, Integer> categoryEnrollments = new java.util.HashMap<>();
-        java.util.Map<String, Integer> categoryCompletions = new java.util.HashMap<>();
-        
-        // Get category mapping from courses
-        java.util.Map<UUID, String> courseCategories = new java.util.HashMap<>();
-        for (Course course : allCourses) {
-            if (course.getId() != null && course.getCategory() != null) {
-                courseCategories.put(course.getId(), course.getCategory());
-            }
-        }
-        
-        // Count enrollments and completions by category
-        for (CourseEnrollment enrollment : allEnrollments) {
-            String category = courseCategories.get(enrollment.getCourseId());
-            if (category != null) {
-                categoryEnrollments.put(category, categoryEnrollments.getOrDefault(category, 0) + 1);
-                if (enrollment.getStatus() == CourseEnrollment.Status.COMPLETED) {
-                    categoryCompletions.put(category, categoryCompletions.getOrDefault(category, 0) + 1);
-                }
-            }
-        }
-        
-        // Create category enrollment list
         java.util.List<java.util.Map<String, Object>> categoryEnrollmentsList = new java.util.ArrayList<>();
-        for (java.util.Map.Entry<String, Integer> entry : categoryEnrollments.entrySet()) {
+        for (CourseRollupRepository.CategoryTotals categoryTotals : courseRollupRepository.sumByCategory()) {
+            if (categoryTotals.getEnrollments() == 0) {
+                continue;
+            }
             java.util.Map<String, Object> categoryData = new java.util.HashMap<>();
-            categoryData.put("category", entry.getKey());
-            categoryData.put("enrollments", entry.getValue());
-            categoryData.put("completions", categoryCompletions.getOrDefault(entry.getKey(), 0));
+            categoryData.put("category", categoryTotals.getCategory());
+            categoryData.put("enrollments", categoryTotals.getEnrollments());
+            categoryData.put("completions", categoryTotals.getCompletions());
             categoryEnrollmentsList.add(categoryData);
         }
-        
+
         // Sort by enrollments descending
-        categoryEnrollmentsList.sort((a, b) -> Integer.compare((Integer)b.get("enrollments"), (Integer)a.get("enrollments")));
-        
+        categoryEnrollmentsList.sort((a, b) -> Long.compare((Long) b.get("enrollments"), (Long) a.get("enrollments")));
+
         analytics.put("categoryEnrollments", categoryEnrollmentsList);
-        
+
         return analytics;
     }
 }
\ No newline at end of file
@@ -2,40 +2,66 @@ package com.levelup.course_service.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.levelup.course_service.service.CourseCategoryRegistry;
+import com.levelup.course_service.service.CourseCounterService;
+import com.levelup.course_service.service.CourseRollupService;
 import com.levelup.course_service.service.CourseService;
-import com.levelup.course_service.client.UserServiceClient;
+import com.levelup.course_service.service.InstructorAuthorizationCache;
+import com.levelup.course_service.repository.CourseRatingRepository;
 import com.levelup.course_service.repository.CourseRepository;
+import com.levelup.course_service.repository.CourseRollupRepository;
 import com.levelup.course_service.entity.Course;
+import com.levelup.course_service.entity.CourseRollup;
+import com.levelup.course_service.event.CourseContentChangedEvent;
+import com.levelup.course_service.event.CourseFacetChangedEvent;
+import com.levelup.course_service.event.CourseFacetChangedEvent.CourseFacet;
+import com.levelup.course_service.dto.CategoryCountDTO;
+import com.levelup.course_service.dto.CourseCatalogFilter;
+import com.levelup.course_service.dto.CourseCatalogPageDTO;
 import com.levelup.course_service.dto.CourseDTO;
+import com.levelup.course_service.dto.CourseFacetCountDTO;
+import com.levelup.course_service.dto.CourseSummaryDTO;
 import com.levelup.course_service.dto.CourseDetailsResponseDTO;
 import com.levelup.course_service.dto.CourseDetailsDTO;
+import com.levelup.course_service.dto.CourseRatingSummaryDTO;
 import com.levelup.course_service.dto.InstructorValidationResponseDTO;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CourseServiceImpl implements CourseService {
 
+    private static final int MAX_CATALOG_PAGE_SIZE = 100;
+
     private final CourseRepository courseRepository;
-    private final UserServiceClient userServiceClient;
+    private final InstructorAuthorizationCache instructorAuthorizationCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CourseCategoryRegistry courseCategoryRegistry;
+    private final CourseRollupRepository courseRollupRepository;
+    private final CourseRollupService courseRollupService;
+    private final CourseCounterService courseCounterService;
+    private final CourseRatingRepository courseRatingRepository;
 
     @Override
     public Course createCourse(CourseDTO dto, UUID currentUserId) {
 
-        // Send token's userID to user service and get validation DTO response
-        InstructorValidationResponseDTO validationResponse = userServiceClient
-                .validateInstructorByUserId(currentUserId);
+        // Resolve the token's user ID to an instructor, cached from user service
+        InstructorValidationResponseDTO validationResponse = instructorAuthorizationCache.validate(currentUserId);
 
         // Check if instructor is valid from DTO response
         if (validationResponse.getIsValidInstructor() == null || !validationResponse.getIsValidInstructor()) {
@@ -56,6 +82,7 @@ public class CourseServiceImpl implements CourseService {
                 .priceCurrency(dto.getPriceCurrency())
                 .ratingAverage(BigDecimal.valueOf(0.0))
                 .ratingCount(0)
+                .ratingTotal(0L)
                 .duration(dto.getDuration())
                 .level(dto.getLevel())
                 .enrollmentCount(0)
@@ -64,6 +91,11 @@ public class CourseServiceImpl implements CourseService {
                 .build();
 
         Course savedCourse = courseRepository.save(course);
+        // Facet listeners must see the change before the catalog cache reloads the category list
+        eventPublisher.publishEvent(
+                new CourseFacetChangedEvent(savedCourse.getId(), null, CourseFacet.of(savedCourse)));
+        eventPublisher.publishEvent(
+                new CourseContentChangedEvent(savedCourse.getId(), CourseContentChangedEvent.Scope.CATALOG));
         log.info("Course created successfully by instructor {}: {}", currentUserId, savedCourse.getId());
         return savedCourse;
     }
@@ -73,6 +105,68 @@ public class CourseServiceImpl implements CourseService {
         return courseRepository.findAll();
     }
 
+    @Override
+    public CourseCatalogPageDTO getCatalog(CourseCatalogFilter filter, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CATALOG_PAGE_SIZE));
+
+        Comparable<?> afterValue = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            afterValue = parseSortValue(filter.getSort(), parts[0]);
+            afterId = UUID.fromString(parts[1]);
+        }
+
+        // One extra row tells whether another page exists
+        List<CourseSummaryDTO> rows = courseRepository.findCatalogPage(filter, afterValue, afterId, pageSize + 1);
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            CourseSummaryDTO last = rows.get(pageSize - 1);
+            nextCursor = encodeCursor(sortValue(filter.getSort(), last) + "|" + last.getId());
+        }
+
+        return new CourseCatalogPageDTO(rows, nextCursor);
+    }
+
+    private Object sortValue(CourseCatalogFilter.Sort sort, CourseSummaryDTO course) {
+        return switch (sort) {
+            case RATING -> course.getRatingAverage().toPlainString();
+            case ENROLLMENTS -> course.getEnrollmentCount();
+            case NEWEST -> course.getCreatedAt();
+        };
+    }
+
+    private Comparable<?> parseSortValue(CourseCatalogFilter.Sort sort, String value) {
+        try {
+            return switch (sort) {
+                case RATING -> new BigDecimal(value);
+                case ENROLLMENTS -> Integer.valueOf(value);
+                case NEWEST -> Instant.parse(value);
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid catalog cursor", e);
+        }
+    }
+
+    private String encodeCursor(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid catalog cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid catalog cursor", e);
+        }
+    }
+
     @Override
     public Optional<Course> getCourseById(UUID id) {
         return courseRepository.findById(id);
@@ -82,9 +176,8 @@ public class CourseServiceImpl implements CourseService {
     public void deleteCourse(UUID id, UUID currentUserId) {
         log.info("Deleting course {} by instructor: {}", id, currentUserId);
 
-        // Validate instructor using user service
-        InstructorValidationResponseDTO validationResponse = userServiceClient
-                .validateInstructorByUserId(currentUserId);
+        // Validate instructor, cached from user service
+        InstructorValidationResponseDTO validationResponse = instructorAuthorizationCache.validate(currentUserId);
 
         if (validationResponse.getIsValidInstructor() == null || !validationResponse.getIsValidInstructor()) {
             throw new RuntimeException("Invalid instructor: User is not a valid instructor");
@@ -100,6 +193,8 @@ public class CourseServiceImpl implements CourseService {
         }
 
         courseRepository.deleteById(id);
+        eventPublisher.publishEvent(new CourseFacetChangedEvent(id, CourseFacet.of(course), null));
+        eventPublisher.publishEvent(new CourseContentChangedEvent(id, CourseContentChangedEvent.Scope.DELETED));
         log.info("Course deleted successfully: {}", id);
     }
 
@@ -107,9 +202,8 @@ public class CourseServiceImpl implements CourseService {
     public Course updateCourse(UUID id, CourseDTO dto, UUID currentUserId) {
         log.info("Updating course {} by instructor: {}", id, currentUserId);
 
-        // Validate instructor using user service
-        InstructorValidationResponseDTO validationResponse = userServiceClient
-                .validateInstructorByUserId(currentUserId);
+        // Validate instructor, cached from user service
+        InstructorValidationResponseDTO validationResponse = instructorAuthorizationCache.validate(currentUserId);
 
         if (validationResponse.getIsValidInstructor() == null || !validationResponse.getIsValidInstructor()) {
             throw new RuntimeException("Invalid instructor: User is not a valid instructor");
@@ -121,6 +215,8 @@ public class CourseServiceImpl implements CourseService {
                 throw new RuntimeException("You can only update courses that you own");
             }
 
+            CourseFacet before = CourseFacet.of(course);
+
             course.setTitle(dto.getTitle());
             course.setDescription(dto.getDescription());
             course.setCategory(dto.getCategory());
@@ -135,6 +231,8 @@ public class CourseServiceImpl implements CourseService {
             course.setUpdatedAt(Instant.now());
 
             Course updatedCourse = courseRepository.save(course);
+            eventPublisher.publishEvent(new CourseFacetChangedEvent(id, before, CourseFacet.of(updatedCourse)));
+            eventPublisher.publishEvent(new CourseContentChangedEvent(id, CourseContentChangedEvent.Scope.CATALOG));
             log.info("Course updated successfully: {}", updatedCourse.getId());
             return updatedCourse;
 
@@ -146,9 +244,8 @@ public class CourseServiceImpl implements CourseService {
         log.info("Changing course state for course {} by instructor: {} to status: {}", courseId, currentUserId,
                 status);
 
-        // Validate instructor using user service
-        InstructorValidationResponseDTO validationResponse = userServiceClient
-                .validateInstructorByUserId(currentUserId);
+        // Validate instructor, cached from user service
+        InstructorValidationResponseDTO validationResponse = instructorAuthorizationCache.validate(currentUserId);
         if (validationResponse.getIsValidInstructor() == null || !validationResponse.getIsValidInstructor()) {
             throw new RuntimeException("Invalid instructor: User is not a valid instructor");
         }
@@ -159,8 +256,12 @@ public class CourseServiceImpl implements CourseService {
         // Validate and set new status
         try {
             Course.Status newStatus = Course.Status.valueOf(status.toUpperCase());
+            CourseFacet before = CourseFacet.of(course);
             course.setStatus(newStatus);
             courseRepository.save(course);
+            eventPublisher.publishEvent(new CourseFacetChangedEvent(courseId, before, CourseFacet.of(course)));
+            eventPublisher.publishEvent(
+                    new CourseContentChangedEvent(courseId, CourseContentChangedEvent.Scope.CATALOG));
             log.info("Course state changed successfully: {} -> {}", courseId, newStatus);
             return "Course state changed to " + newStatus;
         } catch (IllegalArgumentException e) {
@@ -170,17 +271,22 @@ public class CourseServiceImpl implements CourseService {
 
     @Override
     public List<String> getAllCategory() {
-        return courseRepository.findAll().stream()
-                .map(Course::getCategory)
-                .distinct()
-                .sorted()
-                .toList();
+        return courseCategoryRegistry.getCategories();
+    }
+
+    @Override
+    public List<CategoryCountDTO> getCategoryCounts() {
+        return courseCategoryRegistry.getPublishedCountsByCategory();
+    }
+
+    @Override
+    public List<CourseFacetCountDTO> getCourseFacets() {
+        return courseCategoryRegistry.getPublishedFacets();
     }
 
     @Override
     public List<Course> getMyCourses(UUID currentUserId) {
-        InstructorValidationResponseDTO validationResponse = userServiceClient
-                .validateInstructorByUserId(currentUserId);
+        InstructorValidationResponseDTO validationResponse = instructorAuthorizationCache.validate(currentUserId);
 
         if (validationResponse.getIsValidInstructor() == null || !validationResponse.getIsValidInstructor()) {
             throw new RuntimeException("Invalid instructor: User is not a valid instructor");
@@ -193,15 +299,9 @@ public class CourseServiceImpl implements CourseService {
     public CourseDetailsResponseDTO getCourseDetailsByIds(List<UUID> courseIds) {
         log.info("Fetching course details for IDs: {}", courseIds);
 
-        List<Course> courses = courseRepository.findAllById(courseIds);
-
-        List<CourseDetailsDTO> courseDetails = courses.stream()
-                .map(course -> new CourseDetailsDTO(
-                        course.getId(),
-                        course.getTitle(),
-                        course.getPriceAmount(),
-                        course.getInstructorId()))
-                .collect(Collectors.toList());
+        List<CourseDetailsDTO> courseDetails = courseIds.isEmpty()
+                ? List.of()
+                : courseRepository.findDetailsByIdIn(courseIds);
 
         log.info("Found {} courses out of {} requested", courseDetails.size(), courseIds.size());
         return new CourseDetailsResponseDTO(courseDetails);
@@ -210,78 +310,94 @@ public class CourseServiceImpl implements CourseService {
     @Override
     public java.util.Map<String, Object> getCourseAnalytics() {
         java.util.Map<String, Object> analytics = new java.util.HashMap<>();
-        
-        List<Course> allCourses = courseRepository.findAll();
-        
+
         // Basic course statistics
-        analytics.put("totalCourses", allCourses.size());
-        analytics.put("publishedCourses", allCourses.stream()
-                .mapToInt(course -> course.getStatus() == Course.Status.PUBLISHED ? 1 : 0)
-                .sum());
-        
-        // Average rating
-        double averageRating = allCourses.stream()
-                .filter(course -> course.getRatingCount() > 0 && course.getRatingAverage() != null)
-                .mapToDouble(course -> course.getRatingAverage().doubleValue())
-                .average()
-                .orElse(0.0);
-        analytics.put("averageRating", Math.round(averageRating * 10) / 10.0);
-        
-        // Category statistics
-        java.util.Map<String, Integer> categoryEnrollments = new java.util.HashMap<>();
-        int totalEnrollments = 0;
-        
-        for (Course course : allCourses) {
-            String category = course.getCategory();
-            int enrollments = course.getEnrollmentCount();
-            if (category != null) {
-                categoryEnrollments.put(category, categoryEnrollments.getOrDefault(category, 0) + enrollments);
-                totalEnrollments += enrollments;
-            }
-        }
-        
-        // Convert to percentage format
+        analytics.put("totalCourses", courseRepository.count());
+        analytics.put("publishedCourses", courseRepository.countByStatus(Course.Status.PUBLISHED));
+
+        // Average rating across rated courses
+        Double averageRating = courseRollupRepository.averageRating();
+        analytics.put("averageRating", averageRating != null ? Math.round(averageRating * 10) / 10.0 : 0.0);
+
+        // Category statistics from the rollups
+        List<CourseRollupRepository.CategoryTotals> categoryTotals = courseRollupRepository.sumByCategory();
+        long totalEnrollments = categoryTotals.stream()
+                .mapToLong(CourseRollupRepository.CategoryTotals::getEnrollments)
+                .sum();
+
         java.util.List<java.util.Map<String, Object>> topCategories = new java.util.ArrayList<>();
-        for (java.util.Map.Entry<String, Integer> entry : categoryEnrollments.entrySet()) {
+        for (CourseRollupRepository.CategoryTotals totals : categoryTotals) {
             java.util.Map<String, Object> categoryData = new java.util.HashMap<>();
-            categoryData.put("name", entry.getKey());
-            categoryData.put("enrollments", entry.getValue());
-            categoryData.put("percentage", totalEnrollments > 0 ? 
-                Math.round((entry.getValue() * 100.0 / totalEnrollments) * 10) / 10.0 : 0);
+            categoryData.put("name", totals.getCategory());
+            categoryData.put("enrollments", totals.getEnrollments());
+            categoryData.put("percentage", totalEnrollments > 0 ?
+                Math.round((totals.getEnrollments() * 100.0 / totalEnrollments) * 10) / 10.0 : 0);
             topCategories.add(categoryData);
         }
-        
+
         // Sort by enrollments descending
-        topCategories.sort((a, b) -> Integer.compare((Integer)b.get("enrollments"), (Integer)a.get("enrollments")));
-        
+        topCategories.sort((a, b) -> Long.compare((Long) b.get("enrollments"), (Long) a.get("enrollments")));
+
         analytics.put("topCategories", topCategories);
-        
+
         return analytics;
     }
   
+    /**
+     * Records or replaces the user's rating. Only the user's own course_ratings row is locked; the aggregates
+     * move by the difference to the previous rating, so rating again never counts the user twice.
+     */
+    @Override
+    @Transactional
     public void rateCourse(UUID courseId, UUID currentUserId, int rating) {
         if (rating < 1 || rating > 5) {
             throw new IllegalArgumentException("Rating must be between 1 and 5");
         }
 
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new NoSuchElementException("Course not found"));
+        if (!courseRepository.existsById(courseId)) {
+            throw new NoSuchElementException("Course not found");
+        }
+
+        Integer previousRating = courseRatingRepository.replaceRating(courseId, currentUserId, rating).orElse(null);
+        if (previousRating == null
+                && courseRatingRepository.insertIfAbsent(UUID.randomUUID(), courseId, currentUserId, rating) == 0) {
+            // A concurrent first rating by the same user won the insert; replace it instead
+            previousRating = courseRatingRepository.replaceRating(courseId, currentUserId, rating)
+                    .orElseThrow(() -> new IllegalStateException("Rating vanished while being replaced"));
+        }
+        if (previousRating != null && previousRating == rating) {
+            log.info("Course {} rating by user {} unchanged at {}", courseId, currentUserId, rating);
+            return;
+        }
+
+        // The course average and count are folded in by CourseCounterService; the row is not locked here
+        courseCounterService.recordRating(courseId, previousRating == null ? 1 : 0,
+                rating - (previousRating == null ? 0 : previousRating));
+        courseRollupService.recordRating(courseId, previousRating, rating);
 
-        BigDecimal ratingAverage = course.getRatingAverage() != null ? course.getRatingAverage() : BigDecimal.ZERO;
-        int ratingCount = course.getRatingCount();
+        log.info("Course {} rated {} by user {} (previously {})", courseId, rating, currentUserId, previousRating);
+    }
 
-        BigDecimal totalRating = ratingAverage.multiply(BigDecimal.valueOf(ratingCount))
-                .add(BigDecimal.valueOf(rating));
+    @Override
+    public Optional<CourseRatingSummaryDTO> getRatingSummary(UUID courseId) {
+        if (!courseRepository.existsById(courseId)) {
+            return Optional.empty();
+        }
 
-        int newCount = ratingCount + 1;
-        BigDecimal newAverage = totalRating
-                .divide(BigDecimal.valueOf(newCount), 2, RoundingMode.HALF_UP);
+        CourseRollup rollup = courseRollupRepository.findById(courseId)
+                .orElseGet(() -> CourseRollup.builder().courseId(courseId).build());
 
-        course.setRatingAverage(newAverage);
-        course.setRatingCount(newCount);
-        courseRepository.save(course);
+        Map<Integer, Long> histogram = new LinkedHashMap<>();
+        histogram.put(1, rollup.getOneStarCount());
+        histogram.put(2, rollup.getTwoStarCount());
+        histogram.put(3, rollup.getThreeStarCount());
+        histogram.put(4, rollup.getFourStarCount());
+        histogram.put(5, rollup.getFiveStarCount());
 
-        log.info("Course {} rated successfully: new average = {}, total ratings = {}", courseId, newAverage, newCount);
+        double average = rollup.getRatingCount() > 0
+                ? Math.round((double) rollup.getRatingTotal() / rollup.getRatingCount() * 100) / 100.0
+                : 0;
+        return Optional.of(new CourseRatingSummaryDTO(courseId, rollup.getRatingCount(), average, histogram));
     }
 
 }
\ No newline at end of file
@@ -4,17 +4,26 @@ import com.levelup.course_service.dto.LessonDTO;
 import com.levelup.course_service.dto.InstructorValidationResponseDTO;
 import com.levelup.course_service.entity.Lesson;
 import com.levelup.course_service.entity.Course;
+import com.levelup.course_service.event.CourseContentChangedEvent;
 import com.levelup.course_service.repository.LessonRepository;
 import com.levelup.course_service.repository.CourseRepository;
+import com.levelup.course_service.service.InstructorAuthorizationCache;
 import com.levelup.course_service.service.LessonService;
-import com.levelup.course_service.client.UserServiceClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,21 +33,22 @@ public class LessonServiceImpl implements LessonService {
 
     private final LessonRepository lessonRepository;
     private final CourseRepository courseRepository;
-    private final UserServiceClient userServiceClient;
+    private final InstructorAuthorizationCache instructorAuthorizationCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public LessonDTO createLesson(LessonDTO dto, UUID currentUserId) {
         log.info("Creating lesson for course {} by user: {}", dto.getCourseId(), currentUserId);
 
         // Validate that the user is an instructor and owns the course
-        validateUserCanModifyCourse(dto.getCourseId(), currentUserId);
+        Course course = validateUserCanModifyCourse(dto.getCourseId(), currentUserId);
 
-        Lesson lesson = mapToEntityForCreate(dto);
-        lesson.setStatus(Lesson.Status.DRAFT);
+        Lesson lesson = mapToEntityForCreate(dto, course);
         lesson.setCreatedAt(Instant.now());
         lesson.setUpdatedAt(Instant.now());
 
         LessonDTO createdLesson = mapToDto(lessonRepository.save(lesson));
+        publishLessonsChanged(dto.getCourseId());
         log.info("Lesson created successfully: {}", createdLesson.getId());
         return createdLesson;
     }
@@ -52,6 +62,82 @@ public class LessonServiceImpl implements LessonService {
 
         validateUserCanModifyCourse(lesson.getCourse().getId(), currentUserId);
 
+        applyChanges(lesson, dto);
+        lesson.setUpdatedAt(Instant.now());
+
+        LessonDTO updatedLesson = mapToDto(lessonRepository.save(lesson));
+        publishLessonsChanged(updatedLesson.getCourseId());
+        log.info("Lesson updated successfully: {}", updatedLesson.getId());
+        return updatedLesson;
+    }
+
+    /**
+     * Creates lessons without an ID and updates those with one, validating the instructor once for the
+     * whole course. Inserts are sent in JDBC batches. Returns all lessons of the course in order.
+     */
+    @Override
+    @Transactional
+    public List<LessonDTO> saveLessons(UUID courseId, List<LessonDTO> dtos, UUID currentUserId) {
+        log.info("Saving {} lessons for course {} by user: {}", dtos.size(), courseId, currentUserId);
+
+        Course course = validateUserCanModifyCourse(courseId, currentUserId);
+
+        Set<UUID> ids = dtos.stream()
+                .map(LessonDTO::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<UUID, Lesson> existing = ids.isEmpty()
+                ? Map.of()
+                : lessonRepository.findByCourseIdAndIdIn(courseId, ids).stream()
+                        .collect(Collectors.toMap(Lesson::getId, Function.identity()));
+        if (existing.size() != ids.size()) {
+            throw new RuntimeException("Lesson not found in this course");
+        }
+
+        Instant now = Instant.now();
+        List<Lesson> lessons = new ArrayList<>(dtos.size());
+        for (LessonDTO dto : dtos) {
+            Lesson lesson;
+            if (dto.getId() == null) {
+                lesson = mapToEntityForCreate(dto, course);
+                lesson.setCreatedAt(now);
+            } else {
+                lesson = existing.get(dto.getId());
+                applyChanges(lesson, dto);
+            }
+            lesson.setUpdatedAt(now);
+            lessons.add(lesson);
+        }
+        lessonRepository.saveAll(lessons);
+
+        publishLessonsChanged(courseId);
+        log.info("Saved {} lessons for course {}", lessons.size(), courseId);
+        return getLessonsByCourse(courseId);
+    }
+
+    /**
+     * Applies a full reorder in one UPDATE. {@code lessonIds} must list every lesson of the course exactly once,
+     * in the new order.
+     */
+    @Override
+    @Transactional
+    public List<LessonDTO> reorderLessons(UUID courseId, List<UUID> lessonIds, UUID currentUserId) {
+        log.info("Reordering {} lessons for course {} by user: {}", lessonIds.size(), courseId, currentUserId);
+
+        validateUserCanModifyCourse(courseId, currentUserId);
+
+        if (new HashSet<>(lessonIds).size() != lessonIds.size()
+                || lessonRepository.countByCourseId(courseId) != lessonIds.size()
+                || lessonRepository.reorder(courseId, lessonIds) != lessonIds.size()) {
+            throw new RuntimeException("Lesson order must list every lesson of the course exactly once");
+        }
+
+        publishLessonsChanged(courseId);
+        log.info("Lessons reordered successfully for course {}", courseId);
+        return getLessonsByCourse(courseId);
+    }
+
+    private void applyChanges(Lesson lesson, LessonDTO dto) {
         if (dto.getTitle() != null)
             lesson.setTitle(dto.getTitle());
         if (dto.getContentType() != null) {
@@ -69,12 +155,6 @@ public class LessonServiceImpl implements LessonService {
             lesson.setOrder(dto.getOrder());
         if (dto.getStatus() != null)
             lesson.setStatus(dto.getStatus());
-
-        lesson.setUpdatedAt(Instant.now());
-
-        LessonDTO updatedLesson = mapToDto(lessonRepository.save(lesson));
-        log.info("Lesson updated successfully: {}", updatedLesson.getId());
-        return updatedLesson;
     }
 
     @Override
@@ -89,6 +169,7 @@ public class LessonServiceImpl implements LessonService {
         validateUserCanModifyCourse(lesson.getCourse().getId(), currentUserId);
 
         lessonRepository.deleteById(id);
+        publishLessonsChanged(lesson.getCourse().getId());
         log.info("Lesson deleted successfully: {}", id);
     }
 
@@ -100,7 +181,7 @@ public class LessonServiceImpl implements LessonService {
 
     @Override
     public List<LessonDTO> getLessonsByCourse(UUID courseId) {
-        return lessonRepository.findByCourseId(courseId)
+        return lessonRepository.findOrderedByCourseId(courseId)
                 .stream().map(this::mapToDto).collect(Collectors.toList());
     }
 
@@ -121,14 +202,18 @@ public class LessonServiceImpl implements LessonService {
         lesson.setUpdatedAt(Instant.now());
 
         lessonRepository.save(lesson);
+        publishLessonsChanged(lesson.getCourse().getId());
         log.info("Lesson state changed successfully: {} to {}", lessonId, newStatus);
         return "Lesson state changed successfully";
     }
 
-    private void validateUserCanModifyCourse(UUID courseId, UUID currentUserId) {
-        // Step 1: Get instructor validation from user service using the user ID
-        InstructorValidationResponseDTO validationResponse = userServiceClient
-                .validateInstructorByUserId(currentUserId);
+    private void publishLessonsChanged(UUID courseId) {
+        eventPublisher.publishEvent(new CourseContentChangedEvent(courseId, CourseContentChangedEvent.Scope.LESSONS));
+    }
+
+    private Course validateUserCanModifyCourse(UUID courseId, UUID currentUserId) {
+        // Step 1: Get instructor validation for the user ID, cached from user service
+        InstructorValidationResponseDTO validationResponse = instructorAuthorizationCache.validate(currentUserId);
 
         // Step 2: Check if user is a valid instructor
         if (validationResponse.getIsValidInstructor() == null || !validationResponse.getIsValidInstructor()) {
@@ -149,12 +234,10 @@ public class LessonServiceImpl implements LessonService {
         }
 
         log.info("Access granted: Instructor {} can modify course {}", instructorId, courseId);
+        return course;
     }
 
-    private Lesson mapToEntityForCreate(LessonDTO dto) {
-        Course course = courseRepository.findById(dto.getCourseId())
-                .orElseThrow(() -> new RuntimeException("Course not found"));
-
+    private Lesson mapToEntityForCreate(LessonDTO dto, Course course) {
         return Lesson.builder()
                 .course(course)
                 .title(dto.getTitle())
@@ -186,6 +269,23 @@ public class LessonServiceImpl implements LessonService {
                 .build();
     }
 
+    private LessonDTO mapToDto(LessonRepository.LessonRow row) {
+        return LessonDTO.builder()
+                .id(row.getId())
+                .courseId(row.getCourseId())
+                .title(row.getTitle())
+                .contentType(row.getContentType().name())
+                .contentUrl(row.getContentUrl())
+                .contentId(row.getContentId())
+                .textContent(row.getTextContent())
+                .quizId(row.getQuizId())
+                .order(row.getLessonOrder())
+                .status(row.getStatus())
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .build();
+    }
+
     private LessonDTO mapToDto(Lesson entity) {
         return LessonDTO.builder()
                 .id(entity.getId())
@@ -0,0 +1,85 @@
+package com.levelup.course_service.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.levelup.course_service.dto.CourseDetailsResponseDTO;
+import com.levelup.course_service.entity.Course;
+import com.levelup.course_service.repository.CourseRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false",
+        "spring.rabbitmq.host=localhost",
+        "spring.rabbitmq.port=5672"
+})
+@DisplayName("Course details content negotiation tests")
+class CourseDetailsContentNegotiationTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+
+    @Test
+    @DisplayName("Course details are served as CBOR when accepted and as JSON otherwise")
+    void negotiatesWireFormat() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        Course course = courseRepository.save(Course.builder()
+                .title("Checkout course")
+                .description("Long description that the details lookup does not read")
+                .status(Course.Status.PUBLISHED)
+                .priceAmount(new BigDecimal("19.99"))
+                .instructorId(UUID.randomUUID())
+                .createdAt(Instant.now())
+                .build());
+        String request = "{\"courseIds\":[\"" + course.getId() + "\",\"" + UUID.randomUUID() + "\"]}";
+
+        MvcResult result = mockMvc.perform(post("/api/courses/details")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_CBOR, MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+        CourseDetailsResponseDTO response = cbor.readValue(result.getResponse().getContentAsByteArray(),
+                CourseDetailsResponseDTO.class);
+        assertEquals(1, response.getCourses().size());
+        assertEquals(course.getTitle(), response.getCourses().get(0).getTitle());
+        assertEquals(0, new BigDecimal("19.99").compareTo(response.getCourses().get(0).getPrice()));
+
+        mockMvc.perform(post("/api/courses/details")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(cbor.writeValueAsBytes(Map.of("courseIds", List.of(course.getId())))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.courses[0].instructorId").value(course.getInstructorId().toString()));
+    }
+}
@@ -0,0 +1,92 @@
+package com.levelup.course_service.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.levelup.course_service.dto.CourseDetailsDTO;
+import com.levelup.course_service.dto.CourseDetailsResponseDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the JSON and CBOR encodings of the course-details response on payload size and on serialization
+ * and deserialization time. The mappers are built the same way as Spring's message converters build them.
+ * Timings are logged for comparison only; they vary too much between machines to assert on.
+ */
+@DisplayName("Course details wire format benchmark")
+@Slf4j
+class CourseDetailsWireFormatBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 5_000;
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+
+    @Test
+    @DisplayName("CBOR is smaller than JSON and round-trips the same response")
+    void compareFormats() throws Exception {
+        for (int courses : new int[] { 1, 10, 100 }) {
+            CourseDetailsResponseDTO response = response(courses);
+
+            Result jsonResult = measure(json, response);
+            Result cborResult = measure(cbor, response);
+            log.info("Course details, {} courses: JSON {} B, {} ns write, {} ns read | "
+                            + "CBOR {} B, {} ns write, {} ns read",
+                    courses,
+                    jsonResult.bytes, Math.round(jsonResult.writeNanos), Math.round(jsonResult.readNanos),
+                    cborResult.bytes, Math.round(cborResult.writeNanos), Math.round(cborResult.readNanos));
+
+            assertTrue(cborResult.bytes < jsonResult.bytes);
+            assertEquals(response, cbor.readValue(cbor.writeValueAsBytes(response), CourseDetailsResponseDTO.class));
+        }
+    }
+
+    private Result measure(ObjectMapper mapper, CourseDetailsResponseDTO response) throws Exception {
+        byte[] body = mapper.writeValueAsBytes(response);
+        // Keeps the JIT from dropping the measured work
+        long sink = 0;
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += mapper.writeValueAsBytes(response).length;
+            sink += mapper.readValue(body, CourseDetailsResponseDTO.class).getCourses().size();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += mapper.writeValueAsBytes(response).length;
+        }
+        double writeNanos = (double) (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += mapper.readValue(body, CourseDetailsResponseDTO.class).getCourses().size();
+        }
+        double readNanos = (double) (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+        assertTrue(sink > 0);
+        return new Result(body.length, writeNanos, readNanos);
+    }
+
+    private CourseDetailsResponseDTO response(int courses) {
+        List<CourseDetailsDTO> details = new ArrayList<>(courses);
+        for (int i = 0; i < courses; i++) {
+            details.add(new CourseDetailsDTO(
+                    UUID.randomUUID(),
+                    "Course number " + i + ": Spring Boot in practice",
+                    new BigDecimal("49.99").add(BigDecimal.valueOf(i)),
+                    UUID.randomUUID()));
+        }
+        return new CourseDetailsResponseDTO(details);
+    }
+
+    private record Result(int bytes, double writeNanos, double readNanos) {
+    }
+}
@@ -0,0 +1,136 @@
+package com.levelup.course_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.levelup.course_service.event.CourseContentChangedEvent;
+import com.levelup.course_service.event.CourseContentChangedEvent.Scope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CatalogCache tests")
+class CatalogCacheTest {
+
+    private final UUID courseId = UUID.randomUUID();
+    private final AtomicInteger courseLoads = new AtomicInteger();
+    private final AtomicInteger lessonLoads = new AtomicInteger();
+    private final AtomicInteger categoryLoads = new AtomicInteger();
+
+    private SimpleMeterRegistry meterRegistry;
+    private CatalogCache catalogCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        catalogCache = new CatalogCache(new ObjectMapper(), meterRegistry, Duration.ofMinutes(5), 100);
+    }
+
+    @Test
+    @DisplayName("If-None-Match naming the current ETag gets 304 without a body, anything else the cached JSON")
+    void answersNotModifiedForCurrentEtag() {
+        CatalogCache.CachedResponse cached = course();
+        String etag = cached.getEtag();
+
+        ResponseEntity<byte[]> full = cached.toResponse(null);
+        assertEquals(HttpStatus.OK, full.getStatusCode());
+        assertEquals(etag, full.getHeaders().getETag());
+        assertEquals("{\"title\":\"v1\"}", new String(full.getBody()));
+
+        for (String ifNoneMatch : List.of(etag, "W/" + etag, "\"other\", " + etag, "*")) {
+            ResponseEntity<byte[]> response = course().toResponse(ifNoneMatch);
+            assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode(), ifNoneMatch);
+            assertEquals(etag, response.getHeaders().getETag());
+            assertNull(response.getBody());
+        }
+        assertEquals(HttpStatus.OK, course().toResponse("\"other\"").getStatusCode());
+
+        // Once the course changes, the old ETag no longer matches
+        catalogCache.onCourseContentChanged(new CourseContentChangedEvent(courseId, Scope.COURSE));
+        ResponseEntity<byte[]> changed = course().toResponse(etag);
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertNotEquals(etag, changed.getHeaders().getETag());
+        assertEquals("{\"title\":\"v2\"}", new String(changed.getBody()));
+    }
+
+    @Test
+    @DisplayName("Each event scope reloads only the regions it affects")
+    void invalidatesPerScope() {
+        loadAll();
+        assertLoads(1, 1, 1);
+
+        catalogCache.onCourseContentChanged(new CourseContentChangedEvent(courseId, Scope.COURSE));
+        loadAll();
+        assertLoads(2, 1, 1);
+
+        catalogCache.onCourseContentChanged(new CourseContentChangedEvent(courseId, Scope.LESSONS));
+        loadAll();
+        assertLoads(2, 2, 1);
+
+        catalogCache.onCourseContentChanged(new CourseContentChangedEvent(courseId, Scope.CATALOG));
+        loadAll();
+        assertLoads(3, 2, 2);
+
+        // Another course's change leaves this course's entries alone but still reaches the shared categories
+        catalogCache.onCourseContentChanged(new CourseContentChangedEvent(UUID.randomUUID(), Scope.CATALOG));
+        loadAll();
+        assertLoads(3, 2, 3);
+
+        catalogCache.onCourseContentChanged(new CourseContentChangedEvent(courseId, Scope.DELETED));
+        loadAll();
+        assertLoads(4, 3, 4);
+    }
+
+    @Test
+    @DisplayName("Deleting a course forgets its versions instead of keeping them for good")
+    void deletionReleasesVersions() {
+        int courses = 50;
+        for (int i = 0; i < courses; i++) {
+            UUID id = UUID.randomUUID();
+            catalogCache.onCourseContentChanged(new CourseContentChangedEvent(id, Scope.CATALOG));
+            catalogCache.onCourseContentChanged(new CourseContentChangedEvent(id, Scope.LESSONS));
+        }
+        // Each course holds a course and a lessons region; the categories region is shared
+        assertEquals(2 * courses + 1, versionedRegions());
+
+        catalogCache.onCourseContentChanged(new CourseContentChangedEvent(courseId, Scope.LESSONS));
+        catalogCache.onCourseContentChanged(new CourseContentChangedEvent(courseId, Scope.DELETED));
+        assertEquals(2 * courses + 1, versionedRegions());
+
+        // A deleted course that is read again is loaded fresh, not served from a version-0 entry
+        assertNull(catalogCache.getCourse(courseId, () -> null));
+    }
+
+    private CatalogCache.CachedResponse course() {
+        return catalogCache.getCourse(courseId, () -> Map.of("title", "v" + courseLoads.incrementAndGet()));
+    }
+
+    private void loadAll() {
+        course();
+        catalogCache.getLessons(courseId, counting(lessonLoads));
+        catalogCache.getCategories(counting(categoryLoads));
+    }
+
+    private static Supplier<?> counting(AtomicInteger loads) {
+        return () -> List.of(loads.incrementAndGet());
+    }
+
+    private void assertLoads(int course, int lessons, int categories) {
+        assertEquals(List.of(course, lessons, categories),
+                List.of(courseLoads.get(), lessonLoads.get(), categoryLoads.get()));
+    }
+
+    private double versionedRegions() {
+        return meterRegistry.get("course.catalog.versioned.regions").gauge().value();
+    }
+}
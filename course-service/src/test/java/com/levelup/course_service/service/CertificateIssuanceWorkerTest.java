@@ -0,0 +1,219 @@
+package com.levelup.course_service.service;
+
+import com.levelup.course_service.client.CertifierClient;
+import com.levelup.course_service.client.UserServiceClient;
+import com.levelup.course_service.dto.CertificateRequestStatusDTO;
+import com.levelup.course_service.dto.UserDTO;
+import com.levelup.course_service.entity.Course;
+import com.levelup.course_service.entity.CourseEnrollment;
+import com.levelup.course_service.repository.CourseEnrollmentRepository;
+import com.levelup.course_service.repository.CourseRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs certificate requests through the worker against a local certifier stub.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false",
+        // PostgreSQL mode for the ON CONFLICT insert of certificate requests
+        "spring.datasource.url=jdbc:h2:mem:certificates;MODE=PostgreSQL",
+        "course.certificates.poll-interval-ms=3600000",
+        "course.certificates.max-attempts=2",
+        "course.certificates.retry-base-delay=0s",
+        "certifier.rate-limit.requests-per-second=50"
+})
+@DisplayName("Certificate issuance worker tests")
+class CertificateIssuanceWorkerTest {
+
+    private static final HttpServer CERTIFIER = startCertifierStub();
+    private static final AtomicInteger FAILURES_TO_RETURN = new AtomicInteger();
+    private static final AtomicInteger ISSUED = new AtomicInteger();
+
+    @DynamicPropertySource
+    static void certifierProperties(DynamicPropertyRegistry registry) {
+        String base = "http://localhost:" + CERTIFIER.getAddress().getPort();
+        registry.add("certifier.issueUrl", () -> base + "/issue");
+        registry.add("certifier.validateUrl", () -> base + "/certificates/");
+    }
+
+    @MockitoBean
+    private UserServiceClient userServiceClient;
+
+    @MockitoSpyBean
+    private CertifierClient certifierClient;
+
+    @Autowired
+    private CertificateService certificateService;
+
+    @Autowired
+    private CertificateIssuanceWorker certificateIssuanceWorker;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseEnrollmentRepository enrollmentRepository;
+
+    @AfterAll
+    static void stopCertifierStub() {
+        CERTIFIER.stop(0);
+    }
+
+    @Test
+    @DisplayName("Request moves from REQUESTED to ISSUED and exposes the certificate URL")
+    void issuesCertificate() throws Exception {
+        CourseEnrollment enrollment = completedEnrollment();
+        FAILURES_TO_RETURN.set(0);
+
+        CertificateRequestStatusDTO requested =
+                certificateService.requestCertificate(enrollment.getId(), enrollment.getUserId());
+        assertEquals("REQUESTED", requested.getStatus());
+        assertNull(requested.getCertificateUrl());
+
+        // Requesting again does not queue a second issuance
+        certificateService.requestCertificate(enrollment.getId(), enrollment.getUserId());
+
+        assertEquals(1, certificateIssuanceWorker.dispatchDueRequests());
+        CertificateRequestStatusDTO issued = awaitStatus(enrollment, s -> "ISSUED".equals(s.getStatus()));
+
+        assertEquals(1, issued.getAttempts());
+        assertNotNull(issued.getCertificateUrl());
+        assertTrue(issued.getCertificateUrl().contains("/certificates/pub-"));
+        assertEquals(0, certificateIssuanceWorker.dispatchDueRequests());
+    }
+
+    @Test
+    @DisplayName("Retryable certifier errors are retried until attempts run out, then the request fails")
+    void retriesThenFails() throws Exception {
+        CourseEnrollment enrollment = completedEnrollment();
+        FAILURES_TO_RETURN.set(Integer.MAX_VALUE);
+        try {
+            certificateService.requestCertificate(enrollment.getId(), enrollment.getUserId());
+
+            assertEquals(1, certificateIssuanceWorker.dispatchDueRequests());
+            CertificateRequestStatusDTO retrying = awaitStatus(enrollment,
+                    s -> "REQUESTED".equals(s.getStatus()) && s.getAttempts() == 1);
+            assertNotNull(retrying.getLastError());
+
+            assertEquals(1, certificateIssuanceWorker.dispatchDueRequests());
+            CertificateRequestStatusDTO failed = awaitStatus(enrollment, s -> "FAILED".equals(s.getStatus()));
+            assertEquals(2, failed.getAttempts());
+            assertNull(failed.getCertificateUrl());
+        } finally {
+            FAILURES_TO_RETURN.set(0);
+        }
+    }
+
+    @Test
+    @DisplayName("A failure after the certifier answered is retried without issuing a second certificate")
+    void retriesWithoutReissuing() throws Exception {
+        CourseEnrollment enrollment = completedEnrollment();
+        FAILURES_TO_RETURN.set(0);
+        // Saving the certificate fails once, after the certifier has issued it
+        doThrow(new IllegalStateException("Database unavailable")).doCallRealMethod()
+                .when(certifierClient).validationUrl(any());
+        int issuedBefore = ISSUED.get();
+
+        certificateService.requestCertificate(enrollment.getId(), enrollment.getUserId());
+
+        assertEquals(1, certificateIssuanceWorker.dispatchDueRequests());
+        awaitStatus(enrollment, s -> "REQUESTED".equals(s.getStatus()) && s.getAttempts() == 1);
+
+        assertEquals(1, certificateIssuanceWorker.dispatchDueRequests());
+        CertificateRequestStatusDTO issued = awaitStatus(enrollment, s -> "ISSUED".equals(s.getStatus()));
+        assertEquals(2, issued.getAttempts());
+        assertEquals(issuedBefore + 1, ISSUED.get());
+        assertTrue(issued.getCertificateUrl().endsWith("/certificates/pub-" + ISSUED.get()));
+    }
+
+    private CourseEnrollment completedEnrollment() {
+        Course course = courseRepository.save(Course.builder()
+                .title("Certified course")
+                .status(Course.Status.PUBLISHED)
+                .duration(12)
+                .createdAt(Instant.now())
+                .build());
+        UUID userId = UUID.randomUUID();
+        when(userServiceClient.getUserData(any())).thenReturn(UserDTO.builder()
+                .id(userId)
+                .firstName("Ada")
+                .lastName("Lovelace")
+                .email("ada@example.com")
+                .build());
+        return enrollmentRepository.save(CourseEnrollment.builder()
+                .userId(userId)
+                .courseId(course.getId())
+                .enrollmentDate(Instant.now())
+                .status(CourseEnrollment.Status.COMPLETED)
+                .progressPercentage(100.0)
+                .createdAt(Instant.now())
+                .build());
+    }
+
+    private CertificateRequestStatusDTO awaitStatus(CourseEnrollment enrollment,
+            Predicate<CertificateRequestStatusDTO> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        CertificateRequestStatusDTO status = null;
+        while (System.currentTimeMillis() < deadline) {
+            status = certificateService.getCertificateStatus(enrollment.getId(), enrollment.getUserId())
+                    .orElseThrow();
+            if (condition.test(status)) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        fail("Certificate request did not reach the expected state, last seen: " + status);
+        return status;
+    }
+
+    private static HttpServer startCertifierStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/issue", exchange -> {
+                exchange.getRequestBody().readAllBytes();
+                boolean fail = FAILURES_TO_RETURN.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0;
+                byte[] body = (fail
+                        ? "{\"error\":\"unavailable\"}"
+                        : "{\"publicId\":\"pub-" + ISSUED.incrementAndGet() + "\"}")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(fail ? 503 : 200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start certifier stub", e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.levelup.course_service.service;
+
+import com.levelup.course_service.dto.CategoryCountDTO;
+import com.levelup.course_service.entity.Course;
+import com.levelup.course_service.event.CourseFacetChangedEvent;
+import com.levelup.course_service.event.CourseFacetChangedEvent.CourseFacet;
+import com.levelup.course_service.repository.CourseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Delivers facet changes while a reload's grouped query is running. The repository answers as the reload's
+ * snapshot would, so each test fixes whether the change committed before or after that snapshot.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CourseCategoryRegistry reload tests")
+class CourseCategoryRegistryTest {
+
+    private static final UUID COURSE_ID = UUID.randomUUID();
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CourseCategoryRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new CourseCategoryRegistry(courseRepository, new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    @DisplayName("A change committed after the reload's snapshot is kept")
+    void keepsChangeMissedByQuery() {
+        load(Map.of("Art", 2L));
+
+        // The grouped query still counts the course under Art; its move to Music commits right after
+        when(courseRepository.countByFacet()).thenAnswer(invocation -> {
+            registry.onCourseFacetChanged(new CourseFacetChangedEvent(COURSE_ID, facet("Art"), facet("Music")));
+            return List.of(count("Art", 2));
+        });
+        List<CourseRepository.CourseFacetRow> snapshotRows = List.of(row("Art"));
+        when(courseRepository.findFacetsByIdIn(Set.of(COURSE_ID))).thenReturn(snapshotRows);
+        registry.reload();
+
+        assertEquals(Map.of("Art", 1L, "Music", 1L), published());
+    }
+
+    @Test
+    @DisplayName("A change committed before the snapshot but delivered during the reload is counted once")
+    void countsLateDeliveredChangeOnce() {
+        load(Map.of("Art", 2L));
+
+        when(courseRepository.countByFacet()).thenAnswer(invocation -> {
+            registry.onCourseFacetChanged(new CourseFacetChangedEvent(COURSE_ID, facet("Art"), facet("Music")));
+            return List.of(count("Art", 1), count("Music", 1));
+        });
+        List<CourseRepository.CourseFacetRow> snapshotRows = List.of(row("Music"));
+        when(courseRepository.findFacetsByIdIn(Set.of(COURSE_ID))).thenReturn(snapshotRows);
+        registry.reload();
+
+        assertEquals(Map.of("Art", 1L, "Music", 1L), published());
+    }
+
+    @Test
+    @DisplayName("Courses created and deleted after the snapshot are added and removed")
+    void reconcilesCreateAndDelete() {
+        UUID created = UUID.randomUUID();
+        load(Map.of("Art", 2L));
+
+        when(courseRepository.countByFacet()).thenAnswer(invocation -> {
+            registry.onCourseFacetChanged(new CourseFacetChangedEvent(created, null, facet("Music")));
+            registry.onCourseFacetChanged(new CourseFacetChangedEvent(COURSE_ID, facet("Art"), null));
+            return List.of(count("Art", 2));
+        });
+        List<CourseRepository.CourseFacetRow> snapshotRows = List.of(row("Art"));
+        when(courseRepository.findFacetsByIdIn(Set.of(created, COURSE_ID))).thenReturn(snapshotRows);
+        registry.reload();
+
+        assertEquals(Map.of("Art", 1L, "Music", 1L), published());
+    }
+
+    @Test
+    @DisplayName("The grouped query runs in a repeatable-read snapshot and changes after the swap apply directly")
+    void readsInOneSnapshot() {
+        load(Map.of("Art", 1L));
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertEquals(TransactionDefinition.ISOLATION_REPEATABLE_READ, definition.getValue().getIsolationLevel());
+        assertTrue(definition.getValue().isReadOnly());
+        verify(courseRepository, never()).findFacetsByIdIn(any());
+
+        registry.onCourseFacetChanged(new CourseFacetChangedEvent(COURSE_ID, facet("Art"), facet("Music")));
+        assertEquals(Map.of("Music", 1L), published());
+    }
+
+    private void load(Map<String, Long> counts) {
+        List<CourseRepository.FacetCount> rows = counts.entrySet().stream()
+                .map(entry -> count(entry.getKey(), entry.getValue()))
+                .toList();
+        when(courseRepository.countByFacet()).thenReturn(rows);
+        registry.reload();
+    }
+
+    private Map<String, Long> published() {
+        Map<String, Long> published = new TreeMap<>();
+        for (CategoryCountDTO dto : registry.getPublishedCountsByCategory()) {
+            published.put(dto.getCategory(), dto.getPublishedCourses());
+        }
+        return published;
+    }
+
+    private static CourseFacet facet(String category) {
+        return new CourseFacet(category, Course.CourseLevel.BEGINNER, "en", Course.Status.PUBLISHED);
+    }
+
+    private static CourseRepository.FacetCount count(String category, long courseCount) {
+        CourseRepository.FacetCount row = mock(CourseRepository.FacetCount.class);
+        when(row.getCategory()).thenReturn(category);
+        when(row.getLevel()).thenReturn(Course.CourseLevel.BEGINNER);
+        when(row.getLanguage()).thenReturn("en");
+        when(row.getStatus()).thenReturn(Course.Status.PUBLISHED);
+        when(row.getCourseCount()).thenReturn(courseCount);
+        return row;
+    }
+
+    private static CourseRepository.CourseFacetRow row(String category) {
+        CourseRepository.CourseFacetRow row = mock(CourseRepository.CourseFacetRow.class);
+        when(row.getCategory()).thenReturn(category);
+        when(row.getLevel()).thenReturn(Course.CourseLevel.BEGINNER);
+        when(row.getLanguage()).thenReturn("en");
+        when(row.getStatus()).thenReturn(Course.Status.PUBLISHED);
+        return row;
+    }
+}
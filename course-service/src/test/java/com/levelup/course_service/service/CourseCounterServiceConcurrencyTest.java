@@ -0,0 +1,117 @@
+package com.levelup.course_service.service;
+
+import com.levelup.course_service.entity.Course;
+import com.levelup.course_service.repository.CourseCounterDeltaRepository;
+import com.levelup.course_service.repository.CourseRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false",
+        "spring.rabbitmq.host=localhost",
+        "spring.rabbitmq.port=5672"
+})
+@DisplayName("CourseCounterService concurrency tests")
+class CourseCounterServiceConcurrencyTest {
+
+    private static final int WRITERS = 16;
+    private static final int WRITES_PER_WRITER = 50;
+    private static final int FOLDERS = 3;
+
+    @Autowired
+    private CourseCounterService courseCounterService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseCounterDeltaRepository courseCounterDeltaRepository;
+
+    @Test
+    @DisplayName("Concurrent enrollments and ratings on one course are all counted while folds run in parallel")
+    void noLostUpdatesUnderLoad() throws Exception {
+        UUID courseId = courseRepository.save(Course.builder()
+                .title("Hot course")
+                .status(Course.Status.PUBLISHED)
+                .ratingAverage(BigDecimal.ZERO)
+                .ratingTotal(0L)
+                .createdAt(Instant.now())
+                .build()).getId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + FOLDERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                writers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                        courseCounterService.recordEnrollments(courseId, 1);
+                        courseCounterService.recordRating(courseId, 1, i % 5 + 1);
+                    }
+                    return null;
+                }));
+            }
+            // Folds compete with the writers and with each other, as they would across replicas
+            List<Future<?>> folders = new ArrayList<>();
+            for (int f = 0; f < FOLDERS; f++) {
+                folders.add(pool.submit(() -> {
+                    start.await();
+                    while (writing.get()) {
+                        courseCounterService.foldPendingDeltas();
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            for (Future<?> folder : folders) {
+                folder.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        courseCounterService.foldPendingDeltas();
+
+        int total = WRITERS * WRITES_PER_WRITER;
+        long ratingTotal = 0;
+        for (int i = 0; i < WRITES_PER_WRITER; i++) {
+            ratingTotal += (long) (i % 5 + 1) * WRITERS;
+        }
+
+        Course course = courseRepository.findById(courseId).orElseThrow();
+        assertEquals(total, course.getEnrollmentCount());
+        assertEquals(total, course.getRatingCount());
+        assertEquals(ratingTotal, course.getRatingTotal());
+        assertEquals(BigDecimal.valueOf(ratingTotal).divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP),
+                course.getRatingAverage().setScale(2, RoundingMode.HALF_UP));
+        assertTrue(courseCounterDeltaRepository.findAll().stream().noneMatch(d -> d.getCourseId().equals(courseId)));
+    }
+}
@@ -0,0 +1,136 @@
+package com.levelup.course_service.service;
+
+import com.levelup.course_service.config.RabbitMQConfig;
+import com.levelup.course_service.dto.CourseEnrollmentMessage;
+import com.levelup.course_service.repository.CourseEnrollmentBatchRepository.NewEnrollment;
+import com.levelup.course_service.service.impl.CourseEnrollmentServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CourseEnrollmentMessageConsumer tests")
+class CourseEnrollmentMessageConsumerTest {
+
+    private static final LocalDateTime EARLIER = LocalDateTime.of(2026, 1, 1, 10, 0);
+    private static final LocalDateTime LATER = EARLIER.plusHours(1);
+
+    @Mock
+    private CourseEnrollmentServiceImpl courseEnrollmentService;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private final Jackson2JsonMessageConverter messageConverter = new RabbitMQConfig().messageConverter();
+    private final List<List<NewEnrollment>> inserts = new ArrayList<>();
+
+    private CourseEnrollmentMessageConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new CourseEnrollmentMessageConsumer(courseEnrollmentService, messageConverter, rabbitTemplate);
+    }
+
+    @Test
+    @DisplayName("Duplicates, a malformed message and a failing row in one batch: good pairs enrolled, bad ones parked")
+    void isolatesBadMessagesInBatch() {
+        UUID userId = UUID.randomUUID();
+        UUID courseId = UUID.randomUUID();
+        UUID rejectedCourseId = UUID.randomUUID();
+        UUID otherCourseId = UUID.randomUUID();
+
+        Message duplicateLater = message(userId, List.of(courseId), LATER);
+        Message duplicateEarlier = message(userId, List.of(courseId), EARLIER);
+        Message malformed = new Message("{\"userId\": ".getBytes(StandardCharsets.UTF_8), jsonProperties());
+        Message failingRow = message(UUID.randomUUID(), List.of(rejectedCourseId), LATER);
+        Message other = message(UUID.randomUUID(), List.of(otherCourseId), LATER);
+
+        // The database rejects any insert containing the bad course
+        when(courseEnrollmentService.createEnrollmentsFromPayment(anyCollection())).thenAnswer(invocation -> {
+            Collection<NewEnrollment> enrollments = invocation.getArgument(0);
+            inserts.add(List.copyOf(enrollments));
+            if (enrollments.stream().anyMatch(e -> e.getCourseId().equals(rejectedCourseId))) {
+                throw new DataIntegrityViolationException("rejected row");
+            }
+            return enrollments.size();
+        });
+
+        assertDoesNotThrow(() -> consumer.handleCourseEnrollmentMessages(
+                List.of(duplicateLater, duplicateEarlier, malformed, failingRow, other)));
+
+        // The batch attempt saw each pair once, with the earliest purchase time for the duplicate
+        List<NewEnrollment> batch = inserts.get(0);
+        assertEquals(3, batch.size());
+        assertEquals(EARLIER.toInstant(ZoneOffset.UTC), batch.stream()
+                .filter(e -> e.getCourseId().equals(courseId)).findFirst().orElseThrow().getEnrollmentTime());
+
+        // Then one insert per message, oldest purchase first
+        assertEquals(5, inserts.size());
+        assertEquals(EARLIER.toInstant(ZoneOffset.UTC), inserts.get(1).get(0).getEnrollmentTime());
+        Set<UUID> retried = inserts.subList(1, inserts.size()).stream()
+                .map(insert -> insert.get(0).getCourseId())
+                .collect(Collectors.toSet());
+        assertEquals(Set.of(courseId, rejectedCourseId, otherCourseId), retried);
+
+        ArgumentCaptor<Message> parked = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate, times(2)).send(eq(""), eq(RabbitMQConfig.COURSE_ENROLLMENT_PARKING_QUEUE),
+                parked.capture());
+        assertSame(malformed, parked.getAllValues().get(0));
+        assertSame(failingRow, parked.getAllValues().get(1));
+        assertNotNull(failingRow.getMessageProperties().getHeader(CourseEnrollmentMessageConsumer.ERROR_HEADER));
+    }
+
+    @Test
+    @DisplayName("A database outage requeues the whole batch instead of parking its messages")
+    void requeuesOnDatabaseOutage() {
+        when(courseEnrollmentService.createEnrollmentsFromPayment(anyCollection()))
+                .thenThrow(new CannotCreateTransactionException("database down"));
+
+        List<Message> messages = List.of(message(UUID.randomUUID(), List.of(UUID.randomUUID()), EARLIER));
+
+        assertThrows(CannotCreateTransactionException.class,
+                () -> consumer.handleCourseEnrollmentMessages(messages));
+        verify(courseEnrollmentService, times(1)).createEnrollmentsFromPayment(anyCollection());
+        verify(rabbitTemplate, never()).send(any(), any(), any(Message.class));
+    }
+
+    private Message message(UUID userId, List<UUID> courseIds, LocalDateTime purchaseTime) {
+        return messageConverter.toMessage(new CourseEnrollmentMessage(userId, courseIds, "ENROLLED", purchaseTime),
+                new MessageProperties());
+    }
+
+    private MessageProperties jsonProperties() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        return properties;
+    }
+}
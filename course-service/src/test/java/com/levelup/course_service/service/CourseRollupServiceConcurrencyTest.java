@@ -0,0 +1,205 @@
+package com.levelup.course_service.service;
+
+import com.levelup.course_service.entity.Course;
+import com.levelup.course_service.entity.CourseEnrollment;
+import com.levelup.course_service.entity.CourseRollup;
+import com.levelup.course_service.entity.Lesson;
+import com.levelup.course_service.repository.CourseRepository;
+import com.levelup.course_service.repository.CourseRollupRepository;
+import com.levelup.course_service.repository.LessonRepository;
+import com.levelup.course_service.service.impl.CourseEnrollmentServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Enrolls, completes, uncompletes and rates from several threads while rollup rebuilds run in parallel, then
+ * checks the incrementally maintained rollups against ones rebuilt from enrollments and ratings. The rollup
+ * upsert and the rebuild lock are Postgres SQL, so this runs against Postgres; skipped when Docker is unavailable.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false"
+})
+@DisplayName("CourseRollupService concurrency tests")
+class CourseRollupServiceConcurrencyTest {
+
+    private static final int COURSES = 3;
+    private static final int WRITERS = 6;
+    private static final int ENROLLMENTS_PER_WRITER = 20;
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Autowired
+    private CourseRollupService courseRollupService;
+
+    @Autowired
+    private CourseRollupRepository courseRollupRepository;
+
+    @Autowired
+    private CourseEnrollmentServiceImpl enrollmentService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Test
+    @DisplayName("Concurrent enrollments, completions and ratings leave the same rollups a rebuild produces")
+    void incrementalRollupsMatchRebuild() throws Exception {
+        List<UUID> courseIds = new ArrayList<>();
+        Map<UUID, List<UUID>> lessons = new HashMap<>();
+        for (int c = 0; c < COURSES; c++) {
+            Course course = courseRepository.save(Course.builder()
+                    .title("Course " + c)
+                    .status(Course.Status.PUBLISHED)
+                    .ratingAverage(BigDecimal.ZERO)
+                    .ratingTotal(0L)
+                    .createdAt(Instant.now())
+                    .build());
+            courseIds.add(course.getId());
+            List<UUID> lessonIds = new ArrayList<>();
+            for (int l = 0; l < 2; l++) {
+                lessonIds.add(lessonRepository.save(Lesson.builder()
+                        .course(course)
+                        .title("Lesson " + l)
+                        .contentType(Lesson.ContentType.TEXT)
+                        .order(l)
+                        .status(Lesson.Status.PUBLISHED)
+                        .build()).getId());
+            }
+            lessons.put(course.getId(), lessonIds);
+        }
+
+        // Rebuilds run alongside the first round only, so the second round is counted by increments alone
+        writeConcurrently(courseIds, lessons, true);
+        writeConcurrently(courseIds, lessons, false);
+
+        Map<UUID, CourseRollup> incremental = rollups(courseIds);
+        courseRollupService.rebuildRollups();
+        Map<UUID, CourseRollup> rebuilt = rollups(courseIds);
+
+        long enrollments = 0;
+        for (UUID courseId : courseIds) {
+            CourseRollup expected = rebuilt.get(courseId);
+            CourseRollup actual = incremental.get(courseId);
+            assertNotNull(actual, "rollup of course " + courseId);
+            assertEquals(expected.getEnrollmentCount(), actual.getEnrollmentCount(), "enrollments of " + courseId);
+            assertEquals(expected.getCompletionCount(), actual.getCompletionCount(), "completions of " + courseId);
+            assertEquals(expected.getRatingCount(), actual.getRatingCount(), "ratings of " + courseId);
+            assertEquals(expected.getRatingTotal(), actual.getRatingTotal(), "rating total of " + courseId);
+            assertEquals(expected.getOneStarCount(), actual.getOneStarCount(), "one star of " + courseId);
+            assertEquals(expected.getTwoStarCount(), actual.getTwoStarCount(), "two star of " + courseId);
+            assertEquals(expected.getThreeStarCount(), actual.getThreeStarCount(), "three star of " + courseId);
+            assertEquals(expected.getFourStarCount(), actual.getFourStarCount(), "four star of " + courseId);
+            assertEquals(expected.getFiveStarCount(), actual.getFiveStarCount(), "five star of " + courseId);
+            // Every enrolled user rated once, some of them twice
+            assertEquals(actual.getEnrollmentCount(), actual.getRatingCount());
+            enrollments += actual.getEnrollmentCount();
+        }
+        assertEquals(2L * WRITERS * ENROLLMENTS_PER_WRITER, enrollments);
+    }
+
+    private void writeConcurrently(List<UUID> courseIds, Map<UUID, List<UUID>> lessons, boolean rebuild)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                writers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ENROLLMENTS_PER_WRITER; i++) {
+                        UUID courseId = courseIds.get((writer + i) % COURSES);
+                        write(courseId, lessons.get(courseId), i);
+                    }
+                    return null;
+                }));
+            }
+            Future<?> rebuilder = pool.submit(() -> {
+                start.await();
+                while (rebuild && writing.get()) {
+                    courseRollupService.rebuildRollups();
+                }
+                return null;
+            });
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(120, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            rebuilder.get(120, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Half the enrollments complete the course and a quarter then uncomplete it again; every user rates and
+     * a third rate again with a different score.
+     */
+    private void write(UUID courseId, List<UUID> lessonIds, int i) {
+        UUID userId = UUID.randomUUID();
+        CourseEnrollment enrollment = enrollmentService.createEnrollmentFromPayment(userId, courseId, Instant.now());
+        if (i % 2 == 0) {
+            for (UUID lessonId : lessonIds) {
+                enrollmentService.completeLesson(enrollment.getId(), lessonId);
+            }
+            if (i % 4 == 0) {
+                enrollmentService.updateProgress(enrollment.getId(), List.of(lessonIds.get(0).toString()));
+            }
+        }
+        courseService.rateCourse(courseId, userId, i % 5 + 1);
+        if (i % 3 == 0) {
+            courseService.rateCourse(courseId, userId, (i + 2) % 5 + 1);
+        }
+    }
+
+    private Map<UUID, CourseRollup> rollups(List<UUID> courseIds) {
+        Map<UUID, CourseRollup> rollups = new HashMap<>();
+        courseRollupRepository.findAllById(courseIds).forEach(r -> rollups.put(r.getCourseId(), r));
+        return rollups;
+    }
+}
@@ -0,0 +1,76 @@
+package com.levelup.course_service.service.impl;
+
+import com.levelup.course_service.dto.CourseCatalogFilter;
+import com.levelup.course_service.dto.CourseCatalogPageDTO;
+import com.levelup.course_service.dto.CourseSummaryDTO;
+import com.levelup.course_service.entity.Course;
+import com.levelup.course_service.repository.CourseRepository;
+import com.levelup.course_service.service.CourseService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:catalog;MODE=PostgreSQL"
+})
+@DisplayName("Course catalog paging tests")
+class CourseCatalogPagingTest {
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Test
+    @DisplayName("Unrated courses sort after rated ones and are reached by paging")
+    void unratedCoursesSortLast() {
+        String category = "catalog-" + UUID.randomUUID();
+        UUID unrated = save(category, BigDecimal.ZERO);
+        UUID low = save(category, new BigDecimal("2.50"));
+        UUID high = save(category, new BigDecimal("4.75"));
+        UUID alsoUnrated = save(category, BigDecimal.ZERO);
+
+        CourseCatalogFilter filter = CourseCatalogFilter.builder()
+                .category(category)
+                .sort(CourseCatalogFilter.Sort.RATING)
+                .build();
+
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CourseCatalogPageDTO page = courseService.getCatalog(filter, cursor, 1);
+            page.getCourses().stream().map(CourseSummaryDTO::getId).forEach(seen::add);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(4, seen.size());
+        assertEquals(List.of(high, low), seen.subList(0, 2));
+        assertTrue(seen.subList(2, 4).containsAll(List.of(unrated, alsoUnrated)));
+    }
+
+    private UUID save(String category, BigDecimal ratingAverage) {
+        return courseRepository.save(Course.builder()
+                .title("Catalog course")
+                .category(category)
+                .status(Course.Status.PUBLISHED)
+                .ratingAverage(ratingAverage)
+                .createdAt(Instant.now())
+                .build()).getId();
+    }
+}
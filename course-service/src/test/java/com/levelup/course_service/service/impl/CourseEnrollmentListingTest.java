@@ -0,0 +1,127 @@
+package com.levelup.course_service.service.impl;
+
+import com.levelup.course_service.dto.EnrollmentPageDTO;
+import com.levelup.course_service.dto.EnrollmentSummaryDTO;
+import com.levelup.course_service.entity.CourseEnrollment;
+import com.levelup.course_service.repository.CourseEnrollmentRepository;
+import com.levelup.course_service.service.CourseEnrollmentService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:enrollments;MODE=PostgreSQL"
+})
+@DisplayName("Course enrollment listing tests")
+class CourseEnrollmentListingTest {
+
+    @Autowired
+    private CourseEnrollmentService enrollmentService;
+
+    @Autowired
+    private CourseEnrollmentRepository enrollmentRepository;
+
+    @Test
+    @DisplayName("Paging a course visits every enrollment once when many share an enrollment date")
+    void pagesAcrossEqualEnrollmentDates() {
+        UUID courseId = UUID.randomUUID();
+        Instant newest = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Set<UUID> all = new HashSet<>();
+        Set<UUID> completed = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            double progress = i % 3 == 0 ? 100.0 : 40.0;
+            UUID id = save(courseId, newest.minus(i / 4, ChronoUnit.DAYS), progress);
+            all.add(id);
+            if (progress >= 100.0) {
+                completed.add(id);
+            }
+        }
+        // Another course's enrollments on the same dates must not leak into the listing
+        save(UUID.randomUUID(), newest, 10.0);
+
+        List<EnrollmentSummaryDTO> visited = visit(courseId, null, 3);
+        assertEquals(all.size(), visited.size());
+        assertEquals(all, ids(visited));
+        for (int i = 1; i < visited.size(); i++) {
+            assertFalse(visited.get(i).getEnrollmentDate().isAfter(visited.get(i - 1).getEnrollmentDate()),
+                    "enrollment " + i + " is newer than the one before it");
+        }
+
+        List<EnrollmentSummaryDTO> completedOnly = visit(courseId, CourseEnrollment.Status.COMPLETED, 1);
+        assertEquals(completed, ids(completedOnly));
+    }
+
+    @Test
+    @DisplayName("Course stats bucket progress at each boundary and round the completion rate")
+    @SuppressWarnings("unchecked")
+    void courseStats() {
+        UUID courseId = UUID.randomUUID();
+        for (double progress : new double[]{0, 24.9, 25, 49.9, 50, 74.9, 75, 99.9, 100}) {
+            save(courseId, Instant.now(), progress);
+        }
+
+        Map<String, Object> stats = enrollmentService.getCourseEnrollmentStats(courseId);
+        assertEquals(9L, stats.get("totalEnrollments"));
+        assertEquals(1L, stats.get("completedEnrollments"));
+        assertEquals(0.111, stats.get("completionRate"));
+        assertEquals(55.5, stats.get("averageProgress"));
+        assertEquals(Map.of("0-24", 2L, "25-49", 2L, "50-74", 2L, "75-99", 2L, "100", 1L),
+                stats.get("progressBuckets"));
+        assertEquals(List.of("0-24", "25-49", "50-74", "75-99", "100"),
+                new ArrayList<>(((Map<String, Long>) stats.get("progressBuckets")).keySet()));
+
+        Map<String, Object> empty = enrollmentService.getCourseEnrollmentStats(UUID.randomUUID());
+        assertEquals(0L, empty.get("totalEnrollments"));
+        assertEquals(0.0, empty.get("completionRate"));
+        assertEquals(0.0, empty.get("averageProgress"));
+        assertEquals(Map.of("0-24", 0L, "25-49", 0L, "50-74", 0L, "75-99", 0L, "100", 0L),
+                empty.get("progressBuckets"));
+    }
+
+    private List<EnrollmentSummaryDTO> visit(UUID courseId, CourseEnrollment.Status status, int size) {
+        List<EnrollmentSummaryDTO> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            EnrollmentPageDTO page = enrollmentService.getEnrollmentPageByCourse(courseId, status, cursor, size);
+            visited.addAll(page.getEnrollments());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return visited;
+    }
+
+    private static Set<UUID> ids(List<EnrollmentSummaryDTO> enrollments) {
+        Set<UUID> ids = new HashSet<>();
+        for (EnrollmentSummaryDTO enrollment : enrollments) {
+            assertTrue(ids.add(enrollment.getId()), "enrollment " + enrollment.getId() + " listed twice");
+        }
+        return ids;
+    }
+
+    private UUID save(UUID courseId, Instant enrollmentDate, double progress) {
+        return enrollmentRepository.save(CourseEnrollment.builder()
+                .userId(UUID.randomUUID())
+                .courseId(courseId)
+                .enrollmentDate(enrollmentDate)
+                .createdAt(Instant.now())
+                .progressPercentage(progress)
+                .build()).getId();
+    }
+}
@@ -1,13 +1,45 @@
 package com.levelup.course_service.service.impl;
 
+import com.levelup.course_service.entity.CourseEnrollment;
+import com.levelup.course_service.repository.CourseEnrollmentRepository;
+import com.levelup.course_service.service.CourseRollupService;
+import com.levelup.course_service.service.LessonCountCache;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+@ExtendWith(MockitoExtension.class)
 @DisplayName("CourseEnrollmentService Tests")
 class CourseEnrollmentServiceImplTest {
 
+    private static final int LESSON_COUNT = 4;
+
+    @Mock
+    private CourseEnrollmentRepository enrollmentRepository;
+
+    @Mock
+    private CourseRollupService courseRollupService;
+
+    @Mock
+    private LessonCountCache lessonCountCache;
+
+    @InjectMocks
+    private CourseEnrollmentServiceImpl courseEnrollmentService;
+
     @Test
     @DisplayName("Should pass - Enroll user test")
     void shouldPassEnrollUserTest() {
@@ -41,4 +73,50 @@ class CourseEnrollmentServiceImplTest {
         assertTrue(isCompleted);
         assertEquals(100.0, 100.0);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Completing a lesson twice leaves progress and the completion rollup alone")
+    void completeLessonIsIdempotent() {
+        CourseEnrollment enrollment = enrollment(CourseEnrollment.Status.IN_PROGRESS);
+        UUID lessonId = UUID.randomUUID();
+        when(enrollmentRepository.findByIdForUpdate(enrollment.getId())).thenReturn(Optional.of(enrollment));
+        when(enrollmentRepository.insertCompletedLesson(enrollment.getId(), lessonId)).thenReturn(0);
+
+        assertEquals("Lesson already completed.", courseEnrollmentService.completeLesson(enrollment.getId(), lessonId));
+
+        verify(enrollmentRepository, never()).recomputeProgress(any(), any(Integer.class));
+        verify(courseRollupService, never()).recordCompletionChange(any(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Reaching 100% counts a completion and dropping below it takes the completion back")
+    void completionReachedThenUnreached() {
+        CourseEnrollment enrollment = enrollment(CourseEnrollment.Status.IN_PROGRESS);
+        UUID lessonId = UUID.randomUUID();
+        when(enrollmentRepository.findByIdForUpdate(enrollment.getId())).thenReturn(Optional.of(enrollment));
+        when(lessonCountCache.get(enrollment.getCourseId())).thenReturn(LESSON_COUNT);
+        when(enrollmentRepository.insertCompletedLesson(enrollment.getId(), lessonId)).thenReturn(1);
+        when(enrollmentRepository.findStatusById(enrollment.getId())).thenReturn(CourseEnrollment.Status.COMPLETED);
+
+        assertEquals("Lesson marked as completed.", courseEnrollmentService.completeLesson(enrollment.getId(), lessonId));
+        verify(enrollmentRepository).recomputeProgress(enrollment.getId(), LESSON_COUNT);
+        verify(courseRollupService).recordCompletionChange(enrollment.getCourseId(), false, true);
+
+        // The next transaction locks the row again and reads the status the first one committed
+        enrollment.setStatus(CourseEnrollment.Status.COMPLETED);
+        when(enrollmentRepository.findStatusById(enrollment.getId())).thenReturn(CourseEnrollment.Status.IN_PROGRESS);
+
+        courseEnrollmentService.updateProgress(enrollment.getId(), List.of(lessonId.toString()));
+        verify(courseRollupService).recordCompletionChange(enrollment.getCourseId(), true, false);
+        verify(enrollmentRepository, never()).findById(any());
+    }
+
+    private CourseEnrollment enrollment(CourseEnrollment.Status status) {
+        return CourseEnrollment.builder()
+                .id(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .courseId(UUID.randomUUID())
+                .status(status)
+                .build();
+    }
+}
@@ -1,13 +1,59 @@
 package com.levelup.course_service.service.impl;
 
+import com.levelup.course_service.repository.CourseRatingRepository;
+import com.levelup.course_service.repository.CourseRepository;
+import com.levelup.course_service.repository.CourseRollupRepository;
+import com.levelup.course_service.service.CourseCounterService;
+import com.levelup.course_service.service.CourseRollupService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
+@ExtendWith(MockitoExtension.class)
 @DisplayName("CourseService Tests")
 class CourseServiceImplTest {
 
+    private static final UUID COURSE_ID = UUID.randomUUID();
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private CourseRollupRepository courseRollupRepository;
+
+    @Mock
+    private CourseCounterService courseCounterService;
+
+    @Mock
+    private CourseRatingRepository courseRatingRepository;
+
+    private CourseServiceImpl courseService;
+
+    @BeforeEach
+    void setUp() {
+        // The real rollup service, so the histogram and total deltas it writes can be checked
+        CourseRollupService courseRollupService = new CourseRollupService(courseRollupRepository, courseRepository);
+        courseService = new CourseServiceImpl(courseRepository, null, null, null, courseRollupRepository,
+                courseRollupService, courseCounterService, courseRatingRepository);
+    }
+
     @Test
     @DisplayName("Should pass - Create course test")
     void shouldPassCreateCourseTest() {
@@ -49,4 +95,66 @@ class CourseServiceImplTest {
         assertEquals(3, categories.length);
         assertNotNull(categories);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("A first rating is inserted and counted once")
+    void firstRating() {
+        when(courseRepository.existsById(COURSE_ID)).thenReturn(true);
+        when(courseRatingRepository.replaceRating(COURSE_ID, USER_ID, 4)).thenReturn(Optional.empty());
+        when(courseRatingRepository.insertIfAbsent(any(), eq(COURSE_ID), eq(USER_ID), eq(4))).thenReturn(1);
+
+        courseService.rateCourse(COURSE_ID, USER_ID, 4);
+
+        verify(courseCounterService).recordRating(COURSE_ID, 1, 4);
+        verify(courseRollupRepository).applyRatingDelta(COURSE_ID, 1, 4, 0, 0, 0, 1, 0);
+    }
+
+    @Test
+    @DisplayName("Rating again moves the histogram and total by the difference without counting the user twice")
+    void reRating() {
+        when(courseRepository.existsById(COURSE_ID)).thenReturn(true);
+        when(courseRatingRepository.replaceRating(COURSE_ID, USER_ID, 5)).thenReturn(Optional.of(2));
+
+        courseService.rateCourse(COURSE_ID, USER_ID, 5);
+
+        verify(courseRatingRepository, never()).insertIfAbsent(any(), any(), any(), anyInt());
+        verify(courseCounterService).recordRating(COURSE_ID, 0, 3);
+        verify(courseRollupRepository).applyRatingDelta(COURSE_ID, 0, 3, 0, -1, 0, 0, 1);
+    }
+
+    @Test
+    @DisplayName("Rating again with the same stars changes nothing")
+    void unchangedRating() {
+        when(courseRepository.existsById(COURSE_ID)).thenReturn(true);
+        when(courseRatingRepository.replaceRating(COURSE_ID, USER_ID, 3)).thenReturn(Optional.of(3));
+
+        courseService.rateCourse(COURSE_ID, USER_ID, 3);
+
+        verifyNoInteractions(courseCounterService, courseRollupRepository);
+    }
+
+    @Test
+    @DisplayName("A first rating that loses the insert to a concurrent one replaces it instead of adding a rating")
+    void concurrentFirstRatings() {
+        when(courseRepository.existsById(COURSE_ID)).thenReturn(true);
+        // Nothing to replace yet, then the other request's row is there
+        when(courseRatingRepository.replaceRating(COURSE_ID, USER_ID, 5))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(3));
+        when(courseRatingRepository.insertIfAbsent(any(), eq(COURSE_ID), eq(USER_ID), eq(5))).thenReturn(0);
+
+        courseService.rateCourse(COURSE_ID, USER_ID, 5);
+
+        verify(courseCounterService).recordRating(COURSE_ID, 0, 2);
+        verify(courseRollupRepository).applyRatingDelta(COURSE_ID, 0, 2, 0, 0, -1, 0, 1);
+        verify(courseRollupRepository, never()).applyRatingDelta(any(), eq(1L), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Ratings outside 1 to 5 are rejected before anything is written")
+    void ratingOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> courseService.rateCourse(COURSE_ID, USER_ID, 6));
+        verifyNoInteractions(courseRatingRepository, courseCounterService, courseRollupRepository);
+    }
+}
@@ -0,0 +1,168 @@
+package com.levelup.course_service.service.impl;
+
+import com.levelup.course_service.dto.InstructorValidationResponseDTO;
+import com.levelup.course_service.dto.LessonDTO;
+import com.levelup.course_service.entity.Course;
+import com.levelup.course_service.entity.Lesson;
+import com.levelup.course_service.repository.CourseRepository;
+import com.levelup.course_service.repository.LessonRepository;
+import com.levelup.course_service.service.InstructorAuthorizationCache;
+import com.levelup.course_service.service.LessonService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "eureka.client.enabled=false",
+        "spring.cloud.discovery.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:lessons;MODE=PostgreSQL"
+})
+@DisplayName("LessonServiceImpl tests")
+class LessonServiceImplTest {
+
+    private static final UUID INSTRUCTOR_ID = UUID.randomUUID();
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @MockitoBean
+    private InstructorAuthorizationCache instructorAuthorizationCache;
+
+    @Autowired
+    private LessonService lessonService;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    private Course course;
+    private List<UUID> lessonIds;
+
+    @BeforeEach
+    void setUp() {
+        when(instructorAuthorizationCache.validate(any())).thenReturn(InstructorValidationResponseDTO.builder()
+                .instructorId(INSTRUCTOR_ID)
+                .isValidInstructor(true)
+                .build());
+
+        course = courseRepository.save(Course.builder()
+                .title("Lessons course")
+                .instructorId(INSTRUCTOR_ID)
+                .status(Course.Status.PUBLISHED)
+                .ratingAverage(BigDecimal.ZERO)
+                .ratingTotal(0L)
+                .createdAt(Instant.now())
+                .build());
+        lessonIds = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            lessonIds.add(lessonRepository.save(lesson(course, "Lesson " + i, i)).getId());
+        }
+    }
+
+    @Test
+    @DisplayName("A full reorder sets every lesson's position and is returned in the new order")
+    void reordersEveryLesson() {
+        List<UUID> newOrder = List.of(lessonIds.get(2), lessonIds.get(0), lessonIds.get(3), lessonIds.get(1));
+
+        List<LessonDTO> result = lessonService.reorderLessons(course.getId(), newOrder, USER_ID);
+
+        assertEquals(newOrder, result.stream().map(LessonDTO::getId).toList());
+        assertEquals(List.of(1, 2, 3, 4), result.stream().map(LessonDTO::getOrder).toList());
+        assertEquals(Map.of(lessonIds.get(2), 1, lessonIds.get(0), 2, lessonIds.get(3), 3, lessonIds.get(1), 4),
+                storedOrders());
+    }
+
+    @Test
+    @DisplayName("A partial, duplicated or foreign lesson list is rejected and leaves every position unchanged")
+    void rejectsIncompleteOrders() {
+        Map<UUID, Integer> before = storedOrders();
+        UUID otherLesson = lessonRepository.save(lesson(courseRepository.save(Course.builder()
+                .title("Other course")
+                .instructorId(INSTRUCTOR_ID)
+                .status(Course.Status.PUBLISHED)
+                .ratingAverage(BigDecimal.ZERO)
+                .ratingTotal(0L)
+                .createdAt(Instant.now())
+                .build()), "Other lesson", 1)).getId();
+
+        List<List<UUID>> invalid = List.of(
+                List.of(lessonIds.get(3), lessonIds.get(2), lessonIds.get(1)),
+                List.of(lessonIds.get(3), lessonIds.get(2), lessonIds.get(1), lessonIds.get(1)),
+                // Right size, so it gets as far as the UPDATE, which must be rolled back
+                List.of(lessonIds.get(3), lessonIds.get(2), lessonIds.get(1), otherLesson));
+        for (List<UUID> order : invalid) {
+            assertThrows(RuntimeException.class, () -> lessonService.reorderLessons(course.getId(), order, USER_ID));
+            assertEquals(before, storedOrders());
+        }
+        assertEquals(1, lessonRepository.findById(otherLesson).orElseThrow().getOrder());
+    }
+
+    @Test
+    @DisplayName("A bulk save creating and updating lessons returns the course's lessons by position")
+    void savesCreatedAndUpdatedLessons() {
+        List<LessonDTO> dtos = List.of(
+                LessonDTO.builder().title("Inserted").contentType("video").order(2).build(),
+                LessonDTO.builder().id(lessonIds.get(0)).order(5).build(),
+                LessonDTO.builder().id(lessonIds.get(3)).title("Renamed").build());
+
+        List<LessonDTO> result = lessonService.saveLessons(course.getId(), dtos, USER_ID);
+
+        assertEquals(List.of("Lesson 2", "Inserted", "Lesson 3", "Renamed", "Lesson 1"),
+                result.stream().map(LessonDTO::getTitle).toList());
+        for (int i = 1; i < result.size(); i++) {
+            assertTrue(result.get(i - 1).getOrder() <= result.get(i).getOrder(), "lesson " + i + " is out of order");
+        }
+        LessonDTO created = result.get(1);
+        assertNotNull(created.getId());
+        assertEquals("VIDEO", created.getContentType());
+        assertEquals(4, result.get(3).getOrder());
+        assertEquals(5, lessonRepository.countByCourseId(course.getId()));
+    }
+
+    @Test
+    @DisplayName("A bulk save naming another course's lesson is rejected before anything is written")
+    void rejectsForeignLessonInSave() {
+        UUID foreign = UUID.randomUUID();
+        List<LessonDTO> dtos = List.of(
+                LessonDTO.builder().title("New").contentType("TEXT").order(9).build(),
+                LessonDTO.builder().id(foreign).title("Foreign").build());
+
+        assertThrows(RuntimeException.class, () -> lessonService.saveLessons(course.getId(), dtos, USER_ID));
+        assertEquals(4, lessonRepository.countByCourseId(course.getId()));
+    }
+
+    private Map<UUID, Integer> storedOrders() {
+        return lessonRepository.findAllById(lessonIds).stream()
+                .collect(Collectors.toMap(Lesson::getId, Lesson::getOrder));
+    }
+
+    private static Lesson lesson(Course course, String title, int order) {
+        return Lesson.builder()
+                .course(course)
+                .title(title)
+                .contentType(Lesson.ContentType.TEXT)
+                .order(order)
+                .status(Lesson.Status.PUBLISHED)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
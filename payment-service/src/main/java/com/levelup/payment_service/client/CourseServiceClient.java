@@ -1,38 +1,71 @@
 package com.levelup.payment_service.client;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.levelup.payment_service.dto.external.CourseDto;
 import com.levelup.payment_service.dto.external.CourseServiceRequest;
 import com.levelup.payment_service.dto.external.CourseServiceResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class CourseServiceClient {
 
-    private final WebClient.Builder webClientBuilder;
-
-    @Value("${course-service.base-url}")
-    private String courseServiceBaseUrl;
+    // Shared instance on the pooled connector from WebClientConfig
+    @Qualifier("courseServiceWebClient")
+    private final WebClient courseServiceWebClient;
+    private final AsyncCache<UUID, CourseDto> courseCache;
 
     public CourseServiceResponse getCourseDetails(CourseServiceRequest request) {
         try {
-            log.info("Fetching course details for course IDs: {}", request.getCourseIds());
-
-            return webClientBuilder.build()
-                    .post()
-                    .uri(courseServiceBaseUrl + "/api/courses/details")
-                    .body(Mono.just(request), CourseServiceRequest.class)
-                    .retrieve()
-                    .bodyToMono(CourseServiceResponse.class)
-                    .block();
+            return getCourseDetailsAsync(request).join();
         } catch (Exception e) {
             log.error("Error fetching course details: ", e);
             throw new RuntimeException("Failed to fetch course details", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Fetches course details without blocking the calling thread. Cached courses are answered locally;
+     * the remaining ids are fetched in one call, and ids already being fetched by another checkout
+     * join that in-flight request. Unknown course ids are left out of the response.
+     */
+    public CompletableFuture<CourseServiceResponse> getCourseDetailsAsync(CourseServiceRequest request) {
+        List<UUID> courseIds = request.getCourseIds();
+
+        return courseCache.getAll(courseIds, (missingIds, executor) -> fetchCourses(missingIds))
+                .thenApply(cached -> new CourseServiceResponse(courseIds.stream()
+                        .distinct()
+                        .map(cached::get)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList())));
+    }
+
+    private CompletableFuture<Map<UUID, CourseDto>> fetchCourses(Set<? extends UUID> courseIds) {
+        log.info("Fetching course details for course IDs: {}", courseIds);
+
+        return courseServiceWebClient
+                .post()
+                .uri("/api/courses/details")
+                // CBOR is smaller and faster to decode; JSON remains acceptable for older course-service versions
+                .accept(MediaType.APPLICATION_CBOR, MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CourseServiceRequest(new ArrayList<>(courseIds)))
+                .retrieve()
+                .bodyToMono(CourseServiceResponse.class)
+                .map(response -> response.getCourses() == null
+                        ? Map.<UUID, CourseDto>of()
+                        : response.getCourses().stream()
+                                .collect(Collectors.toMap(CourseDto::getId, course -> course, (a, b) -> a)))
+                .toFuture();
+    }
+}
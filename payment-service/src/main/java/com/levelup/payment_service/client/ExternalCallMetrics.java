@@ -0,0 +1,50 @@
+package com.levelup.payment_service.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Records a latency histogram per outbound hop (Stripe API calls, user-service, course-service)
+ * as the external.call.latency timer, tagged with the hop name and outcome.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExternalCallMetrics {
+
+    @FunctionalInterface
+    public interface ExternalCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    public <T, E extends Exception> T record(String hop, ExternalCall<T, E> call) throws E {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = call.call();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(timer(hop, outcome));
+        }
+    }
+
+    public <T> CompletableFuture<T> recordAsync(String hop, CompletableFuture<T> future) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return future.whenComplete((result, error) -> sample.stop(timer(hop, error == null ? "success" : "error")));
+    }
+
+    private Timer timer(String hop, String outcome) {
+        return Timer.builder("external.call.latency")
+                .description("Latency of calls to external services")
+                .tag("hop", hop)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
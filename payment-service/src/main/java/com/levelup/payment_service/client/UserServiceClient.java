@@ -1,34 +1,29 @@
 package com.levelup.payment_service.client;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.levelup.payment_service.dto.external.UserDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class UserServiceClient {
 
-    private final WebClient.Builder webClientBuilder;
-
-    @Value("${user-service.base-url}")
-    private String userServiceBaseUrl;
+    // Shared instance on the pooled connector from WebClientConfig
+    @Qualifier("userServiceWebClient")
+    private final WebClient userServiceWebClient;
+    private final AsyncCache<UUID, UserDto> userCache;
 
     public UserDto getUserById(UUID userId) {
         try {
-            log.info("Fetching user details for user ID: {}", userId);
-
-            return webClientBuilder.build()
-                    .get()
-                    .uri(userServiceBaseUrl + "/api/users/{userId}", userId)
-                    .retrieve()
-                    .bodyToMono(UserDto.class)
-                    .block();
+            return getUserByIdAsync(userId).join();
 
         } catch (Exception e) {
             log.error("Error fetching user details for user ID: {}", userId, e);
@@ -36,21 +31,43 @@ public class UserServiceClient {
         }
     }
 
+    /**
+     * Starts the user lookup without blocking, so callers can overlap it with other work.
+     * Served from the local cache when possible; concurrent misses for one user share a single fetch.
+     */
+    public CompletableFuture<UserDto> getUserByIdAsync(UUID userId) {
+        return userCache.get(userId, (id, executor) -> fetchUser(id));
+    }
+
+    private CompletableFuture<UserDto> fetchUser(UUID userId) {
+        log.info("Fetching user details for user ID: {}", userId);
+
+        return userServiceWebClient
+                .get()
+                .uri("/api/users/{userId}", userId)
+                .retrieve()
+                .bodyToMono(UserDto.class)
+                .toFuture();
+    }
+
     public void updateUserStripeCustomerId(UUID userId, String stripeCustomerId) {
         try {
             log.info("Updating Stripe customer ID for user: {}", userId);
 
-            webClientBuilder.build()
+            userServiceWebClient
                     .put()
-                    .uri(userServiceBaseUrl + "/api/users/{userId}/stripe-customer", userId)
+                    .uri("/api/users/{userId}/stripe-customer", userId)
                     .bodyValue(stripeCustomerId)
                     .retrieve()
                     .bodyToMono(Void.class)
                     .block();
 
+            // The cached copy still carries the old (or no) Stripe customer id
+            userCache.synchronous().invalidate(userId);
+
         } catch (Exception e) {
             log.error("Error updating Stripe customer ID for user: {}", userId, e);
             throw new RuntimeException("Failed to update Stripe customer ID", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package com.levelup.payment_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class CheckoutExecutorConfig {
+
+    @Value("${payment.checkout.threads:16}")
+    private int checkoutThreads;
+
+    @Value("${payment.checkout.queue-capacity:200}")
+    private int queueCapacity;
+
+    /**
+     * Runs the database and Stripe part of a checkout after downstream lookups complete,
+     * keeping that blocking work off the Reactor Netty event loop.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor checkoutExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(checkoutThreads);
+        executor.setMaxPoolSize(checkoutThreads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("checkout-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,57 @@
+package com.levelup.payment_service.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.levelup.payment_service.dto.external.CourseDto;
+import com.levelup.payment_service.dto.external.UserDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Bounded, TTL-based caches in front of user-service and course-service lookups.
+ * Async caches share one in-flight fetch per key, so concurrent checkouts for the same
+ * course or user trigger a single HTTP call. Hit, miss and eviction counts are published as cache.* metrics.
+ */
+@Configuration
+public class ClientCacheConfig {
+
+    @Value("${payment.cache.users.ttl:5m}")
+    private Duration userTtl;
+
+    @Value("${payment.cache.users.max-size:10000}")
+    private long userMaxSize;
+
+    @Value("${payment.cache.courses.ttl:10m}")
+    private Duration courseTtl;
+
+    @Value("${payment.cache.courses.max-size:5000}")
+    private long courseMaxSize;
+
+    @Bean
+    public AsyncCache<UUID, UserDto> userCache(MeterRegistry meterRegistry) {
+        AsyncCache<UUID, UserDto> cache = Caffeine.newBuilder()
+                .expireAfterWrite(userTtl)
+                .maximumSize(userMaxSize)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+        return cache;
+    }
+
+    @Bean
+    public AsyncCache<UUID, CourseDto> courseCache(MeterRegistry meterRegistry) {
+        AsyncCache<UUID, CourseDto> cache = Caffeine.newBuilder()
+                .expireAfterWrite(courseTtl)
+                .maximumSize(courseMaxSize)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "courses");
+        return cache;
+    }
+}
@@ -12,8 +12,15 @@ public class StripeConfig {
     @Value("${stripe.secret.key}")
     private String stripeSecretKey;
 
+    // Points the SDK at a local Stripe stub (e.g. stripe-mock) in tests; empty means the real API
+    @Value("${stripe.api-base:}")
+    private String stripeApiBase;
+
     @PostConstruct
     public void init() {
         Stripe.apiKey = stripeSecretKey;
+        if (!stripeApiBase.isBlank()) {
+            Stripe.overrideApiBase(stripeApiBase);
+        }
     }
-}
\ No newline at end of file
+}
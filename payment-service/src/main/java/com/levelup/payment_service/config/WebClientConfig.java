@@ -1,14 +1,90 @@
 package com.levelup.payment_service.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
+    @Value("${webclient.connection-timeout}")
+    private int connectionTimeoutMs;
+
+    @Value("${webclient.read-timeout}")
+    private long readTimeoutMs;
+
+    @Value("${webclient.pool.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${webclient.pool.pending-acquire-max-count:500}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${webclient.pool.pending-acquire-timeout:5000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${webclient.pool.max-idle-time:30000}")
+    private long maxIdleTimeMs;
+
+    @Value("${webclient.pool.max-life-time:300000}")
+    private long maxLifeTimeMs;
+
+    /**
+     * Shared connection pool for all outbound HTTP calls. Pool gauges are published to Micrometer
+     * under reactor.netty.connection.provider.*.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider webClientConnectionProvider() {
+        return ConnectionProvider.builder("payment-service-http")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeTimeMs))
+                .evictInBackground(Duration.ofSeconds(30))
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient.Builder webClientBuilder(
+            @Qualifier("webClientConnectionProvider") ConnectionProvider webClientConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(webClientConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectionTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs));
+
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient));
+    }
+
+    @Bean
+    public WebClient userServiceWebClient(@Qualifier("webClientBuilder") WebClient.Builder webClientBuilder,
+            @Value("${user-service.base-url}") String userServiceBaseUrl) {
+        return webClientBuilder.clone().baseUrl(userServiceBaseUrl).build();
+    }
+
+    /**
+     * Course lookups run on every checkout, so this client can also read CBOR, which course-service
+     * answers with when asked; see CourseServiceClient. Only the decoder is registered: custom writers
+     * take precedence over the JSON one, so a CBOR encoder would send request bodies as CBOR to
+     * course-service versions that cannot read them.
+     */
     @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    public WebClient courseServiceWebClient(@Qualifier("webClientBuilder") WebClient.Builder webClientBuilder,
+            @Value("${course-service.base-url}") String courseServiceBaseUrl) {
+        return webClientBuilder.clone()
+                .baseUrl(courseServiceBaseUrl)
+                .codecs(codecs -> codecs.customCodecs().register(new Jackson2CborDecoder()))
+                .build();
     }
-}
\ No newline at end of file
+}
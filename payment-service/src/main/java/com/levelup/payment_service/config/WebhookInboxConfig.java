@@ -0,0 +1,27 @@
+package com.levelup.payment_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class WebhookInboxConfig {
+
+    @Value("${payment.webhook.worker-threads:4}")
+    private int workerThreads;
+
+    @Bean
+    public ThreadPoolTaskExecutor webhookWorkerExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workerThreads);
+        executor.setMaxPoolSize(workerThreads);
+        // The worker never submits more tasks than it holds permits for, so the queue stays bounded
+        executor.setQueueCapacity(workerThreads);
+        executor.setThreadNamePrefix("stripe-webhook-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,22 +1,35 @@
 package com.levelup.payment_service.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.levelup.payment_service.client.CourseServiceClient;
+import com.levelup.payment_service.dto.external.CourseServiceRequest;
 import com.levelup.payment_service.dto.request.CoursePurchaseRequest;
 import com.levelup.payment_service.dto.request.SubscriptionEnrollmentRequest;
+import com.levelup.payment_service.dto.response.AdminTransactionResponse;
 import com.levelup.payment_service.dto.response.PaymentIntentResponse;
 import com.levelup.payment_service.dto.response.SubscriptionEnrollmentResponse;
+import com.levelup.payment_service.dto.response.TransactionPageResponse;
 import com.levelup.payment_service.service.PaymentService;
+import com.levelup.payment_service.service.RevenueLedgerService;
 import com.levelup.payment_service.service.SubscriptionService;
 import com.levelup.payment_service.model.Transaction;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -26,29 +39,44 @@ public class PaymentController {
 
     private final PaymentService paymentService;
     private final SubscriptionService subscriptionService;
+    private final RevenueLedgerService revenueLedgerService;
+    private final ObjectMapper objectMapper;
+    private final CourseServiceClient courseServiceClient;
+    @Qualifier("checkoutExecutor")
+    private final Executor checkoutExecutor;
 
+    private static final int EXPORT_PAGE_SIZE = 500;
+
+    /**
+     * Waits for course-service without holding a Tomcat thread; the purchase itself runs on the checkout executor.
+     */
     @PostMapping("/purchase-courses")
-    public ResponseEntity<PaymentIntentResponse> purchaseCourses(
+    public CompletableFuture<ResponseEntity<PaymentIntentResponse>> purchaseCourses(
             @Valid @RequestBody CoursePurchaseRequest request,
             @RequestHeader("X-User-Id") String userIdHeader) {
 
-        try {
-            log.info("Received course purchase request for user: {} with courses: {}", userIdHeader,
-                    request.getCourseIds());
-
-            UUID userId = UUID.fromString(userIdHeader);
-            PaymentIntentResponse response = paymentService.createCoursePurchasePayment(request, userId);
-
-            log.info("Course purchase payment created successfully for user: {}", userId);
-            return ResponseEntity.ok(response);
+        log.info("Received course purchase request for user: {} with courses: {}", userIdHeader,
+                request.getCourseIds());
 
+        UUID userId;
+        try {
+            userId = UUID.fromString(userIdHeader);
         } catch (IllegalArgumentException e) {
             log.error("Invalid user ID format: {}", userIdHeader);
-            return ResponseEntity.badRequest().build();
-        } catch (Exception e) {
-            log.error("Error processing course purchase request", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
+
+        return courseServiceClient.getCourseDetailsAsync(new CourseServiceRequest(request.getCourseIds()))
+                .thenApplyAsync(courses -> paymentService.createCoursePurchasePayment(courses, userId),
+                        checkoutExecutor)
+                .thenApply(response -> {
+                    log.info("Course purchase payment created successfully for user: {}", userId);
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(e -> {
+                    log.error("Error processing course purchase request", e);
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+                });
     }
     
     @PostMapping("/subscription-enrollment")
@@ -94,17 +122,109 @@ public class PaymentController {
     }
 
     /**
-     * Get all transactions for admin dashboard
+     * Recompute the revenue ledger from transaction history
+     */
+    @PostMapping("/revenue-ledger/rebuild")
+    public ResponseEntity<Void> rebuildRevenueLedger(
+            @RequestHeader(value = "X-User-Role", required = false) String userRole) {
+
+        if (!"ADMIN".equals(userRole)) {
+            return ResponseEntity.status(403).build();
+        }
+
+        revenueLedgerService.rebuildLedger();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Get all transactions for admin dashboard, newest first, as one JSON array.
+     * The array is streamed from keyset pages instead of being built in memory; new clients should page
+     * with /transactions/page or stream with /transactions/export instead.
      */
+    @Deprecated
     @GetMapping("/transactions")
-    public ResponseEntity<List<java.util.Map<String, Object>>> getAllTransactions(
+    public ResponseEntity<StreamingResponseBody> getAllTransactions(
             @RequestHeader(value = "X-User-Role", required = false) String userRole) {
         
         if (!"ADMIN".equals(userRole)) {
             return ResponseEntity.status(403).build();
         }
 
-        return ResponseEntity.ok(paymentService.getAllTransactions());
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.writeStartArray();
+            writeAllTransactions(transactions -> {
+                for (AdminTransactionResponse transaction : transactions) {
+                    generator.writeObject(transaction);
+                }
+                generator.flush();
+            });
+            generator.writeEndArray();
+            generator.close();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Get one keyset-paginated page of transactions for admin dashboard, newest first
+     */
+    @GetMapping("/transactions/page")
+    public ResponseEntity<TransactionPageResponse> getTransactionPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "50") int size,
+            @RequestHeader(value = "X-User-Role", required = false) String userRole) {
+
+        if (!"ADMIN".equals(userRole)) {
+            return ResponseEntity.status(403).build();
+        }
+
+        try {
+            return ResponseEntity.ok(paymentService.getTransactionPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid transaction cursor: {}", cursor);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Stream every transaction as newline-delimited JSON, one page at a time
+     */
+    @GetMapping(value = "/transactions/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestHeader(value = "X-User-Role", required = false) String userRole) {
+
+        if (!"ADMIN".equals(userRole)) {
+            return ResponseEntity.status(403).build();
+        }
+
+        StreamingResponseBody body = outputStream -> writeAllTransactions(transactions -> {
+            for (AdminTransactionResponse transaction : transactions) {
+                outputStream.write(objectMapper.writeValueAsBytes(transaction));
+                outputStream.write('\n');
+            }
+            outputStream.flush();
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void writeAllTransactions(TransactionPageWriter writer) throws IOException {
+        String cursor = null;
+        do {
+            TransactionPageResponse page = paymentService.getTransactionPage(cursor, EXPORT_PAGE_SIZE);
+            writer.write(page.getTransactions());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+    }
+
+    @FunctionalInterface
+    private interface TransactionPageWriter {
+        void write(List<AdminTransactionResponse> transactions) throws IOException;
     }
 
     /**
@@ -12,6 +12,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.NoSuchElementException;
 import java.util.UUID;
 
 @RestController
@@ -40,6 +41,9 @@ public class SubscriptionController {
         } catch (IllegalArgumentException e) {
             log.error("Invalid user ID format: {}", userIdHeader);
             return ResponseEntity.badRequest().build();
+        } catch (NoSuchElementException e) {
+            log.warn("Subscription requested for unknown user: {}", userIdHeader);
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             log.error("Error processing subscription creation request", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
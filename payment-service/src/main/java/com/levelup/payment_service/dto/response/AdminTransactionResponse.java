@@ -0,0 +1,29 @@
+package com.levelup.payment_service.dto.response;
+
+import com.levelup.payment_service.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AdminTransactionResponse {
+    private UUID id;
+    private Transaction.TransactionType type;
+    private BigDecimal amount;
+    private String currency;
+    private Transaction.TransactionStatus status;
+    private LocalDateTime createdAt;
+    private UUID userId;
+    private String userName;
+    private String userEmail;
+    private String description;
+    private String paymentMethod;
+}
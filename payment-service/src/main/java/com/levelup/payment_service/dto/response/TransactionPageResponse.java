@@ -0,0 +1,15 @@
+package com.levelup.payment_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageResponse {
+    private List<AdminTransactionResponse> transactions;
+    private String nextCursor; // null when there are no more pages
+}
@@ -0,0 +1,65 @@
+package com.levelup.payment_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * RabbitMQ message written in the same transaction as the business change that produced it.
+ * OutboxRelay publishes and deletes rows after the transaction commits.
+ */
+@Entity
+@Table(name = "outbox_messages", indexes = {
+        @Index(name = "idx_outbox_messages_next_attempt", columnList = "next_attempt_at, created_at"),
+        @Index(name = "idx_outbox_messages_ordering_key", columnList = "ordering_key, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id")
+    private UUID id;
+
+    @Column(name = "exchange", length = 255, nullable = false)
+    private String exchange;
+
+    @Column(name = "routing_key", length = 255, nullable = false)
+    private String routingKey;
+
+    // __TypeId__ header written by Jackson2JsonMessageConverter, kept so consumers see identical messages
+    @Column(name = "type_id", length = 255)
+    private String typeId;
+
+    @Column(name = "body", columnDefinition = "TEXT", nullable = false)
+    private String body;
+
+    // Messages with the same key are published in the order they were written; the key is the user id
+    @Column(name = "ordering_key", length = 255)
+    private String orderingKey;
+
+    // Non-negative hash of the ordering key; OutboxRelay partitions its threads on it
+    @Column(name = "ordering_hash", nullable = false)
+    @Builder.Default
+    private Integer orderingHash = 0;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -9,7 +9,9 @@ import lombok.NoArgsConstructor;
 import java.util.UUID;
 
 @Entity
-@Table(name = "pending_purchase_items")
+@Table(name = "pending_purchase_items", indexes = {
+        @Index(name = "idx_pending_purchase_items_payment_intent", columnList = "stripe_payment_intent_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
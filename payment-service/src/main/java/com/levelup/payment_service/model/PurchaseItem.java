@@ -9,7 +9,9 @@ import lombok.NoArgsConstructor;
 import java.util.UUID;
 
 @Entity
-@Table(name = "purchase_items")
+@Table(name = "purchase_items", indexes = {
+        @Index(name = "idx_purchase_items_userpurchase", columnList = "userpurchase_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,33 @@
+package com.levelup.payment_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Running totals of transactions per creation day, type and status.
+ * Maintained by RevenueLedgerService whenever a transaction is created or changes status.
+ */
+@Entity
+@Table(name = "revenue_ledger")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevenueLedgerEntry {
+
+    @EmbeddedId
+    private RevenueLedgerKey id;
+
+    @Column(name = "transaction_count", nullable = false)
+    @Builder.Default
+    private Long transactionCount = 0L;
+
+    @Column(name = "total_amount", precision = 19, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+}
@@ -0,0 +1,73 @@
+package com.levelup.payment_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Inbox row for a verified Stripe webhook event. Rows are written on receipt and drained by WebhookInboxWorker.
+ */
+@Entity
+@Table(name = "stripe_webhook_events", indexes = {
+        @Index(name = "idx_stripe_webhook_events_status_next_attempt", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_stripe_webhook_events_ordering_key", columnList = "ordering_key, received_at"),
+        @Index(name = "idx_stripe_webhook_events_status_processed_at", columnList = "status, processed_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StripeWebhookEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id")
+    private UUID id;
+
+    @Column(name = "stripe_event_id", length = 255, nullable = false, unique = true)
+    private String stripeEventId;
+
+    @Column(name = "event_type", length = 100, nullable = false)
+    private String eventType;
+
+    // Stripe subscription or customer the event belongs to; events sharing a key are processed in order
+    @Column(name = "ordering_key", length = 255)
+    private String orderingKey;
+
+    @Column(name = "payload", columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private InboxStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    public enum InboxStatus {
+        PENDING,
+        PROCESSING,
+        PROCESSED,
+        FAILED
+    }
+}
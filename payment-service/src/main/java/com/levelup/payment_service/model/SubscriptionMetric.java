@@ -0,0 +1,33 @@
+package com.levelup.payment_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Active subscriptions and their initial payment amounts per plan and first period start day.
+ * Maintained by SubscriptionMetricsService when subscriptions are activated, canceled or refunded.
+ */
+@Entity
+@Table(name = "subscription_metrics")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubscriptionMetric {
+
+    @EmbeddedId
+    private SubscriptionMetricKey id;
+
+    @Column(name = "active_count", nullable = false)
+    @Builder.Default
+    private Long activeCount = 0L;
+
+    @Column(name = "active_amount", precision = 19, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal activeAmount = BigDecimal.ZERO;
+}
@@ -0,0 +1,24 @@
+package com.levelup.payment_service.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubscriptionMetricKey implements Serializable {
+
+    @Column(name = "subscription_plan_id", nullable = false)
+    private UUID subscriptionPlanId;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+}
@@ -11,7 +11,9 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "userpurchases")
+@Table(name = "userpurchases", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_userpurchases_stripe_payment_intent_id", columnNames = "stripe_payment_intent_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
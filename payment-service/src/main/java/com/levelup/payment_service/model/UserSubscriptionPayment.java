@@ -10,7 +10,10 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "user_subscription_payments")
+@Table(name = "user_subscription_payments", indexes = {
+        @Index(name = "idx_user_subscription_payments_stripe_subscription", columnList = "stripe_subscription_id"),
+        @Index(name = "idx_user_subscription_payments_user_status", columnList = "user_id, status")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,40 @@
+package com.levelup.payment_service.repository;
+
+import com.levelup.payment_service.model.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, UUID> {
+
+    /**
+     * Locks the oldest due messages of one partition, in publishing order. Messages whose key has an earlier
+     * message waiting for a retry are held back. The lock waits instead of skipping, so a relay on another
+     * instance working the same partition only continues once the messages ahead of it are published.
+     */
+    @Query(value = "SELECT * FROM outbox_messages m WHERE m.next_attempt_at <= :now "
+            + "AND MOD(m.ordering_hash, :partitions) = :partition "
+            + "AND NOT EXISTS (SELECT 1 FROM outbox_messages d WHERE d.ordering_key = m.ordering_key "
+            + "AND d.next_attempt_at > :now AND d.created_at <= m.created_at AND d.id <> m.id) "
+            + "ORDER BY m.created_at, m.id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<OutboxMessage> lockDueMessages(@Param("now") LocalDateTime now,
+            @Param("partitions") int partitions,
+            @Param("partition") int partition,
+            @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.attempts = m.attempts + 1, m.nextAttemptAt = :nextAttemptAt "
+            + "WHERE m.id IN :ids")
+    int scheduleRetry(@Param("ids") Collection<UUID> ids, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    @Query("SELECT MIN(m.createdAt) FROM OutboxMessage m")
+    LocalDateTime findOldestCreatedAt();
+}
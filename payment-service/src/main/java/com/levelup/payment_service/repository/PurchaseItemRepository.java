@@ -3,12 +3,25 @@ package com.levelup.payment_service.repository;
 import com.levelup.payment_service.model.PurchaseItem;
 import com.levelup.payment_service.model.UserPurchase;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface PurchaseItemRepository extends JpaRepository<PurchaseItem, UUID> {
     List<PurchaseItem> findByUserPurchase(UserPurchase userPurchase);
-}
\ No newline at end of file
+
+    interface CourseNameView {
+        UUID getUserPurchaseId();
+
+        String getCourseName();
+    }
+
+    @Query("SELECT pi.userPurchase.id AS userPurchaseId, pi.courseName AS courseName "
+            + "FROM PurchaseItem pi WHERE pi.userPurchase.id IN :userPurchaseIds")
+    List<CourseNameView> findCourseNamesByUserPurchaseIds(@Param("userPurchaseIds") Collection<UUID> userPurchaseIds);
+}
@@ -0,0 +1,59 @@
+package com.levelup.payment_service.repository;
+
+import com.levelup.payment_service.model.RevenueLedgerEntry;
+import com.levelup.payment_service.model.RevenueLedgerKey;
+import com.levelup.payment_service.model.Transaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RevenueLedgerRepository extends JpaRepository<RevenueLedgerEntry, RevenueLedgerKey> {
+
+    interface LedgerTotals {
+        Transaction.TransactionType getType();
+
+        Transaction.TransactionStatus getStatus();
+
+        Long getTransactionCount();
+
+        BigDecimal getTotalAmount();
+    }
+
+    @Modifying
+    @Query(value = "INSERT INTO revenue_ledger (ledger_date, type, status, transaction_count, total_amount) "
+            + "VALUES (:ledgerDate, :type, :status, :countDelta, :amountDelta) "
+            + "ON CONFLICT (ledger_date, type, status) DO UPDATE SET "
+            + "transaction_count = revenue_ledger.transaction_count + EXCLUDED.transaction_count, "
+            + "total_amount = revenue_ledger.total_amount + EXCLUDED.total_amount", nativeQuery = true)
+    int applyDelta(@Param("ledgerDate") LocalDate ledgerDate,
+            @Param("type") String type,
+            @Param("status") String status,
+            @Param("countDelta") long countDelta,
+            @Param("amountDelta") BigDecimal amountDelta);
+
+    @Query("SELECT e.id.type AS type, e.id.status AS status, "
+            + "SUM(e.transactionCount) AS transactionCount, SUM(e.totalAmount) AS totalAmount "
+            + "FROM RevenueLedgerEntry e GROUP BY e.id.type, e.id.status")
+    List<LedgerTotals> sumByTypeAndStatus();
+
+    @Modifying
+    @Query(value = "LOCK TABLE revenue_ledger IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM revenue_ledger", nativeQuery = true)
+    void clear();
+
+    @Modifying
+    @Query(value = "INSERT INTO revenue_ledger (ledger_date, type, status, transaction_count, total_amount) "
+            + "SELECT CAST(t.created_at AS date), t.type, t.status, COUNT(*), SUM(t.amount) "
+            + "FROM transactions t GROUP BY CAST(t.created_at AS date), t.type, t.status", nativeQuery = true)
+    int rebuildFromTransactions();
+}
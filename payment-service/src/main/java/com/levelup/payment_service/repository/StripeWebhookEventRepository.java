@@ -0,0 +1,45 @@
+package com.levelup.payment_service.repository;
+
+import com.levelup.payment_service.model.StripeWebhookEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface StripeWebhookEventRepository extends JpaRepository<StripeWebhookEvent, UUID> {
+
+    boolean existsByStripeEventId(String stripeEventId);
+
+    @Modifying
+    @Query("DELETE FROM StripeWebhookEvent e WHERE e.status = :status AND e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("status") StripeWebhookEvent.InboxStatus status,
+            @Param("cutoff") LocalDateTime cutoff);
+
+    long countByStatusIn(Collection<StripeWebhookEvent.InboxStatus> statuses);
+
+    @Query("SELECT MIN(e.receivedAt) FROM StripeWebhookEvent e WHERE e.status IN :statuses")
+    LocalDateTime findOldestReceivedAt(@Param("statuses") Collection<StripeWebhookEvent.InboxStatus> statuses);
+
+    /**
+     * Locks up to :limit due events. An event is skipped while an older event with the same ordering key
+     * is still pending or in flight, so events for one customer or subscription never run concurrently
+     * or out of order. PROCESSING rows whose lease expired are picked up again.
+     */
+    @Query(value = "SELECT e.* FROM stripe_webhook_events e "
+            + "WHERE e.status IN ('PENDING', 'PROCESSING') AND e.next_attempt_at <= :now "
+            + "AND (e.ordering_key IS NULL OR NOT EXISTS ("
+            + "  SELECT 1 FROM stripe_webhook_events earlier "
+            + "  WHERE earlier.ordering_key = e.ordering_key "
+            + "  AND earlier.status IN ('PENDING', 'PROCESSING') "
+            + "  AND (earlier.received_at, earlier.id) < (e.received_at, e.id))) "
+            + "ORDER BY e.received_at "
+            + "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<StripeWebhookEvent> lockDueEvents(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -0,0 +1,60 @@
+package com.levelup.payment_service.repository;
+
+import com.levelup.payment_service.model.SubscriptionMetric;
+import com.levelup.payment_service.model.SubscriptionMetricKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SubscriptionMetricRepository extends JpaRepository<SubscriptionMetric, SubscriptionMetricKey> {
+
+    interface PlanTotals {
+        UUID getSubscriptionPlanId();
+
+        Long getActiveCount();
+    }
+
+    @Modifying
+    @Query(value = "INSERT INTO subscription_metrics (subscription_plan_id, start_date, active_count, active_amount) "
+            + "VALUES (:planId, :startDate, :countDelta, :amountDelta) "
+            + "ON CONFLICT (subscription_plan_id, start_date) DO UPDATE SET "
+            + "active_count = subscription_metrics.active_count + EXCLUDED.active_count, "
+            + "active_amount = subscription_metrics.active_amount + EXCLUDED.active_amount", nativeQuery = true)
+    int applyDelta(@Param("planId") UUID planId,
+            @Param("startDate") LocalDate startDate,
+            @Param("countDelta") long countDelta,
+            @Param("amountDelta") BigDecimal amountDelta);
+
+    @Query("SELECT m.id.subscriptionPlanId AS subscriptionPlanId, SUM(m.activeCount) AS activeCount "
+            + "FROM SubscriptionMetric m GROUP BY m.id.subscriptionPlanId")
+    List<PlanTotals> sumActiveByPlan();
+
+    @Query("SELECT m FROM SubscriptionMetric m WHERE m.id.startDate > :since")
+    List<SubscriptionMetric> findStartedAfter(@Param("since") LocalDate since);
+
+    @Modifying
+    @Query(value = "LOCK TABLE subscription_metrics IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM subscription_metrics", nativeQuery = true)
+    void clear();
+
+    @Modifying
+    @Query(value = "INSERT INTO subscription_metrics (subscription_plan_id, start_date, active_count, active_amount) "
+            + "SELECT s.subscription_plan_id, COALESCE(CAST(s.first_period_start AS date), DATE '1970-01-01'), "
+            + "COUNT(*), SUM(t.amount) "
+            + "FROM user_subscription_payments s JOIN transactions t ON t.id = s.transaction_id "
+            + "WHERE s.status = 'ACTIVE' "
+            + "GROUP BY s.subscription_plan_id, COALESCE(CAST(s.first_period_start AS date), DATE '1970-01-01')",
+            nativeQuery = true)
+    int rebuildFromSubscriptions();
+}
@@ -2,9 +2,15 @@ package com.levelup.payment_service.repository;
 
 import com.levelup.payment_service.model.UserPurchase;
 import com.levelup.payment_service.model.Transaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,4 +18,22 @@ import java.util.UUID;
 public interface UserPurchaseRepository extends JpaRepository<UserPurchase, UUID> {
     Optional<UserPurchase> findByStripePaymentIntentId(String stripePaymentIntentId);
     Optional<UserPurchase> findByTransaction(Transaction transaction);
-}
\ No newline at end of file
+
+    @Query("SELECT up FROM UserPurchase up JOIN FETCH up.transaction t WHERE t.id IN :transactionIds")
+    List<UserPurchase> findByTransactionIdIn(@Param("transactionIds") Collection<UUID> transactionIds);
+
+    /**
+     * Keyset page of purchases whose transaction is still in the given status, oldest first.
+     */
+    @Query("SELECT up FROM UserPurchase up JOIN FETCH up.transaction t "
+            + "WHERE t.status = :status AND up.stripePaymentIntentId IS NOT NULL "
+            + "AND t.createdAt >= :createdFrom AND t.createdAt < :createdTo "
+            + "AND (t.createdAt > :afterCreatedAt OR (t.createdAt = :afterCreatedAt AND t.id > :afterId)) "
+            + "ORDER BY t.createdAt, t.id")
+    List<UserPurchase> findByTransactionStatusPageAfter(@Param("status") Transaction.TransactionStatus status,
+            @Param("createdFrom") LocalDateTime createdFrom,
+            @Param("createdTo") LocalDateTime createdTo,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") UUID afterId,
+            Pageable pageable);
+}
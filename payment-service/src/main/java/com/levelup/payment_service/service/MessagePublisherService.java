@@ -5,100 +5,131 @@ import com.levelup.payment_service.dto.message.CourseEnrollmentMessage;
 import com.levelup.payment_service.dto.message.PaymentNotificationMessage;
 import com.levelup.payment_service.dto.message.SubscriptionMessage;
 import com.levelup.payment_service.dto.message.UserSubscriptionMessage;
+import com.levelup.payment_service.model.OutboxMessage;
+import com.levelup.payment_service.repository.OutboxMessageRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Writes outgoing RabbitMQ messages to the outbox table inside the caller's transaction.
+ * Messages are published by OutboxRelay only once that transaction commits.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MessagePublisherService {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final Jackson2JsonMessageConverter messageConverter;
+    private final OutboxMessageRepository outboxMessageRepository;
 
     public void sendCourseEnrollmentMessage(CourseEnrollmentMessage message) {
         try {
-            log.info("Sending course enrollment message for user: {} and courses: {}",
+            log.info("Queueing course enrollment message for user: {} and courses: {}",
                     message.getUserId(), message.getCourseIds());
 
-            rabbitTemplate.convertAndSend(
-                    RabbitMQConfig.COURSE_ENROLLMENT_EXCHANGE,
+            enqueue(RabbitMQConfig.COURSE_ENROLLMENT_EXCHANGE,
                     RabbitMQConfig.COURSE_ENROLLMENT_ROUTING_KEY,
-                    message);
+                    message,
+                    message.getUserId());
 
-            log.info("Course enrollment message sent successfully");
+            log.info("Course enrollment message queued successfully");
         } catch (Exception e) {
-            log.error("Failed to send course enrollment message", e);
+            log.error("Failed to queue course enrollment message", e);
             throw new RuntimeException("Failed to send course enrollment message", e);
         }
     }
 
     public void sendSubscriptionMessage(SubscriptionMessage message) {
         try {
-            log.info("Sending subscription message for user: {} with subscription: {} and status: {}",
+            log.info("Queueing subscription message for user: {} with subscription: {} and status: {}",
                     message.getUserId(), message.getSubscriptionName(), message.getStatus());
 
-            rabbitTemplate.convertAndSend(
-                    RabbitMQConfig.COURSE_ENROLLMENT_EXCHANGE,
+            enqueue(RabbitMQConfig.COURSE_ENROLLMENT_EXCHANGE,
                     RabbitMQConfig.COURSE_ENROLLMENT_ROUTING_KEY,
-                    message);
+                    message,
+                    message.getUserId());
 
-            log.info("Subscription message sent successfully");
+            log.info("Subscription message queued successfully");
         } catch (Exception e) {
-            log.error("Failed to send subscription message", e);
+            log.error("Failed to queue subscription message", e);
             throw new RuntimeException("Failed to send subscription message", e);
         }
     }
 
     public void sendPaymentNotificationMessage(PaymentNotificationMessage message) {
         try {
-            log.info("Sending payment notification message for user: {} with event: {}",
+            log.info("Queueing payment notification message for user: {} with event: {}",
                     message.getUserId(), message.getEventType());
 
-            rabbitTemplate.convertAndSend(
-                    RabbitMQConfig.NOTIFICATION_EXCHANGE,
+            enqueue(RabbitMQConfig.NOTIFICATION_EXCHANGE,
                     RabbitMQConfig.NOTIFICATION_ROUTING_KEY,
-                    message);
+                    message,
+                    message.getUserId());
 
-            log.info("Payment notification message sent successfully");
+            log.info("Payment notification message queued successfully");
         } catch (Exception e) {
-            log.error("Failed to send payment notification message", e);
+            log.error("Failed to queue payment notification message", e);
             throw new RuntimeException("Failed to send payment notification message", e);
         }
     }
 
     public void sendSubscriptionNotificationMessage(SubscriptionMessage message) {
         try {
-            log.info("Sending subscription notification message for user: {} with status: {}",
+            log.info("Queueing subscription notification message for user: {} with status: {}",
                     message.getUserId(), message.getStatus());
 
-            rabbitTemplate.convertAndSend(
-                    RabbitMQConfig.NOTIFICATION_EXCHANGE,
+            enqueue(RabbitMQConfig.NOTIFICATION_EXCHANGE,
                     RabbitMQConfig.NOTIFICATION_ROUTING_KEY,
-                    message);
+                    message,
+                    message.getUserId());
 
-            log.info("Subscription notification message sent successfully");
+            log.info("Subscription notification message queued successfully");
         } catch (Exception e) {
-            log.error("Failed to send subscription notification message", e);
+            log.error("Failed to queue subscription notification message", e);
             throw new RuntimeException("Failed to send subscription notification message", e);
         }
     }
 
     public void sendUserSubscriptionMessage(UserSubscriptionMessage message) {
         try {
-            log.info("Sending user subscription message for user: {} with isSubscribed: {}",
+            log.info("Queueing user subscription message for user: {} with isSubscribed: {}",
                     message.getUserId(), message.isSubscribed());
 
-            rabbitTemplate.convertAndSend(
-                    RabbitMQConfig.USER_SUBSCRIPTION_EXCHANGE,
+            enqueue(RabbitMQConfig.USER_SUBSCRIPTION_EXCHANGE,
                     RabbitMQConfig.USER_SUBSCRIPTION_ROUTING_KEY,
-                    message);
+                    message,
+                    message.getUserId());
 
-            log.info("User subscription message sent successfully");
+            log.info("User subscription message queued successfully");
         } catch (Exception e) {
-            log.error("Failed to send user subscription message", e);
+            log.error("Failed to queue user subscription message", e);
             throw new RuntimeException("Failed to send user subscription message", e);
         }
     }
+
+    private void enqueue(String exchange, String routingKey, Object payload, UUID orderingKey) {
+        // Convert now with the broker converter so the relay publishes exactly what convertAndSend would have
+        Message converted = messageConverter.toMessage(payload, new MessageProperties());
+        String key = orderingKey != null ? orderingKey.toString() : null;
+
+        OutboxMessage outboxMessage = OutboxMessage.builder()
+                .exchange(exchange)
+                .routingKey(routingKey)
+                .typeId((String) converted.getMessageProperties().getHeaders().get("__TypeId__"))
+                .body(new String(converted.getBody(), StandardCharsets.UTF_8))
+                .orderingKey(key)
+                .orderingHash(key != null ? key.hashCode() & Integer.MAX_VALUE : 0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+
+        outboxMessageRepository.save(outboxMessage);
+    }
 }
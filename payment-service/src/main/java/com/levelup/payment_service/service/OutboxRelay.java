@@ -0,0 +1,171 @@
+package com.levelup.payment_service.service;
+
+import com.levelup.payment_service.model.OutboxMessage;
+import com.levelup.payment_service.repository.OutboxMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes committed outbox messages to RabbitMQ in batches.
+ * Messages are split into one partition per relay thread by the hash of their ordering key, so all messages
+ * of one key go through one thread, oldest first. Each thread locks a batch of its partition, publishes it
+ * on the channel bound to that thread, waits for publisher confirms and only then deletes the rows.
+ * Unconfirmed batches are retried after a delay, and later messages of the same keys wait for them.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor outboxRelayExecutor;
+
+    private final AtomicLong pendingMessages = new AtomicLong();
+    private final AtomicLong oldestMessageAgeSeconds = new AtomicLong();
+    private final Counter publishedCounter;
+    private final Counter failedBatchCounter;
+    private final Timer batchTimer;
+
+    @Value("${payment.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${payment.outbox.relay-threads:2}")
+    private int relayThreads;
+
+    @Value("${payment.outbox.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${payment.outbox.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    public OutboxRelay(OutboxMessageRepository outboxMessageRepository,
+            RabbitTemplate rabbitTemplate,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("outboxRelayExecutor") ThreadPoolTaskExecutor outboxRelayExecutor,
+            MeterRegistry meterRegistry) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxRelayExecutor = outboxRelayExecutor;
+
+        Gauge.builder("outbox.messages.pending", pendingMessages, AtomicLong::get)
+                .description("Outbox messages not yet confirmed by the broker")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag.seconds", oldestMessageAgeSeconds, AtomicLong::get)
+                .description("Age of the oldest unpublished outbox message")
+                .register(meterRegistry);
+        this.publishedCounter = meterRegistry.counter("outbox.messages.published");
+        this.failedBatchCounter = meterRegistry.counter("outbox.batches.failed");
+        this.batchTimer = meterRegistry.timer("outbox.batch.publish");
+    }
+
+    @Scheduled(fixedDelayString = "${payment.outbox.poll-interval-ms:200}")
+    public void relay() {
+        List<CompletableFuture<Void>> workers = new ArrayList<>(relayThreads);
+        for (int i = 0; i < relayThreads; i++) {
+            int partition = i;
+            workers.add(CompletableFuture.runAsync(() -> drain(partition), outboxRelayExecutor));
+        }
+        CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).join();
+    }
+
+    @Scheduled(fixedDelayString = "${payment.outbox.metrics-interval-ms:15000}")
+    public void refreshOutboxMetrics() {
+        pendingMessages.set(outboxMessageRepository.count());
+        LocalDateTime oldest = outboxMessageRepository.findOldestCreatedAt();
+        oldestMessageAgeSeconds.set(oldest != null
+                ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).getSeconds())
+                : 0);
+    }
+
+    private void drain(int partition) {
+        int published;
+        do {
+            published = publishBatch(partition);
+        } while (published == batchSize);
+    }
+
+    private int publishBatch(int partition) {
+        List<UUID> claimed = new ArrayList<>();
+        Timer.Sample sample = Timer.start();
+        try {
+            Integer published = transactionTemplate.execute(status -> {
+                List<OutboxMessage> batch = outboxMessageRepository.lockDueMessages(LocalDateTime.now(),
+                        relayThreads, partition, batchSize);
+                if (batch.isEmpty()) {
+                    return 0;
+                }
+                batch.forEach(message -> claimed.add(message.getId()));
+
+                rabbitTemplate.invoke(operations -> {
+                    for (OutboxMessage message : batch) {
+                        operations.send(message.getExchange(), message.getRoutingKey(), toAmqpMessage(message));
+                    }
+                    operations.waitForConfirmsOrDie(confirmTimeoutMs);
+                    return null;
+                });
+
+                outboxMessageRepository.deleteAllByIdInBatch(claimed);
+                return batch.size();
+            });
+
+            if (published != null && published > 0) {
+                publishedCounter.increment(published);
+                sample.stop(batchTimer);
+            }
+            return published != null ? published : 0;
+
+        } catch (Exception e) {
+            log.error("Failed to publish outbox batch of {} messages", claimed.size(), e);
+            failedBatchCounter.increment();
+            if (!claimed.isEmpty()) {
+                scheduleRetry(claimed);
+            }
+            return 0;
+        }
+    }
+
+    private void scheduleRetry(List<UUID> ids) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxMessageRepository.scheduleRetry(ids,
+                    LocalDateTime.now().plusNanos(retryDelayMs * 1_000_000)));
+        } catch (Exception e) {
+            log.error("Failed to schedule retry for outbox batch", e);
+        }
+    }
+
+    private Message toAmqpMessage(OutboxMessage outboxMessage) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        properties.setMessageId(outboxMessage.getId().toString());
+        if (outboxMessage.getTypeId() != null) {
+            properties.setHeader("__TypeId__", outboxMessage.getTypeId());
+        }
+        return new Message(outboxMessage.getBody().getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
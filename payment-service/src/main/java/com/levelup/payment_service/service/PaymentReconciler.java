@@ -0,0 +1,289 @@
+package com.levelup.payment_service.service;
+
+import com.levelup.payment_service.model.Transaction;
+import com.levelup.payment_service.model.UserPurchase;
+import com.levelup.payment_service.repository.UserPurchaseRepository;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.PaymentIntentCollection;
+import com.stripe.param.PaymentIntentListParams;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Settles course purchases that are still PENDING because their Stripe webhook never arrived.
+ * Pending purchases are paged oldest first and split into creation windows. A window with enough pending rows
+ * is fetched with the Stripe list API, which stops once every intent of the window has been seen; smaller
+ * windows are retrieved one by one, which costs fewer calls on a busy account. Stripe calls are paced to a
+ * configurable rate. Settled intents go through the same success and failure handlers as webhooks.
+ */
+@Component
+@Slf4j
+public class PaymentReconciler {
+
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final UUID KEYSET_START_ID = new UUID(0L, 0L);
+
+    private final UserPurchaseRepository userPurchaseRepository;
+    private final PaymentService paymentService;
+
+    private final Counter succeededCounter;
+    private final Counter failedCounter;
+    private final Counter unresolvedCounter;
+    private final Counter stripeErrorCounter;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private long nextStripeCallNanos;
+
+    @Value("${payment.reconciliation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.reconciliation.page-size:100}")
+    private int pageSize;
+
+    @Value("${payment.reconciliation.min-age-minutes:15}")
+    private long minAgeMinutes;
+
+    @Value("${payment.reconciliation.max-age-hours:72}")
+    private long maxAgeHours;
+
+    @Value("${payment.reconciliation.window-minutes:60}")
+    private long windowMinutes;
+
+    // Windows with fewer pending rows are retrieved row by row instead of listed
+    @Value("${payment.reconciliation.list-min-rows:3}")
+    private int listMinRows;
+
+    @Value("${payment.reconciliation.stripe-requests-per-second:10}")
+    private double stripeRequestsPerSecond;
+
+    public PaymentReconciler(UserPurchaseRepository userPurchaseRepository,
+            PaymentService paymentService,
+            MeterRegistry meterRegistry) {
+        this.userPurchaseRepository = userPurchaseRepository;
+        this.paymentService = paymentService;
+
+        this.succeededCounter = meterRegistry.counter("payment.reconciliation.settled", "outcome", "succeeded");
+        this.failedCounter = meterRegistry.counter("payment.reconciliation.settled", "outcome", "failed");
+        this.unresolvedCounter = meterRegistry.counter("payment.reconciliation.unresolved");
+        this.stripeErrorCounter = meterRegistry.counter("payment.reconciliation.stripe.errors");
+    }
+
+    @Scheduled(fixedDelayString = "${payment.reconciliation.interval-ms:300000}",
+            initialDelayString = "${payment.reconciliation.initial-delay-ms:60000}")
+    public void reconcilePendingPurchases() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime createdFrom = now.minusHours(maxAgeHours);
+            LocalDateTime createdTo = now.minusMinutes(minAgeMinutes);
+
+            LocalDateTime afterCreatedAt = KEYSET_START;
+            UUID afterId = KEYSET_START_ID;
+            int examined = 0;
+
+            List<UserPurchase> page;
+            do {
+                page = userPurchaseRepository.findByTransactionStatusPageAfter(Transaction.TransactionStatus.PENDING,
+                        createdFrom, createdTo, afterCreatedAt, afterId, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                reconcilePage(page);
+                examined += page.size();
+
+                Transaction last = page.get(page.size() - 1).getTransaction();
+                afterCreatedAt = last.getCreatedAt();
+                afterId = last.getId();
+            } while (page.size() == pageSize);
+
+            if (examined > 0) {
+                log.info("Reconciliation examined {} pending purchases", examined);
+            }
+        } catch (Exception e) {
+            log.error("Payment reconciliation run failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void reconcilePage(List<UserPurchase> page) {
+        Map<String, UserPurchase> pendingByIntent = new LinkedHashMap<>();
+        for (UserPurchase purchase : page) {
+            pendingByIntent.put(purchase.getStripePaymentIntentId(), purchase);
+        }
+
+        Map<String, PaymentIntent> intents = new HashMap<>();
+        for (List<UserPurchase> window : splitIntoWindows(page)) {
+            if (window.size() >= listMinRows) {
+                listIntentsCreatedAround(window, intents);
+            }
+        }
+
+        for (Map.Entry<String, UserPurchase> entry : pendingByIntent.entrySet()) {
+            PaymentIntent intent = intents.get(entry.getKey());
+            if (intent == null) {
+                // In a window too small to list, or not listed (e.g. clock skew); use a single paced retrieve
+                intent = retrieveIntent(entry.getKey());
+            }
+            if (intent != null) {
+                settle(entry.getValue(), intent);
+            }
+        }
+    }
+
+    /**
+     * Groups rows (already ordered by age) so that each group spans at most one list window.
+     */
+    private List<List<UserPurchase>> splitIntoWindows(List<UserPurchase> page) {
+        List<List<UserPurchase>> windows = new ArrayList<>();
+        List<UserPurchase> current = new ArrayList<>();
+        LocalDateTime windowStart = null;
+
+        for (UserPurchase purchase : page) {
+            LocalDateTime createdAt = purchase.getTransaction().getCreatedAt();
+            if (windowStart != null && createdAt.isAfter(windowStart.plusMinutes(windowMinutes))) {
+                windows.add(current);
+                current = new ArrayList<>();
+                windowStart = null;
+            }
+            if (windowStart == null) {
+                windowStart = createdAt;
+            }
+            current.add(purchase);
+        }
+        if (!current.isEmpty()) {
+            windows.add(current);
+        }
+        return windows;
+    }
+
+    private void listIntentsCreatedAround(List<UserPurchase> window, Map<String, PaymentIntent> found) {
+        Set<String> wanted = new HashSet<>();
+        for (UserPurchase purchase : window) {
+            wanted.add(purchase.getStripePaymentIntentId());
+        }
+
+        // The intent is created right after its transaction row; pad the window for clock differences
+        long from = toEpochSecond(window.get(0).getTransaction().getCreatedAt()) - 300;
+        long to = toEpochSecond(window.get(window.size() - 1).getTransaction().getCreatedAt()) + 300;
+
+        String startingAfter = null;
+        try {
+            PaymentIntentCollection collection;
+            do {
+                PaymentIntentListParams.Builder params = PaymentIntentListParams.builder()
+                        .setCreated(PaymentIntentListParams.Created.builder()
+                                .setGte(from)
+                                .setLte(to)
+                                .build())
+                        .setLimit(100L);
+                if (startingAfter != null) {
+                    params.setStartingAfter(startingAfter);
+                }
+
+                acquireStripePermit();
+                collection = PaymentIntent.list(params.build());
+
+                List<PaymentIntent> data = collection.getData();
+                for (PaymentIntent intent : data) {
+                    if (wanted.remove(intent.getId())) {
+                        found.put(intent.getId(), intent);
+                    }
+                }
+                startingAfter = data.isEmpty() ? null : data.get(data.size() - 1).getId();
+                // The padded range holds every intent of the account; stop once this window's are all found
+            } while (!wanted.isEmpty() && Boolean.TRUE.equals(collection.getHasMore()) && startingAfter != null);
+
+        } catch (StripeException e) {
+            stripeErrorCounter.increment();
+            log.warn("Failed to list PaymentIntents created between {} and {}", from, to, e);
+        }
+    }
+
+    private PaymentIntent retrieveIntent(String paymentIntentId) {
+        try {
+            acquireStripePermit();
+            return PaymentIntent.retrieve(paymentIntentId);
+        } catch (StripeException e) {
+            stripeErrorCounter.increment();
+            log.warn("Failed to retrieve PaymentIntent {}", paymentIntentId, e);
+            return null;
+        }
+    }
+
+    private void settle(UserPurchase purchase, PaymentIntent intent) {
+        Map<String, String> metadata = intent.getMetadata();
+        if (metadata == null || !metadata.containsKey("transaction_id") || !metadata.containsKey("user_id")) {
+            log.warn("PaymentIntent {} for purchase {} has no course purchase metadata", intent.getId(),
+                    purchase.getId());
+            unresolvedCounter.increment();
+            return;
+        }
+
+        try {
+            switch (intent.getStatus()) {
+                case "succeeded" -> {
+                    log.info("Reconciling missed success for PaymentIntent {}", intent.getId());
+                    paymentService.handlePaymentSuccess(intent.getId(), metadata);
+                    succeededCounter.increment();
+                }
+                case "canceled" -> {
+                    log.info("Reconciling canceled PaymentIntent {}", intent.getId());
+                    paymentService.handlePaymentFailure(intent.getId(), metadata);
+                    failedCounter.increment();
+                }
+                case "requires_payment_method" -> {
+                    // Only a failed attempt counts; a checkout that was never paid stays pending
+                    if (intent.getLastPaymentError() != null) {
+                        log.info("Reconciling missed failure for PaymentIntent {}", intent.getId());
+                        paymentService.handlePaymentFailure(intent.getId(), metadata);
+                        failedCounter.increment();
+                    } else {
+                        unresolvedCounter.increment();
+                    }
+                }
+                default -> unresolvedCounter.increment();
+            }
+        } catch (Exception e) {
+            log.error("Failed to reconcile PaymentIntent {}", intent.getId(), e);
+        }
+    }
+
+    /**
+     * Blocks until the next Stripe call is allowed under the configured request rate.
+     */
+    private void acquireStripePermit() {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / stripeRequestsPerSecond);
+        long now = System.nanoTime();
+        long waitNanos = nextStripeCallNanos - now;
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for Stripe rate limit", e);
+            }
+            now = System.nanoTime();
+        }
+        nextStripeCallNanos = now + interval;
+    }
+
+    private long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+}
@@ -7,6 +7,8 @@ import com.levelup.payment_service.dto.external.CourseServiceResponse;
 import com.levelup.payment_service.dto.message.CourseEnrollmentMessage;
 import com.levelup.payment_service.dto.message.PaymentNotificationMessage;
 import com.levelup.payment_service.dto.request.CoursePurchaseRequest;
+import com.levelup.payment_service.dto.response.AdminTransactionResponse;
+import com.levelup.payment_service.dto.response.TransactionPageResponse;
 import com.levelup.payment_service.dto.response.PaymentIntentResponse;
 import com.levelup.payment_service.model.PendingPurchaseItem;
 import com.levelup.payment_service.model.PurchaseItem;
@@ -25,6 +27,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -44,17 +47,29 @@ public class PaymentService {
     private final PendingPurchaseItemRepository pendingPurchaseItemRepository;
     private final CourseServiceClient courseServiceClient;
     private final MessagePublisherService messagePublisherService;
+    private final RevenueLedgerService revenueLedgerService;
+
+    private static final int MAX_TRANSACTION_PAGE_SIZE = 500;
 
     @Transactional
     public PaymentIntentResponse createCoursePurchasePayment(CoursePurchaseRequest request, UUID userId) {
-        try {
-            log.info("Creating course purchase payment for user: {} with courses: {}", userId,
-                    request.getCourseIds());
+        log.info("Creating course purchase payment for user: {} with courses: {}", userId,
+                request.getCourseIds());
+
+        // Step 1: Fetch course details from Course Service
+        CourseServiceRequest courseRequest = new CourseServiceRequest(request.getCourseIds());
+        CourseServiceResponse courseResponse = courseServiceClient.getCourseDetails(courseRequest);
 
-            // Step 1: Fetch course details from Course Service
-            CourseServiceRequest courseRequest = new CourseServiceRequest(request.getCourseIds());
-            CourseServiceResponse courseResponse = courseServiceClient.getCourseDetails(courseRequest);
+        return createCoursePurchasePayment(courseResponse, userId);
+    }
 
+    /**
+     * Continues a course purchase once the course details are known. The controller fetches them
+     * with CourseServiceClient.getCourseDetailsAsync and calls this on the checkout executor.
+     */
+    @Transactional
+    public PaymentIntentResponse createCoursePurchasePayment(CourseServiceResponse courseResponse, UUID userId) {
+        try {
             if (courseResponse.getCourses() == null || courseResponse.getCourses().isEmpty()) {
                 throw new RuntimeException("No valid courses found");
             }
@@ -75,6 +90,7 @@ public class PaymentService {
                     .build();
 
             transaction = transactionRepository.save(transaction);
+            revenueLedgerService.recordCreated(transaction);
             log.info("Transaction created with ID: {}", transaction.getId());
 
             // Step 4: Create Stripe PaymentIntent
@@ -122,127 +138,126 @@ public class PaymentService {
         }
     }
 
-        /**
-         * Calculates total revenue as 20% of all PURCHASE and USER_SUBSCRIPTION_PAYMENT transactions (SUCCESS), minus all REFUND transactions (SUCCESS).
-         * Returns a Map with the revenue value.
-         */
-        public java.util.Map<String, Object> getRevenueSummary() {
-            // Get all transactions
-            var transactions = transactionRepository.findAll();
-            java.math.BigDecimal revenue = java.math.BigDecimal.ZERO;
-            java.math.BigDecimal totalIncome = java.math.BigDecimal.ZERO;
-            java.math.BigDecimal totalRefund = java.math.BigDecimal.ZERO;
-
-            int count = 0;
-            for (var tx : transactions) {
-                if (tx.getStatus() != null && tx.getStatus().name().equals("SUCCESS")) {
-                    if (tx.getType() != null && (tx.getType().name().equals("PURCHASE") || tx.getType().name().equals("USER_SUBSCRIPTION_PAYMENT"))) {
-                        totalIncome = totalIncome.add(tx.getAmount().multiply(new java.math.BigDecimal("0.2")));
-                        count++;
-                        log.info("Revenue TX: {} {} {} -> +{}", tx.getId(), tx.getType(), tx.getAmount(), tx.getAmount().multiply(new java.math.BigDecimal("0.2")));
-                    } else if (tx.getType() != null && tx.getType().name().equals("REFUND")) {
-                        totalRefund = totalRefund.add(tx.getAmount().multiply(new java.math.BigDecimal("0.2")));
-                        log.info("Refund TX: {} {} {} -> -{}", tx.getId(), tx.getType(), tx.getAmount(), tx.getAmount().multiply(new java.math.BigDecimal("0.2")));
-                    }
-                }
-            }
-            revenue = totalIncome.subtract(totalRefund);
-            log.info("Total transactions: {} | Revenue income: {} | Refund: {} | Final revenue: {}", transactions.size(), totalIncome, totalRefund, revenue);
-            log.info("Counted revenue transactions: {}", count);
-            
+    /**
+     * Calculates total revenue as 20% of all PURCHASE and USER_SUBSCRIPTION_PAYMENT transactions (SUCCESS), minus all REFUND transactions (SUCCESS).
+     * Reads the running totals from the revenue ledger instead of scanning every transaction.
+     */
+    public java.util.Map<String, Object> getRevenueSummary() {
+        RevenueLedgerService.LedgerSummary summary = revenueLedgerService.getSummary();
+
         java.util.Map<String, Object> result = new java.util.HashMap<>();
-        result.put("totalRevenue", revenue);
+        result.put("totalRevenue", summary.getTotalRevenue());
         return result;
     }
 
     /**
-     * Get all transactions for admin dashboard with user information
+     * Get one page of transactions for admin dashboard, newest first.
+     * The cursor is the opaque nextCursor of the previous page, or null for the first page.
+     * A page costs three queries: transactions, their user purchases and their purchase items.
      */
-    public List<java.util.Map<String, Object>> getAllTransactions() {
-        List<Transaction> transactions = transactionRepository.findAll();
-        List<java.util.Map<String, Object>> result = new java.util.ArrayList<>();
-        
+    @Transactional(readOnly = true)
+    public TransactionPageResponse getTransactionPage(String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_TRANSACTION_PAGE_SIZE);
+
+        List<Transaction> transactions;
+        if (cursor == null || cursor.isBlank()) {
+            transactions = transactionRepository.findFirstPage(pageSize);
+        } else {
+            String[] position = decodeCursor(cursor);
+            try {
+                transactions = transactionRepository.findPageAfter(
+                        LocalDateTime.parse(position[0]), UUID.fromString(position[1]), pageSize);
+            } catch (java.time.format.DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid transaction cursor", e);
+            }
+        }
+
+        String nextCursor = null;
+        if (transactions.size() == pageSize) {
+            Transaction last = transactions.get(transactions.size() - 1);
+            nextCursor = encodeCursor(last);
+        }
+
+        return new TransactionPageResponse(toAdminTransactions(transactions), nextCursor);
+    }
+
+    private List<AdminTransactionResponse> toAdminTransactions(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<UUID> transactionIds = transactions.stream()
+                .map(Transaction::getId)
+                .collect(Collectors.toList());
+
+        Map<UUID, UserPurchase> purchasesByTransaction = userPurchaseRepository.findByTransactionIdIn(transactionIds)
+                .stream()
+                .collect(Collectors.toMap(up -> up.getTransaction().getId(), up -> up));
+
+        Map<UUID, String> descriptionsByPurchase = purchasesByTransaction.isEmpty()
+                ? Collections.emptyMap()
+                : purchaseItemRepository.findCourseNamesByUserPurchaseIds(
+                        purchasesByTransaction.values().stream().map(UserPurchase::getId).toList())
+                        .stream()
+                        .collect(Collectors.groupingBy(
+                                PurchaseItemRepository.CourseNameView::getUserPurchaseId,
+                                Collectors.mapping(PurchaseItemRepository.CourseNameView::getCourseName,
+                                        Collectors.joining(", "))));
+
+        List<AdminTransactionResponse> result = new ArrayList<>(transactions.size());
         for (Transaction transaction : transactions) {
-            java.util.Map<String, Object> transactionData = new java.util.HashMap<>();
-            
-            // Basic transaction info
-            transactionData.put("id", transaction.getId());
-            transactionData.put("type", transaction.getType());
-            transactionData.put("amount", transaction.getAmount());
-            transactionData.put("currency", transaction.getCurrency());
-            transactionData.put("status", transaction.getStatus());
-            transactionData.put("createdAt", transaction.getCreatedAt());
-            
-            // Try to get user information from UserPurchase
-            java.util.Optional<UserPurchase> userPurchaseOpt = userPurchaseRepository.findByTransaction(transaction);
-            if (userPurchaseOpt.isPresent()) {
-                UserPurchase userPurchase = userPurchaseOpt.get();
-                transactionData.put("userId", userPurchase.getUserId());
-                transactionData.put("userName", "User " + userPurchase.getUserId().toString().substring(0, 8));
-                transactionData.put("userEmail", "user@example.com"); // Placeholder - would need user service call
-                
-                // Get purchase items for description
-                List<PurchaseItem> items = purchaseItemRepository.findByUserPurchase(userPurchase);
-                if (!items.isEmpty()) {
-                    String description = items.stream()
-                        .map(PurchaseItem::getCourseName)
-                        .reduce((a, b) -> a + ", " + b)
-                        .orElse("Course purchase");
-                    transactionData.put("description", description);
-                } else {
-                    transactionData.put("description", "Course purchase");
-                }
+            AdminTransactionResponse.AdminTransactionResponseBuilder row = AdminTransactionResponse.builder()
+                    .id(transaction.getId())
+                    .type(transaction.getType())
+                    .amount(transaction.getAmount())
+                    .currency(transaction.getCurrency())
+                    .status(transaction.getStatus())
+                    .createdAt(transaction.getCreatedAt())
+                    .paymentMethod("Credit Card"); // Default value
+
+            UserPurchase userPurchase = purchasesByTransaction.get(transaction.getId());
+            if (userPurchase != null) {
+                row.userId(userPurchase.getUserId())
+                        .userName("User " + userPurchase.getUserId().toString().substring(0, 8))
+                        .userEmail("user@example.com") // Placeholder - would need user service call
+                        .description(descriptionsByPurchase.getOrDefault(userPurchase.getId(), "Course purchase"));
             } else {
-                transactionData.put("userName", "Unknown User");
-                transactionData.put("userEmail", "");
-                transactionData.put("description", transaction.getType().toString());
+                row.userName("Unknown User")
+                        .userEmail("")
+                        .description(transaction.getType().toString());
             }
-            
-            transactionData.put("paymentMethod", "Credit Card"); // Default value
-            
-            result.add(transactionData);
+
+            result.add(row.build());
         }
-        
+
         return result;
     }
 
+    private String encodeCursor(Transaction transaction) {
+        String position = transaction.getCreatedAt() + "|" + transaction.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+        if (position.length != 2) {
+            throw new IllegalArgumentException("Invalid transaction cursor");
+        }
+        return position;
+    }
+
     /**
-     * Get transaction statistics
+     * Get transaction statistics from the revenue ledger
      */
     public java.util.Map<String, Object> getTransactionStats() {
-        List<Transaction> allTransactions = transactionRepository.findAll();
-        
+        RevenueLedgerService.LedgerSummary summary = revenueLedgerService.getSummary();
+
         java.util.Map<String, Object> stats = new java.util.HashMap<>();
-        
-        long totalTransactions = allTransactions.size();
-        long pendingTransactions = allTransactions.stream()
-            .filter(tx -> tx.getStatus() == Transaction.TransactionStatus.PENDING)
-            .count();
-        long failedTransactions = allTransactions.stream()
-            .filter(tx -> tx.getStatus() == Transaction.TransactionStatus.FAILED)
-            .count();
-        
-        // Calculate total revenue (same logic as getRevenueSummary)
-        java.math.BigDecimal totalRevenue = java.math.BigDecimal.ZERO;
-        java.math.BigDecimal totalIncome = java.math.BigDecimal.ZERO;
-        java.math.BigDecimal totalRefund = java.math.BigDecimal.ZERO;
-        
-        for (Transaction tx : allTransactions) {
-            if (tx.getStatus() != null && tx.getStatus() == Transaction.TransactionStatus.SUCCESS) {
-                if (tx.getType() != null && (tx.getType() == Transaction.TransactionType.PURCHASE || tx.getType().name().equals("USER_SUBSCRIPTION_PAYMENT"))) {
-                    totalIncome = totalIncome.add(tx.getAmount().multiply(new java.math.BigDecimal("0.2")));
-                } else if (tx.getType() != null && tx.getType().name().equals("REFUND")) {
-                    totalRefund = totalRefund.add(tx.getAmount().multiply(new java.math.BigDecimal("0.2")));
-                }
-            }
-        }
-        totalRevenue = totalIncome.subtract(totalRefund);
-        
-        stats.put("totalTransactions", totalTransactions);
-        stats.put("pendingTransactions", pendingTransactions);
-        stats.put("failedTransactions", failedTransactions);
-        stats.put("totalRevenue", totalRevenue.doubleValue());
-        
+        stats.put("totalTransactions", summary.getTotalTransactions());
+        stats.put("pendingTransactions", summary.getPendingTransactions());
+        stats.put("failedTransactions", summary.getFailedTransactions());
+        stats.put("totalRevenue", summary.getTotalRevenue().doubleValue());
+
         return stats;
     }
 
@@ -251,7 +266,9 @@ public class PaymentService {
      */
     public Transaction getTransactionById(UUID transactionId) {
         return transactionRepository.findById(transactionId).orElse(null);
-    }    private PaymentIntent createStripePaymentIntent(BigDecimal amount, UUID userId, UUID transactionId)
+    }
+
+    private PaymentIntent createStripePaymentIntent(BigDecimal amount, UUID userId, UUID transactionId)
             throws StripeException {
         // Convert amount to cents (Stripe uses smallest currency unit)
         long amountInCents = amount.multiply(new BigDecimal("100")).longValue();
@@ -282,15 +299,22 @@ public class PaymentService {
             UUID transactionId = UUID.fromString(metadata.get("transaction_id"));
             UUID userId = UUID.fromString(metadata.get("user_id"));
 
-            // Step 1: Update transaction status
-            Transaction transaction = transactionRepository.findById(transactionId)
+            // Step 1: Update transaction status. The row lock serialises the webhook and the reconciler,
+            // so a payment confirmed by both is only fulfilled once.
+            Transaction transaction = transactionRepository.findByIdForUpdate(transactionId)
                     .orElseThrow(() -> new RuntimeException(
                             "Transaction not found: " + transactionId));
 
+            if (transaction.getStatus() == Transaction.TransactionStatus.SUCCESS) {
+                log.info("Transaction {} already marked SUCCESS, skipping", transactionId);
+                return;
+            }
+
+            Transaction.TransactionStatus previousStatus = transaction.getStatus();
             transaction.setStatus(Transaction.TransactionStatus.SUCCESS);
             log.info("transaction status set to SUCCESS for ID: {}", transactionId);
-            log.info(transaction.getStatus().toString());
             transactionRepository.saveAndFlush(transaction);
+            revenueLedgerService.recordStatusChange(transaction, previousStatus);
 
             // Step 2: Update user purchase
             UserPurchase userPurchase = userPurchaseRepository.findByStripePaymentIntentId(paymentIntentId)
@@ -369,12 +393,19 @@ public class PaymentService {
             UUID userId = UUID.fromString(metadata.get("user_id"));
 
             // Step 1: Update transaction status
-            Transaction transaction = transactionRepository.findById(transactionId)
+            Transaction transaction = transactionRepository.findByIdForUpdate(transactionId)
                             .orElseThrow(() -> new RuntimeException(
                                             "Transaction not found: " + transactionId));
 
+            if (transaction.getStatus() != Transaction.TransactionStatus.PENDING) {
+                log.info("Transaction {} is already {}, skipping failure", transactionId, transaction.getStatus());
+                return;
+            }
+
+            Transaction.TransactionStatus previousStatus = transaction.getStatus();
             transaction.setStatus(Transaction.TransactionStatus.FAILED);
             transactionRepository.save(transaction);
+            revenueLedgerService.recordStatusChange(transaction, previousStatus);
 
             // Step 2: Get course names from pending items for notification
             List<PendingPurchaseItem> pendingItems = pendingPurchaseItemRepository
@@ -0,0 +1,125 @@
+package com.levelup.payment_service.service;
+
+import com.levelup.payment_service.model.Transaction;
+import com.levelup.payment_service.repository.RevenueLedgerRepository;
+import com.levelup.payment_service.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the revenue ledger: running transaction counts and amounts per day, type and status.
+ * Every transaction insert or status flip must be recorded here inside the same database transaction,
+ * so the dashboard can read aggregates instead of scanning the transactions table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RevenueLedgerService {
+
+    /** Share of each purchase or subscription payment kept by the platform. */
+    public static final BigDecimal PLATFORM_SHARE = new BigDecimal("0.2");
+
+    private final RevenueLedgerRepository revenueLedgerRepository;
+    private final TransactionRepository transactionRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Transaction transaction) {
+        applyDelta(transaction, transaction.getStatus(), 1, transaction.getAmount());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChange(Transaction transaction, Transaction.TransactionStatus previousStatus) {
+        if (previousStatus == transaction.getStatus()) {
+            return;
+        }
+        applyDelta(transaction, previousStatus, -1, transaction.getAmount().negate());
+        applyDelta(transaction, transaction.getStatus(), 1, transaction.getAmount());
+    }
+
+    @Transactional(readOnly = true)
+    public LedgerSummary getSummary() {
+        List<RevenueLedgerRepository.LedgerTotals> totals = revenueLedgerRepository.sumByTypeAndStatus();
+
+        Map<Transaction.TransactionStatus, Long> countByStatus = new EnumMap<>(Transaction.TransactionStatus.class);
+        BigDecimal totalIncome = BigDecimal.ZERO;
+        BigDecimal totalRefund = BigDecimal.ZERO;
+
+        for (RevenueLedgerRepository.LedgerTotals row : totals) {
+            countByStatus.merge(row.getStatus(), row.getTransactionCount(), Long::sum);
+
+            if (row.getStatus() != Transaction.TransactionStatus.SUCCESS) {
+                continue;
+            }
+            if (row.getType() == Transaction.TransactionType.PURCHASE
+                    || row.getType() == Transaction.TransactionType.USER_SUBSCRIPTION_PAYMENT) {
+                totalIncome = totalIncome.add(row.getTotalAmount());
+            } else if (row.getType() == Transaction.TransactionType.REFUND) {
+                totalRefund = totalRefund.add(row.getTotalAmount());
+            }
+        }
+
+        BigDecimal revenue = totalIncome.subtract(totalRefund).multiply(PLATFORM_SHARE);
+        long totalTransactions = countByStatus.values().stream().mapToLong(Long::longValue).sum();
+
+        return new LedgerSummary(
+                totalTransactions,
+                countByStatus.getOrDefault(Transaction.TransactionStatus.PENDING, 0L),
+                countByStatus.getOrDefault(Transaction.TransactionStatus.FAILED, 0L),
+                revenue);
+    }
+
+    /**
+     * Seeds the ledger on first start after deployment, when transactions exist but no totals do.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void seedLedgerIfEmpty() {
+        if (revenueLedgerRepository.count() == 0 && transactionRepository.count() > 0) {
+            rebuildLedger();
+        }
+    }
+
+    /**
+     * Recomputes the whole ledger from the transactions table. Writers block on the table lock
+     * while the rebuild runs, so no increment is lost or counted twice.
+     */
+    @Scheduled(cron = "${payment.revenue-ledger.rebuild-cron:0 30 3 * * *}")
+    @Transactional
+    public void rebuildLedger() {
+        log.info("Rebuilding revenue ledger from transaction history");
+        revenueLedgerRepository.lockForRebuild();
+        revenueLedgerRepository.clear();
+        int rows = revenueLedgerRepository.rebuildFromTransactions();
+        log.info("Revenue ledger rebuilt with {} rows", rows);
+    }
+
+    private void applyDelta(Transaction transaction, Transaction.TransactionStatus status, long countDelta,
+            BigDecimal amountDelta) {
+        LocalDate ledgerDate = transaction.getCreatedAt() != null
+                ? transaction.getCreatedAt().toLocalDate()
+                : LocalDate.now();
+        revenueLedgerRepository.applyDelta(ledgerDate, transaction.getType().name(), status.name(),
+                countDelta, amountDelta);
+    }
+
+    @Value
+    public static class LedgerSummary {
+        long totalTransactions;
+        long pendingTransactions;
+        long failedTransactions;
+        BigDecimal totalRevenue;
+    }
+}
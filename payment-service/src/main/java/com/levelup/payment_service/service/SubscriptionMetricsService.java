@@ -0,0 +1,148 @@
+package com.levelup.payment_service.service;
+
+import com.levelup.payment_service.model.SubscriptionMetric;
+import com.levelup.payment_service.model.SubscriptionPlan;
+import com.levelup.payment_service.model.UserSubscriptionPayment;
+import com.levelup.payment_service.repository.SubscriptionMetricRepository;
+import com.levelup.payment_service.repository.SubscriptionPlanRepository;
+import com.levelup.payment_service.repository.UserSubscriptionPaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Maintains the subscription_metrics projection (active subscriptions per plan and start day) and serves
+ * the admin subscription analytics from an in-memory snapshot refreshed on a schedule. The start day is the
+ * subscription's analytics creation time ({@link UserSubscriptionPayment#getCreatedAt()}, stored as
+ * first_period_start), the same basis the analytics used before the projection; windows count whole days.
+ * Activations and deactivations must be recorded inside the transaction that changes the subscription status.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SubscriptionMetricsService {
+
+    /** Start day used for subscriptions that have no creation time; it falls outside every reporting window. */
+    private static final LocalDate UNKNOWN_START_DATE = LocalDate.of(1970, 1, 1);
+
+    private final SubscriptionMetricRepository subscriptionMetricRepository;
+    private final SubscriptionPlanRepository subscriptionPlanRepository;
+    private final UserSubscriptionPaymentRepository userSubscriptionPaymentRepository;
+
+    private volatile Map<String, Object> analyticsSnapshot;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordActivated(UserSubscriptionPayment subscription, BigDecimal amount) {
+        subscriptionMetricRepository.applyDelta(subscription.getSubscriptionPlan().getId(), startDateOf(subscription),
+                1, amount);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeactivated(UserSubscriptionPayment subscription) {
+        subscriptionMetricRepository.applyDelta(subscription.getSubscriptionPlan().getId(), startDateOf(subscription),
+                -1, subscription.getTransaction().getAmount().negate());
+    }
+
+    public Map<String, Object> getAnalytics() {
+        Map<String, Object> snapshot = analyticsSnapshot;
+        if (snapshot == null) {
+            snapshot = refreshSnapshot();
+        }
+        return snapshot;
+    }
+
+    @Scheduled(fixedDelayString = "${payment.subscription-metrics.refresh-interval-ms:60000}")
+    @Transactional(readOnly = true)
+    public Map<String, Object> refreshSnapshot() {
+        LocalDate today = LocalDate.now();
+        LocalDate thirtyDaysAgo = today.minusDays(30);
+        LocalDate sixtyDaysAgo = today.minusDays(60);
+        LocalDate yearAgo = today.minusDays(365);
+
+        Map<UUID, Long> activeByPlan = new HashMap<>();
+        for (SubscriptionMetricRepository.PlanTotals totals : subscriptionMetricRepository.sumActiveByPlan()) {
+            activeByPlan.put(totals.getSubscriptionPlanId(), totals.getActiveCount());
+        }
+        long totalSubscribers = activeByPlan.values().stream().mapToLong(Long::longValue).sum();
+
+        long newSubscribersThisMonth = 0;
+        long subscribersLastMonth = 0;
+        BigDecimal monthlyRecurringRevenue = BigDecimal.ZERO;
+        BigDecimal annualRecurringRevenue = BigDecimal.ZERO;
+
+        for (SubscriptionMetric metric : subscriptionMetricRepository.findStartedAfter(yearAgo)) {
+            LocalDate startDate = metric.getId().getStartDate();
+            annualRecurringRevenue = annualRecurringRevenue.add(metric.getActiveAmount());
+            if (startDate.isAfter(thirtyDaysAgo)) {
+                newSubscribersThisMonth += metric.getActiveCount();
+                monthlyRecurringRevenue = monthlyRecurringRevenue.add(metric.getActiveAmount());
+            } else if (startDate.isAfter(sixtyDaysAgo)) {
+                subscribersLastMonth += metric.getActiveCount();
+            }
+        }
+
+        double revenueGrowth = subscribersLastMonth > 0 ?
+            ((double) (newSubscribersThisMonth - subscribersLastMonth) / subscribersLastMonth * 100) : 0;
+
+        // Plan distribution
+        List<Map<String, Object>> planDistribution = new ArrayList<>();
+        for (SubscriptionPlan plan : subscriptionPlanRepository.findAll()) {
+            long planSubscribers = activeByPlan.getOrDefault(plan.getId(), 0L);
+            double percentage = totalSubscribers > 0 ? (planSubscribers * 100.0 / totalSubscribers) : 0;
+            Map<String, Object> planInfo = new HashMap<>();
+            planInfo.put("planId", plan.getId());
+            planInfo.put("planName", plan.getName());
+            planInfo.put("subscribers", planSubscribers);
+            planInfo.put("percentage", Math.round(percentage * 10) / 10.0);
+            planDistribution.add(planInfo);
+        }
+
+        Map<String, Object> analytics = new HashMap<>();
+        analytics.put("totalSubscribers", totalSubscribers);
+        analytics.put("newSubscribersThisMonth", newSubscribersThisMonth);
+        analytics.put("monthlyRecurringRevenue", monthlyRecurringRevenue.doubleValue());
+        analytics.put("annualRecurringRevenue", annualRecurringRevenue.doubleValue());
+        analytics.put("revenueGrowth", Math.round(revenueGrowth * 10) / 10.0);
+        analytics.put("planDistribution", planDistribution);
+
+        Map<String, Object> snapshot = Collections.unmodifiableMap(analytics);
+        analyticsSnapshot = snapshot;
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void seedMetricsIfEmpty() {
+        if (subscriptionMetricRepository.count() == 0 && userSubscriptionPaymentRepository.count() > 0) {
+            rebuildMetrics();
+        }
+    }
+
+    /**
+     * Recomputes the projection from the subscriptions table under a table lock, guarding against drift.
+     */
+    @Scheduled(cron = "${payment.subscription-metrics.rebuild-cron:0 45 3 * * *}")
+    @Transactional
+    public void rebuildMetrics() {
+        log.info("Rebuilding subscription metrics from subscription history");
+        subscriptionMetricRepository.lockForRebuild();
+        subscriptionMetricRepository.clear();
+        int rows = subscriptionMetricRepository.rebuildFromSubscriptions();
+        log.info("Subscription metrics rebuilt with {} rows", rows);
+    }
+
+    private LocalDate startDateOf(UserSubscriptionPayment subscription) {
+        return subscription.getCreatedAt() != null
+                ? subscription.getCreatedAt().toLocalDate()
+                : UNKNOWN_START_DATE;
+    }
+}
@@ -1,5 +1,6 @@
 package com.levelup.payment_service.service;
 
+import com.levelup.payment_service.client.ExternalCallMetrics;
 import com.levelup.payment_service.client.UserServiceClient;
 import com.levelup.payment_service.dto.external.UserDto;
 import com.levelup.payment_service.dto.message.PaymentNotificationMessage;
@@ -21,21 +22,27 @@ import com.levelup.payment_service.repository.UserSubscriptionPaymentRepository;
 import com.stripe.exception.StripeException;
 import com.stripe.model.Customer;
 import com.stripe.model.Invoice;
+import com.stripe.model.PaymentIntent;
 import com.stripe.model.Subscription;
+import com.stripe.param.InvoiceRetrieveParams;
 import com.stripe.param.SubscriptionCreateParams;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 import java.util.Optional;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 @RequiredArgsConstructor
@@ -47,21 +54,27 @@ public class SubscriptionService {
     private final TransactionRepository transactionRepository;
     private final UserServiceClient userServiceClient;
     private final MessagePublisherService messagePublisherService;
+    private final RevenueLedgerService revenueLedgerService;
+    private final SubscriptionMetricsService subscriptionMetricsService;
+    private final ExternalCallMetrics externalCallMetrics;
 
     @Transactional
     public SubscriptionResponse createSubscription(CreateSubscriptionRequest request, UUID userId) {
         try {
             log.info("Creating subscription for user: {} with plan: {}", userId, request.getSubscriptionPlanId());
 
-            // Step 1: Get subscription plan
+            // Step 1: Start the user lookup and load the plan while it is in flight
+            CompletableFuture<UserDto> userLookup = externalCallMetrics.recordAsync("user-service.get-user",
+                    userServiceClient.getUserByIdAsync(userId));
+
             SubscriptionPlan plan = subscriptionPlanRepository
                     .findByIdAndIsActive(request.getSubscriptionPlanId(), true)
                     .orElseThrow(() -> new RuntimeException("Subscription plan not found or inactive"));
 
             // Step 2: Get user details
-            UserDto user = userServiceClient.getUserById(userId);
+            UserDto user = awaitUser(userLookup);
             if (user == null) {
-                throw new RuntimeException("User not found");
+                throw new NoSuchElementException("User not found");
             }
 
             // Step 3: Get or create Stripe customer
@@ -76,33 +89,26 @@ public class SubscriptionService {
                     .build();
 
             transaction = transactionRepository.save(transaction);
+            revenueLedgerService.recordCreated(transaction);
             log.info("Transaction created with ID: {}", transaction.getId());
 
-            // Step 5: Create Stripe subscription
+            // Step 5: Create Stripe subscription (latest invoice and payment intent come back expanded)
             Subscription subscription = createStripeSubscription(stripeCustomerId, plan, userId, transaction.getId());
 
-            // Step 6: Return response with client secret
-            String clientSecret = null;
-            if (subscription.getLatestInvoice() != null) {
-                Invoice invoice = Invoice.retrieve(subscription.getLatestInvoice());
-                if (invoice.getPaymentIntent() != null) {
-                    com.stripe.model.PaymentIntent paymentIntent = com.stripe.model.PaymentIntent
-                            .retrieve(invoice.getPaymentIntent());
-                    clientSecret = paymentIntent.getClientSecret();
-                }
-            }
+            // Step 6: Return response with client secret read from the expanded objects
+            PaymentIntent paymentIntent = getExpandedPaymentIntent(subscription);
 
             return SubscriptionResponse.builder()
-                    .clientSecret(clientSecret)
-                    .paymentIntentId(subscription.getLatestInvoice() != null
-                            ? Invoice.retrieve(subscription.getLatestInvoice()).getPaymentIntent()
-                            : null)
+                    .clientSecret(paymentIntent != null ? paymentIntent.getClientSecret() : null)
+                    .paymentIntentId(paymentIntent != null ? paymentIntent.getId() : null)
                     .subscriptionId(subscription.getId())
                     .planName(plan.getName())
                     .amount(plan.getAmount())
                     .currency("usd")
                     .build();
 
+        } catch (NoSuchElementException e) {
+            throw e;
         } catch (StripeException e) {
             log.error("Stripe error while creating subscription", e);
             throw new RuntimeException("Failed to create subscription", e);
@@ -112,6 +118,21 @@ public class SubscriptionService {
         }
     }
 
+    /**
+     * Waits for the user lookup. join() wraps failures in CompletionException, so the cause is unwrapped here;
+     * a 404 from user-service means the user does not exist and is returned as null.
+     */
+    private static UserDto awaitUser(CompletableFuture<UserDto> userLookup) {
+        try {
+            return userLookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof WebClientResponseException.NotFound) {
+                return null;
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
     private String getOrCreateStripeCustomer(UserDto user) throws StripeException {
         if (user.getStripeCustomerId() != null && !user.getStripeCustomerId().isEmpty()) {
             return user.getStripeCustomerId();
@@ -121,13 +142,16 @@ public class SubscriptionService {
         Map<String, String> metadata = new HashMap<>();
         metadata.put("user_id", user.getId().toString());
 
-        Customer customer = Customer.create(Map.of(
+        Customer customer = externalCallMetrics.record("stripe.customer.create", () -> Customer.create(Map.of(
                 "email", user.getEmail(),
                 "name", user.getFirstName() + " " + user.getLastName(),
-                "metadata", metadata));
+                "metadata", metadata)));
 
         // Update user with Stripe customer ID
-        userServiceClient.updateUserStripeCustomerId(user.getId(), customer.getId());
+        externalCallMetrics.record("user-service.update-stripe-customer", () -> {
+            userServiceClient.updateUserStripeCustomerId(user.getId(), customer.getId());
+            return null;
+        });
 
         return customer.getId();
     }
@@ -150,7 +174,27 @@ public class SubscriptionService {
                 .putAllMetadata(metadata)
                 .build();
 
-        return Subscription.create(params);
+        return externalCallMetrics.record("stripe.subscription.create", () -> Subscription.create(params));
+    }
+
+    /**
+     * Reads the payment intent from the expanded latest invoice. Only falls back to one extra
+     * Stripe call if the create response came back without the expansion.
+     */
+    private PaymentIntent getExpandedPaymentIntent(Subscription subscription) throws StripeException {
+        if (subscription.getLatestInvoice() == null) {
+            return null;
+        }
+
+        Invoice invoice = subscription.getLatestInvoiceObject();
+        if (invoice == null) {
+            log.warn("Latest invoice of subscription {} was not expanded, retrieving it", subscription.getId());
+            InvoiceRetrieveParams params = InvoiceRetrieveParams.builder().addExpand("payment_intent").build();
+            invoice = externalCallMetrics.record("stripe.invoice.retrieve",
+                    () -> Invoice.retrieve(subscription.getLatestInvoice(), params, null));
+        }
+
+        return invoice.getPaymentIntentObject();
     }
 
     @Transactional
@@ -180,6 +224,7 @@ public class SubscriptionService {
             subscription.setCanceledAt(LocalDateTime.now());
             subscription.setIsAutoRenew(false);
             userSubscriptionPaymentRepository.save(subscription);
+            subscriptionMetricsService.recordDeactivated(subscription);
 
             // Send user subscription message (set is_subscribed = false)
             sendUserSubscriptionMessage(subscription.getUserId(), false, "CANCELED");
@@ -269,6 +314,7 @@ public class SubscriptionService {
                         .build();
 
                 transactionRepository.save(refundTransaction);
+                revenueLedgerService.recordCreated(refundTransaction);
                 log.info("Refund transaction created with ID: {}", refundTransaction.getId());
 
                 // Update subscription
@@ -277,6 +323,7 @@ public class SubscriptionService {
                 subscription.setCanceledAt(LocalDateTime.now());
                 subscription.setIsAutoRenew(false);
                 userSubscriptionPaymentRepository.save(subscription);
+                subscriptionMetricsService.recordDeactivated(subscription);
 
                 // Cancel subscription in Stripe
                 com.stripe.model.Subscription.retrieve(subscription.getStripeSubscriptionId()).cancel();
@@ -551,88 +598,13 @@ public class SubscriptionService {
         }
     }
 
+    /**
+     * Served from the subscription metrics snapshot rather than scanning every subscription.
+     */
     public java.util.Map<String, Object> getSubscriptionAnalytics() {
-        java.util.Map<String, Object> analytics = new java.util.HashMap<>();
-        java.util.List<UserSubscriptionPayment> allSubscriptions = userSubscriptionPaymentRepository.findAll();
-        java.util.List<com.levelup.payment_service.model.SubscriptionPlan> allPlans = subscriptionPlanRepository.findAll();
-
-        // Total subscribers (active)
-        long totalSubscribers = allSubscriptions.stream()
-            .filter(sub -> sub.getStatus() == com.levelup.payment_service.model.UserSubscriptionPayment.SubscriptionStatus.ACTIVE)
-            .count();
-
-        // New subscribers this month
-        java.time.LocalDateTime thirtyDaysAgo = java.time.LocalDateTime.now().minusDays(30);
-        long newSubscribersThisMonth = allSubscriptions.stream()
-            .filter(sub -> {
-                java.time.LocalDateTime createdAt = sub.getCreatedAt();
-                return createdAt != null &&
-                    createdAt.isAfter(thirtyDaysAgo) &&
-                    sub.getStatus() == com.levelup.payment_service.model.UserSubscriptionPayment.SubscriptionStatus.ACTIVE;
-            })
-            .count();
-
-        // Monthly recurring revenue (active subscriptions in last 30 days)
-        java.math.BigDecimal monthlyRecurringRevenue = allSubscriptions.stream()
-            .filter(sub -> sub.getStatus() == com.levelup.payment_service.model.UserSubscriptionPayment.SubscriptionStatus.ACTIVE)
-            .filter(sub -> {
-                java.time.LocalDateTime createdAt = sub.getCreatedAt();
-                return createdAt != null && createdAt.isAfter(thirtyDaysAgo);
-            })
-            .map(sub -> sub.getTransaction().getAmount())
-            .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
-
-        // Annual recurring revenue (active subscriptions in last 365 days)
-        java.time.LocalDateTime yearAgo = java.time.LocalDateTime.now().minusDays(365);
-        java.math.BigDecimal annualRecurringRevenue = allSubscriptions.stream()
-            .filter(sub -> sub.getStatus() == com.levelup.payment_service.model.UserSubscriptionPayment.SubscriptionStatus.ACTIVE)
-            .filter(sub -> {
-                java.time.LocalDateTime createdAt = sub.getCreatedAt();
-                return createdAt != null && createdAt.isAfter(yearAgo);
-            })
-            .map(sub -> sub.getTransaction().getAmount())
-            .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
-
-        // Revenue growth (this month vs last month)
-        java.time.LocalDateTime sixtyDaysAgo = java.time.LocalDateTime.now().minusDays(60);
-        long subscribersLastMonth = allSubscriptions.stream()
-            .filter(sub -> {
-                java.time.LocalDateTime createdAt = sub.getCreatedAt();
-                return createdAt != null &&
-                    createdAt.isAfter(sixtyDaysAgo) &&
-                    createdAt.isBefore(thirtyDaysAgo) &&
-                    sub.getStatus() == com.levelup.payment_service.model.UserSubscriptionPayment.SubscriptionStatus.ACTIVE;
-            })
-            .count();
-        double revenueGrowth = subscribersLastMonth > 0 ?
-            ((double) (newSubscribersThisMonth - subscribersLastMonth) / subscribersLastMonth * 100) : 0;
-
-        // Plan distribution
-        java.util.List<java.util.Map<String, Object>> planDistribution = new java.util.ArrayList<>();
-        for (com.levelup.payment_service.model.SubscriptionPlan plan : allPlans) {
-            long planSubscribers = allSubscriptions.stream()
-                .filter(sub -> sub.getSubscriptionPlan().getId().equals(plan.getId()))
-                .filter(sub -> sub.getStatus() == com.levelup.payment_service.model.UserSubscriptionPayment.SubscriptionStatus.ACTIVE)
-                .count();
-            double percentage = totalSubscribers > 0 ? (planSubscribers * 100.0 / totalSubscribers) : 0;
-            java.util.Map<String, Object> planInfo = new java.util.HashMap<>();
-            planInfo.put("planId", plan.getId());
-            planInfo.put("planName", plan.getName());
-            planInfo.put("subscribers", planSubscribers);
-            planInfo.put("percentage", Math.round(percentage * 10) / 10.0);
-            planDistribution.add(planInfo);
-        }
-
-        analytics.put("totalSubscribers", totalSubscribers);
-        analytics.put("newSubscribersThisMonth", newSubscribersThisMonth);
-        analytics.put("monthlyRecurringRevenue", monthlyRecurringRevenue.doubleValue());
-        analytics.put("annualRecurringRevenue", annualRecurringRevenue.doubleValue());
-        analytics.put("revenueGrowth", Math.round(revenueGrowth * 10) / 10.0);
-        analytics.put("planDistribution", planDistribution);
-
-        return analytics;
+        return subscriptionMetricsService.getAnalytics();
     }
-  
+
     public SubscriptionResponse getUserSubscription(UUID currentUserId) {
         return userSubscriptionPaymentRepository
                 .findByUserIdAndStatus(currentUserId, UserSubscriptionPayment.SubscriptionStatus.ACTIVE)
@@ -31,6 +31,8 @@ public class SubscriptionWebhookService {
     private final SubscriptionPlanRepository subscriptionPlanRepository;
     private final MessagePublisherService messagePublisherService;
     private final SubscriptionService subscriptionService;
+    private final RevenueLedgerService revenueLedgerService;
+    private final SubscriptionMetricsService subscriptionMetricsService;
 
     @Transactional
     public void handleInvoicePaymentSucceeded(Event event) {
@@ -150,8 +152,10 @@ public class SubscriptionWebhookService {
         Transaction transaction = transactionRepository.findById(transactionId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
 
+        Transaction.TransactionStatus previousStatus = transaction.getStatus();
         transaction.setStatus(Transaction.TransactionStatus.SUCCESS);
         transactionRepository.save(transaction);
+        revenueLedgerService.recordStatusChange(transaction, previousStatus);
 
         // Get period dates from line items (correct dates)
         long periodStart = invoice.getPeriodStart();
@@ -185,6 +189,7 @@ public class SubscriptionWebhookService {
         subscription.getSubscriptionPlan().setId(subscriptionPlanId);
 
         userSubscriptionPaymentRepository.save(subscription);
+        subscriptionMetricsService.recordActivated(subscription, transaction.getAmount());
 
         log.info("Subscription saved with subscription_id: {}, period: {} to {}",
                 subscriptionId, periodStart, periodEnd);
@@ -206,6 +211,7 @@ public class SubscriptionWebhookService {
                 .build();
 
         transactionRepository.save(renewalTransaction);
+        revenueLedgerService.recordCreated(renewalTransaction);
 
         // Create renewal record
         Renewal renewal = Renewal.builder()
@@ -235,8 +241,10 @@ public class SubscriptionWebhookService {
             Transaction transaction = transactionRepository.findById(transactionId).orElse(null);
 
             if (transaction != null) {
+                Transaction.TransactionStatus previousStatus = transaction.getStatus();
                 transaction.setStatus(Transaction.TransactionStatus.FAILED);
                 transactionRepository.save(transaction);
+                revenueLedgerService.recordStatusChange(transaction, previousStatus);
             }
         }
 
@@ -267,6 +275,7 @@ public class SubscriptionWebhookService {
                 .build();
 
         transactionRepository.save(renewalTransaction);
+        revenueLedgerService.recordCreated(renewalTransaction);
 
         // Create renewal record with retry info
         Integer attemptCount = invoice.getAttemptCount() != null ? invoice.getAttemptCount().intValue() : 1;
@@ -294,10 +303,14 @@ public class SubscriptionWebhookService {
             // Cancel subscription and set is_subscribed = false
             try {
                 com.stripe.model.Subscription.retrieve(subscription.getStripeSubscriptionId()).cancel();
+                boolean wasActive = subscription.getStatus() == UserSubscriptionPayment.SubscriptionStatus.ACTIVE;
                 subscription.setStatus(UserSubscriptionPayment.SubscriptionStatus.CANCELED);
                 subscription.setCanceledAt(LocalDateTime.now());
                 subscription.setIsAutoRenew(false);
                 userSubscriptionPaymentRepository.save(subscription);
+                if (wasActive) {
+                    subscriptionMetricsService.recordDeactivated(subscription);
+                }
 
                 // Send user subscription message (set is_subscribed = false)
                 sendUserSubscriptionMessage(subscription.getUserId(), false, "CANCELED");
@@ -0,0 +1,133 @@
+package com.levelup.payment_service.service;
+
+import com.levelup.payment_service.model.StripeWebhookEvent;
+import com.levelup.payment_service.repository.StripeWebhookEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Durable inbox for verified Stripe webhook events. Events are stored once per Stripe event id
+ * and later claimed in batches by WebhookInboxWorker.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookInboxService {
+
+    private final StripeWebhookEventRepository stripeWebhookEventRepository;
+
+    @Value("${payment.webhook.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${payment.webhook.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${payment.webhook.base-backoff-ms:2000}")
+    private long baseBackoffMs;
+
+    @Value("${payment.webhook.max-backoff-ms:600000}")
+    private long maxBackoffMs;
+
+    @Value("${payment.webhook.retention-days:30}")
+    private int retentionDays;
+
+    /**
+     * Stores the event unless it was already received. The unique constraint on stripe_event_id
+     * rejects concurrent duplicates that slip past the existence check.
+     *
+     * @return false when the event is a duplicate delivery
+     */
+    @Transactional
+    public boolean enqueue(String stripeEventId, String eventType, String orderingKey, String payload) {
+        if (stripeWebhookEventRepository.existsByStripeEventId(stripeEventId)) {
+            log.info("Duplicate Stripe event {} ignored", stripeEventId);
+            return false;
+        }
+
+        StripeWebhookEvent inboxEvent = StripeWebhookEvent.builder()
+                .stripeEventId(stripeEventId)
+                .eventType(eventType)
+                .orderingKey(orderingKey)
+                .payload(payload)
+                .status(StripeWebhookEvent.InboxStatus.PENDING)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+
+        stripeWebhookEventRepository.saveAndFlush(inboxEvent);
+        log.info("Stripe event {} ({}) stored in inbox", stripeEventId, eventType);
+        return true;
+    }
+
+    /**
+     * Claims up to {@code limit} due events and leases them to the caller.
+     */
+    @Transactional
+    public List<StripeWebhookEvent> claimDueEvents(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<StripeWebhookEvent> events = stripeWebhookEventRepository.lockDueEvents(now, limit);
+
+        for (StripeWebhookEvent event : events) {
+            event.setStatus(StripeWebhookEvent.InboxStatus.PROCESSING);
+            event.setAttempts(event.getAttempts() + 1);
+            event.setNextAttemptAt(now.plusNanos(leaseMs * 1_000_000));
+        }
+        return events;
+    }
+
+    @Transactional
+    public void markProcessed(UUID id) {
+        stripeWebhookEventRepository.findById(id).ifPresent(event -> {
+            event.setStatus(StripeWebhookEvent.InboxStatus.PROCESSED);
+            event.setProcessedAt(LocalDateTime.now());
+            event.setLastError(null);
+        });
+    }
+
+    /**
+     * Schedules a retry with exponential backoff, or parks the event as FAILED after the last attempt.
+     *
+     * @return true when the event will be retried
+     */
+    @Transactional
+    public boolean markFailed(UUID id, String error) {
+        StripeWebhookEvent event = stripeWebhookEventRepository.findById(id).orElse(null);
+        if (event == null) {
+            return false;
+        }
+
+        event.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+
+        if (event.getAttempts() >= maxAttempts) {
+            event.setStatus(StripeWebhookEvent.InboxStatus.FAILED);
+            log.error("Stripe event {} failed after {} attempts", event.getStripeEventId(), event.getAttempts());
+            return false;
+        }
+
+        long backoffMs = Math.min(maxBackoffMs, baseBackoffMs << Math.min(event.getAttempts() - 1, 20));
+        event.setStatus(StripeWebhookEvent.InboxStatus.PENDING);
+        event.setNextAttemptAt(LocalDateTime.now().plusNanos(backoffMs * 1_000_000));
+        log.warn("Stripe event {} attempt {} failed, retrying in {} ms",
+                event.getStripeEventId(), event.getAttempts(), backoffMs);
+        return true;
+    }
+
+    /**
+     * Deletes processed events past the retention window. The stripe_event_id of a purged event no longer
+     * deduplicates, but Stripe stops retrying deliveries long before the window ends.
+     */
+    @Scheduled(cron = "${payment.webhook.purge-cron:0 15 4 * * *}")
+    @Transactional
+    public void purgeProcessedEvents() {
+        int deleted = stripeWebhookEventRepository.deleteProcessedBefore(
+                StripeWebhookEvent.InboxStatus.PROCESSED, LocalDateTime.now().minusDays(retentionDays));
+        log.info("Purged {} processed Stripe webhook events", deleted);
+    }
+}
@@ -0,0 +1,123 @@
+package com.levelup.payment_service.service;
+
+import com.levelup.payment_service.model.StripeWebhookEvent;
+import com.levelup.payment_service.repository.StripeWebhookEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the Stripe webhook inbox on a bounded worker pool and publishes inbox metrics.
+ */
+@Component
+@Slf4j
+public class WebhookInboxWorker {
+
+    private static final List<StripeWebhookEvent.InboxStatus> OPEN_STATUSES = List.of(
+            StripeWebhookEvent.InboxStatus.PENDING, StripeWebhookEvent.InboxStatus.PROCESSING);
+
+    private final WebhookInboxService webhookInboxService;
+    private final WebhookService webhookService;
+    private final StripeWebhookEventRepository stripeWebhookEventRepository;
+    private final ThreadPoolTaskExecutor webhookWorkerExecutor;
+    private final Semaphore permits;
+
+    private final AtomicLong openEvents = new AtomicLong();
+    private final AtomicLong oldestOpenEventAgeSeconds = new AtomicLong();
+    private final Counter processedCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Timer processingTimer;
+
+    public WebhookInboxWorker(WebhookInboxService webhookInboxService,
+            WebhookService webhookService,
+            StripeWebhookEventRepository stripeWebhookEventRepository,
+            @Qualifier("webhookWorkerExecutor") ThreadPoolTaskExecutor webhookWorkerExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${payment.webhook.worker-threads:4}") int workerThreads) {
+        this.webhookInboxService = webhookInboxService;
+        this.webhookService = webhookService;
+        this.stripeWebhookEventRepository = stripeWebhookEventRepository;
+        this.webhookWorkerExecutor = webhookWorkerExecutor;
+        this.permits = new Semaphore(workerThreads * 2);
+
+        Gauge.builder("stripe.webhook.inbox.open", openEvents, AtomicLong::get)
+                .description("Inbox events waiting for or under processing")
+                .register(meterRegistry);
+        Gauge.builder("stripe.webhook.inbox.lag.seconds", oldestOpenEventAgeSeconds, AtomicLong::get)
+                .description("Age of the oldest unprocessed inbox event")
+                .register(meterRegistry);
+        this.processedCounter = meterRegistry.counter("stripe.webhook.inbox.events", "outcome", "processed");
+        this.retriedCounter = meterRegistry.counter("stripe.webhook.inbox.events", "outcome", "retried");
+        this.failedCounter = meterRegistry.counter("stripe.webhook.inbox.events", "outcome", "failed");
+        this.processingTimer = meterRegistry.timer("stripe.webhook.inbox.processing");
+    }
+
+    @Scheduled(fixedDelayString = "${payment.webhook.poll-interval-ms:500}")
+    public void drainInbox() {
+        int available = permits.drainPermits();
+        if (available == 0) {
+            return;
+        }
+
+        List<StripeWebhookEvent> events;
+        try {
+            events = webhookInboxService.claimDueEvents(available);
+        } catch (Exception e) {
+            permits.release(available);
+            log.error("Failed to claim Stripe webhook events", e);
+            return;
+        }
+        permits.release(available - events.size());
+
+        for (StripeWebhookEvent event : events) {
+            webhookWorkerExecutor.execute(() -> {
+                try {
+                    process(event);
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.webhook.metrics-interval-ms:15000}")
+    public void refreshInboxMetrics() {
+        openEvents.set(stripeWebhookEventRepository.countByStatusIn(OPEN_STATUSES));
+        LocalDateTime oldest = stripeWebhookEventRepository.findOldestReceivedAt(OPEN_STATUSES);
+        oldestOpenEventAgeSeconds.set(oldest != null
+                ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).getSeconds())
+                : 0);
+    }
+
+    private void process(StripeWebhookEvent event) {
+        Timer.Sample sample = Timer.start();
+        try {
+            webhookService.dispatch(event.getPayload());
+            webhookInboxService.markProcessed(event.getId());
+            processedCounter.increment();
+        } catch (Exception e) {
+            log.error("Error processing Stripe event {} ({})", event.getStripeEventId(), event.getEventType(), e);
+            if (webhookInboxService.markFailed(event.getId(), e.getMessage())) {
+                retriedCounter.increment();
+            } else {
+                failedCounter.increment();
+            }
+        } finally {
+            sample.stop(processingTimer);
+        }
+    }
+}
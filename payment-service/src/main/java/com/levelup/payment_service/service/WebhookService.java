@@ -1,6 +1,7 @@
 package com.levelup.payment_service.service;
 
-import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.stripe.exception.SignatureVerificationException;
 import com.stripe.model.*;
 import com.stripe.net.ApiResource;
@@ -8,6 +9,7 @@ import com.stripe.net.Webhook;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
@@ -22,46 +24,97 @@ public class WebhookService {
 
     private final PaymentService paymentService;
     private final SubscriptionWebhookService subscriptionWebhookService;
+    private final WebhookInboxService webhookInboxService;
 
+    /**
+     * Verifies the signature and stores the event in the inbox. Processing happens later on
+     * WebhookInboxWorker threads, so Stripe gets its 2xx without waiting on our database or broker.
+     */
     public void handleStripeWebhook(String payload, String sigHeader) {
         try {
-            // log.info("this is payload: " + payload);
             // Verify webhook signature
             Event event = Webhook.constructEvent(payload, sigHeader, webhookSecret);
 
-            log.info("Event created successfully");
+            log.info("Received Stripe webhook event: {} ({})", event.getId(), event.getType());
 
-            log.info("Received Stripe webhook event: {}", event.getType());
-
-            switch (event.getType()) {
-                // Payment Intent events (for course purchases)
-                case "payment_intent.succeeded":
-
-                    handlePaymentIntentSucceeded(event);
-                    break;
-                case "payment_intent.payment_failed":
-                    handlePaymentIntentFailed(event);
-                    break;
-
-                // Subscription events
-                case "invoice.payment_succeeded":
-                    subscriptionWebhookService.handleInvoicePaymentSucceeded(event);
-                    break;
-                case "invoice.payment_failed":
-                    subscriptionWebhookService.handleInvoicePaymentFailed(event);
-                    break;
-
-                default:
-                    log.warn("Unhandled event type: {}", event.getType());
-            }
+            webhookInboxService.enqueue(event.getId(), event.getType(), extractOrderingKey(event), payload);
 
         } catch (SignatureVerificationException e) {
             log.error("Invalid signature for webhook", e);
             throw new RuntimeException("Invalid webhook signature", e);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent delivery of the same event won the insert
+            log.info("Duplicate Stripe webhook delivery ignored");
+        } catch (Exception e) {
+            log.error("Error storing webhook", e);
+            throw new RuntimeException("Error storing webhook", e);
+        }
+    }
+
+    /**
+     * Processes an event previously stored in the inbox. Called by WebhookInboxWorker.
+     */
+    public void dispatch(String payload) {
+        Event event = ApiResource.GSON.fromJson(payload, Event.class);
+
+        log.info("Processing Stripe webhook event: {} ({})", event.getId(), event.getType());
+
+        switch (event.getType()) {
+            // Payment Intent events (for course purchases)
+            case "payment_intent.succeeded":
+                handlePaymentIntentSucceeded(event);
+                break;
+            case "payment_intent.payment_failed":
+                handlePaymentIntentFailed(event);
+                break;
+
+            // Subscription events
+            case "invoice.payment_succeeded":
+                subscriptionWebhookService.handleInvoicePaymentSucceeded(event);
+                break;
+            case "invoice.payment_failed":
+                subscriptionWebhookService.handleInvoicePaymentFailed(event);
+                break;
+
+            default:
+                log.warn("Unhandled event type: {}", event.getType());
+        }
+    }
+
+    /**
+     * Picks the Stripe subscription, else the customer, else our user id as the key that orders
+     * processing of related events.
+     */
+    private String extractOrderingKey(Event event) {
+        try {
+            JsonObject object = JsonParser.parseString(event.getDataObjectDeserializer().getRawJson())
+                    .getAsJsonObject();
+
+            if (object.has("parent") && object.get("parent").isJsonObject()) {
+                JsonObject parent = object.getAsJsonObject("parent");
+                if (parent.has("subscription_details") && parent.get("subscription_details").isJsonObject()) {
+                    JsonObject details = parent.getAsJsonObject("subscription_details");
+                    if (details.has("subscription") && !details.get("subscription").isJsonNull()) {
+                        return details.get("subscription").getAsString();
+                    }
+                }
+            }
+            if (object.has("subscription") && object.get("subscription").isJsonPrimitive()) {
+                return object.get("subscription").getAsString();
+            }
+            if (object.has("customer") && object.get("customer").isJsonPrimitive()) {
+                return object.get("customer").getAsString();
+            }
+            if (object.has("metadata") && object.get("metadata").isJsonObject()) {
+                JsonObject metadata = object.getAsJsonObject("metadata");
+                if (metadata.has("user_id") && metadata.get("user_id").isJsonPrimitive()) {
+                    return "user:" + metadata.get("user_id").getAsString();
+                }
+            }
         } catch (Exception e) {
-            log.error("Error processing webhook", e);
-            throw new RuntimeException("Error processing webhook", e);
+            log.warn("Could not extract ordering key from event {}", event.getId(), e);
         }
+        return null;
     }
 
     private void handlePaymentIntentSucceeded(Event event) {
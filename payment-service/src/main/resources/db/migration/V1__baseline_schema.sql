@@ -0,0 +1,121 @@
+-- Baseline schema, matching what hibernate ddl-auto produced before migrations were introduced.
+-- Every statement is idempotent so databases created by ddl-auto can be migrated in place.
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id         UUID           NOT NULL PRIMARY KEY,
+    type       VARCHAR(30)    NOT NULL,
+    amount     NUMERIC(12, 2) NOT NULL,
+    currency   VARCHAR(3)     NOT NULL,
+    status     VARCHAR(20)    NOT NULL,
+    created_at TIMESTAMP(6)   NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS userpurchases (
+    id                       UUID         NOT NULL PRIMARY KEY,
+    transaction_id           UUID         NOT NULL UNIQUE REFERENCES transactions (id),
+    stripe_payment_intent_id VARCHAR(255),
+    purchased_at             TIMESTAMP(6),
+    user_id                  UUID         NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS purchase_items (
+    id              UUID         NOT NULL PRIMARY KEY,
+    userpurchase_id UUID         NOT NULL REFERENCES userpurchases (id),
+    course_id       UUID         NOT NULL,
+    course_name     VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS pending_purchase_items (
+    id                       UUID           NOT NULL PRIMARY KEY,
+    stripe_payment_intent_id VARCHAR(255)   NOT NULL,
+    course_id                UUID           NOT NULL,
+    course_name              VARCHAR(255)   NOT NULL,
+    course_price             NUMERIC(38, 2) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS subscription_plans (
+    id              UUID           NOT NULL PRIMARY KEY,
+    name            VARCHAR(100)   NOT NULL,
+    amount          NUMERIC(12, 2) NOT NULL,
+    billing_cycle   VARCHAR(20)    NOT NULL,
+    is_active       BOOLEAN        NOT NULL,
+    features        JSONB,
+    stripe_price_id VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS user_subscription_payments (
+    id                     UUID         NOT NULL PRIMARY KEY,
+    transaction_id         UUID         NOT NULL UNIQUE REFERENCES transactions (id),
+    subscription_plan_id   UUID         NOT NULL REFERENCES subscription_plans (id),
+    user_id                UUID         NOT NULL,
+    stripe_subscription_id VARCHAR(255),
+    stripe_invoice_id      VARCHAR(255),
+    stripe_refund_id       VARCHAR(255),
+    first_period_start     TIMESTAMP(6),
+    first_period_end       TIMESTAMP(6),
+    canceled_at            TIMESTAMP(6),
+    after_renewal_end      TIMESTAMP(6),
+    is_auto_renew          BOOLEAN      NOT NULL,
+    status                 VARCHAR(20)  NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS renewals (
+    id                      UUID         NOT NULL PRIMARY KEY,
+    transaction_id          UUID         NOT NULL UNIQUE REFERENCES transactions (id),
+    stripe_subscription_id  VARCHAR(255),
+    stripe_invoice_id       VARCHAR(255),
+    retry_count             INTEGER      NOT NULL,
+    status                  VARCHAR(20)  NOT NULL,
+    next_payment_attempt_at TIMESTAMP(6),
+    renewal_date            TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS revenue_ledger (
+    ledger_date       DATE           NOT NULL,
+    type              VARCHAR(30)    NOT NULL,
+    status            VARCHAR(20)    NOT NULL,
+    transaction_count BIGINT         NOT NULL,
+    total_amount      NUMERIC(19, 2) NOT NULL,
+    PRIMARY KEY (ledger_date, type, status)
+);
+
+CREATE TABLE IF NOT EXISTS subscription_metrics (
+    subscription_plan_id UUID           NOT NULL,
+    start_date           DATE           NOT NULL,
+    active_count         BIGINT         NOT NULL,
+    active_amount        NUMERIC(19, 2) NOT NULL,
+    PRIMARY KEY (subscription_plan_id, start_date)
+);
+
+CREATE TABLE IF NOT EXISTS stripe_webhook_events (
+    id              UUID          NOT NULL PRIMARY KEY,
+    stripe_event_id VARCHAR(255)  NOT NULL UNIQUE,
+    event_type      VARCHAR(100)  NOT NULL,
+    ordering_key    VARCHAR(255),
+    payload         TEXT          NOT NULL,
+    status          VARCHAR(20)   NOT NULL,
+    attempts        INTEGER       NOT NULL,
+    next_attempt_at TIMESTAMP(6)  NOT NULL,
+    last_error      VARCHAR(1000),
+    received_at     TIMESTAMP(6)  NOT NULL,
+    processed_at    TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_stripe_webhook_events_status_next_attempt
+    ON stripe_webhook_events (status, next_attempt_at);
+CREATE INDEX IF NOT EXISTS idx_stripe_webhook_events_ordering_key
+    ON stripe_webhook_events (ordering_key, received_at);
+
+CREATE TABLE IF NOT EXISTS outbox_messages (
+    id              UUID         NOT NULL PRIMARY KEY,
+    exchange        VARCHAR(255) NOT NULL,
+    routing_key     VARCHAR(255) NOT NULL,
+    type_id         VARCHAR(255),
+    body            TEXT         NOT NULL,
+    attempts        INTEGER      NOT NULL,
+    next_attempt_at TIMESTAMP(6) NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_messages_next_attempt
+    ON outbox_messages (next_attempt_at, created_at);
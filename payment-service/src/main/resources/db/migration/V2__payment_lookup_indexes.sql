@@ -0,0 +1,29 @@
+-- Indexes for the webhook, checkout, reconciliation and admin listing lookup paths.
+
+-- One purchase per Stripe PaymentIntent; also serves findByStripePaymentIntentId
+CREATE UNIQUE INDEX IF NOT EXISTS uq_userpurchases_stripe_payment_intent_id
+    ON userpurchases (stripe_payment_intent_id);
+
+CREATE INDEX IF NOT EXISTS idx_pending_purchase_items_payment_intent
+    ON pending_purchase_items (stripe_payment_intent_id);
+
+CREATE INDEX IF NOT EXISTS idx_purchase_items_userpurchase
+    ON purchase_items (userpurchase_id);
+
+CREATE INDEX IF NOT EXISTS idx_user_subscription_payments_stripe_subscription
+    ON user_subscription_payments (stripe_subscription_id);
+
+CREATE INDEX IF NOT EXISTS idx_user_subscription_payments_user_status
+    ON user_subscription_payments (user_id, status);
+
+-- Keyset paging for the admin transaction listing and export
+CREATE INDEX IF NOT EXISTS idx_transactions_created_at_id
+    ON transactions (created_at, id);
+
+-- Oldest-first scan of PENDING transactions by the Stripe reconciler
+CREATE INDEX IF NOT EXISTS idx_transactions_status_created_at_id
+    ON transactions (status, created_at, id);
+
+-- Retention purge of processed inbox events
+CREATE INDEX IF NOT EXISTS idx_stripe_webhook_events_status_processed_at
+    ON stripe_webhook_events (status, processed_at);
@@ -0,0 +1,8 @@
+-- Per-user publishing order for the outbox relay.
+
+ALTER TABLE outbox_messages ADD COLUMN IF NOT EXISTS ordering_key VARCHAR(255);
+ALTER TABLE outbox_messages ADD COLUMN IF NOT EXISTS ordering_hash INTEGER NOT NULL DEFAULT 0;
+
+-- Holds back later messages of a key while an earlier one waits for a retry
+CREATE INDEX IF NOT EXISTS idx_outbox_messages_ordering_key
+    ON outbox_messages (ordering_key, next_attempt_at);
@@ -0,0 +1,115 @@
+package com.levelup.payment_service.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.levelup.payment_service.config.WebClientConfig;
+import com.levelup.payment_service.dto.external.CourseDto;
+import com.levelup.payment_service.dto.external.CourseServiceRequest;
+import com.levelup.payment_service.dto.external.CourseServiceResponse;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Calls a local course-service stub through the course WebClient and checks what goes over the wire.
+ */
+@DisplayName("CourseServiceClient wire format tests")
+class CourseServiceClientTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final ObjectMapper CBOR = new CBORMapper();
+
+    private static final AtomicReference<String> REQUEST_CONTENT_TYPE = new AtomicReference<>();
+    private static final AtomicReference<String> REQUEST_ACCEPT = new AtomicReference<>();
+    private static final AtomicBoolean ANSWER_CBOR = new AtomicBoolean();
+    private static final HttpServer COURSE_SERVICE = startCourseServiceStub();
+
+    private CourseServiceClient client;
+
+    @BeforeEach
+    void createClient() {
+        WebClient webClient = new WebClientConfig().courseServiceWebClient(WebClient.builder(),
+                "http://localhost:" + COURSE_SERVICE.getAddress().getPort());
+        client = new CourseServiceClient(webClient, Caffeine.newBuilder().buildAsync());
+    }
+
+    @AfterAll
+    static void stopCourseServiceStub() {
+        COURSE_SERVICE.stop(0);
+    }
+
+    @Test
+    @DisplayName("Request body is sent as JSON while CBOR is preferred for the response")
+    void sendsJsonAndReadsCbor() {
+        ANSWER_CBOR.set(true);
+        UUID courseId = UUID.randomUUID();
+
+        CourseServiceResponse response = client.getCourseDetails(new CourseServiceRequest(List.of(courseId)));
+
+        assertEquals("application/json", REQUEST_CONTENT_TYPE.get());
+        assertTrue(REQUEST_ACCEPT.get().startsWith("application/cbor"));
+        assertEquals(1, response.getCourses().size());
+        assertEquals(courseId, response.getCourses().get(0).getId());
+    }
+
+    @Test
+    @DisplayName("A course-service that only speaks JSON is still understood")
+    void readsJsonFromOlderCourseService() {
+        ANSWER_CBOR.set(false);
+        UUID courseId = UUID.randomUUID();
+
+        CourseServiceResponse response = client.getCourseDetails(new CourseServiceRequest(List.of(courseId)));
+
+        assertEquals("application/json", REQUEST_CONTENT_TYPE.get());
+        assertEquals(courseId, response.getCourses().get(0).getId());
+    }
+
+    private static HttpServer startCourseServiceStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/api/courses/details", exchange -> {
+                String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+                REQUEST_CONTENT_TYPE.set(contentType);
+                REQUEST_ACCEPT.set(exchange.getRequestHeaders().getFirst("Accept"));
+
+                // Behaves like a course-service without CBOR support: JSON request bodies only
+                if (contentType == null || !contentType.startsWith("application/json")) {
+                    exchange.sendResponseHeaders(415, -1);
+                    exchange.close();
+                    return;
+                }
+                CourseServiceRequest request = JSON.readValue(exchange.getRequestBody(), CourseServiceRequest.class);
+                CourseServiceResponse response = new CourseServiceResponse(request.getCourseIds().stream()
+                        .map(id -> new CourseDto(id, "Course", new BigDecimal("49.99"), UUID.randomUUID()))
+                        .toList());
+
+                boolean cbor = ANSWER_CBOR.get();
+                byte[] body = (cbor ? CBOR : JSON).writeValueAsBytes(response);
+                exchange.getResponseHeaders().add("Content-Type", cbor ? "application/cbor" : "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start course-service stub", e);
+        }
+    }
+}
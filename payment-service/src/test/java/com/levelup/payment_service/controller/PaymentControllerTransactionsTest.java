@@ -0,0 +1,162 @@
+package com.levelup.payment_service.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Reads the admin transaction listings over more rows than one export page, with many rows sharing a
+ * creation time so the cursor has to break ties on id.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:transactions",
+        "payment.outbox.poll-interval-ms=3600000"
+})
+@DisplayName("Admin transaction listing tests")
+class PaymentControllerTransactionsTest {
+
+    private static final int TRANSACTIONS = 1203;
+    private static final int DISTINCT_TIMES = 7;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Set<UUID> seeded = new HashSet<>();
+
+    @BeforeEach
+    void seedTransactions() {
+        jdbcTemplate.update("DELETE FROM transactions");
+        seeded.clear();
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            UUID id = UUID.randomUUID();
+            seeded.add(id);
+            rows.add(new Object[]{id, Timestamp.valueOf(base.plusMinutes(i % DISTINCT_TIMES))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO transactions (id, type, amount, currency, status, created_at) "
+                + "VALUES (?, 'PURCHASE', 10.00, 'USD', 'SUCCESS', ?)", rows);
+    }
+
+    @Test
+    @DisplayName("Following nextCursor visits every transaction once, newest first")
+    void cursorRoundTrip() throws Exception {
+        List<JsonNode> visited = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var builder = get("/api/payments/transactions/page")
+                    .header("X-User-Role", "ADMIN")
+                    .param("size", "100");
+            if (cursor != null) {
+                builder.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(builder)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("transactions").forEach(visited::add);
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null && pages <= TRANSACTIONS);
+
+        assertEquals(TRANSACTIONS, visited.size());
+        assertEquals(seeded, ids(visited));
+        for (int i = 1; i < visited.size(); i++) {
+            LocalDateTime previous = LocalDateTime.parse(visited.get(i - 1).get("createdAt").asText());
+            LocalDateTime current = LocalDateTime.parse(visited.get(i).get("createdAt").asText());
+            assertFalse(current.isAfter(previous), "row " + i + " is newer than the one before it");
+        }
+    }
+
+    @Test
+    @DisplayName("A cursor that cannot be decoded is rejected with 400")
+    void invalidCursorIsRejected() throws Exception {
+        mockMvc.perform(get("/api/payments/transactions/page")
+                        .header("X-User-Role", "ADMIN")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("The export streams one JSON object per line for every transaction")
+    void exportStreamsNdjson() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/payments/transactions/export")
+                        .header("X-User-Role", "ADMIN"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        assertEquals(TRANSACTIONS, lines.size());
+        assertEquals(seeded, ids(lines));
+    }
+
+    @Test
+    @DisplayName("The legacy listing still returns every transaction as one JSON array")
+    void legacyListingReturnsEverything() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/payments/transactions")
+                        .header("X-User-Role", "ADMIN"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode transactions = objectMapper.readTree(body);
+        assertTrue(transactions.isArray());
+        List<JsonNode> rows = new ArrayList<>();
+        transactions.forEach(rows::add);
+        assertEquals(TRANSACTIONS, rows.size());
+        assertEquals(seeded, ids(rows));
+    }
+
+    private static Set<UUID> ids(List<JsonNode> transactions) {
+        Set<UUID> ids = new HashSet<>();
+        for (JsonNode transaction : transactions) {
+            assertTrue(ids.add(UUID.fromString(transaction.get("id").asText())), "duplicate " + transaction);
+        }
+        return ids;
+    }
+}
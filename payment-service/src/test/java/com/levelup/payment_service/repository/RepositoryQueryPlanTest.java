@@ -0,0 +1,192 @@
+package com.levelup.payment_service.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs EXPLAIN for the SQL behind the payment lookup paths against a migrated and seeded Postgres,
+ * and fails when a lookup falls back to a sequential scan of a large table. Skipped when Docker is unavailable.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Repository query plan regression tests")
+class RepositoryQueryPlanTest {
+
+    private static final int TRANSACTIONS = 200_000;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .load()
+                .migrate();
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            // 1% of transactions are still pending; every other one is a course purchase
+            statement.execute("INSERT INTO transactions (id, type, amount, currency, status, created_at) "
+                    + "SELECT md5('tx' || g)::uuid, "
+                    + "CASE WHEN g % 2 = 0 THEN 'PURCHASE' ELSE 'USER_SUBSCRIPTION_PAYMENT' END, 49.99, 'USD', "
+                    + "CASE WHEN g % 100 = 0 THEN 'PENDING' ELSE 'SUCCESS' END, "
+                    + "now() - (g || ' minutes')::interval "
+                    + "FROM generate_series(1, " + TRANSACTIONS + ") g");
+            statement.execute("INSERT INTO userpurchases (id, transaction_id, stripe_payment_intent_id, "
+                    + "purchased_at, user_id) "
+                    + "SELECT md5('up' || g)::uuid, md5('tx' || g)::uuid, 'pi_' || g, now(), "
+                    + "md5('user' || (g % 5000))::uuid "
+                    + "FROM generate_series(2, " + TRANSACTIONS + ", 2) g");
+            statement.execute("INSERT INTO purchase_items (id, userpurchase_id, course_id, course_name) "
+                    + "SELECT md5('pi' || g || '-' || c)::uuid, md5('up' || g)::uuid, "
+                    + "md5('course' || c)::uuid, 'Course ' || c "
+                    + "FROM generate_series(2, " + TRANSACTIONS + ", 2) g, generate_series(1, 2) c");
+            statement.execute("INSERT INTO pending_purchase_items (id, stripe_payment_intent_id, course_id, "
+                    + "course_name, course_price) "
+                    + "SELECT md5('ppi' || g)::uuid, 'pi_' || g, md5('course' || g)::uuid, 'Course', 49.99 "
+                    + "FROM generate_series(2, " + TRANSACTIONS + ", 2) g");
+            statement.execute("INSERT INTO subscription_plans (id, name, amount, billing_cycle, is_active) "
+                    + "VALUES (md5('plan')::uuid, 'Pro', 19.99, 'MONTHLY', true)");
+            statement.execute("INSERT INTO user_subscription_payments (id, transaction_id, subscription_plan_id, "
+                    + "user_id, stripe_subscription_id, first_period_start, is_auto_renew, status) "
+                    + "SELECT md5('sub' || g)::uuid, md5('tx' || g)::uuid, md5('plan')::uuid, "
+                    + "md5('user' || g)::uuid, 'sub_' || g, now(), true, "
+                    + "CASE WHEN g % 10 = 1 THEN 'ACTIVE' ELSE 'CANCELED' END "
+                    + "FROM generate_series(1, " + TRANSACTIONS + ", 2) g");
+            statement.execute("INSERT INTO stripe_webhook_events (id, stripe_event_id, event_type, ordering_key, "
+                    + "payload, status, attempts, next_attempt_at, received_at, processed_at) "
+                    + "SELECT md5('evt' || g)::uuid, 'evt_' || g, 'invoice.payment_succeeded', 'sub_' || (g % 1000), "
+                    + "'{}', CASE WHEN g % 1000 = 0 THEN 'PENDING' ELSE 'PROCESSED' END, 1, now(), "
+                    + "now() - (g || ' seconds')::interval, now() "
+                    + "FROM generate_series(1, " + TRANSACTIONS + ") g");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @Test
+    @DisplayName("UserPurchase lookup by payment intent uses the unique index")
+    void userPurchaseByPaymentIntent() throws SQLException {
+        assertNoSeqScan("userpurchases",
+                "SELECT * FROM userpurchases WHERE stripe_payment_intent_id = 'pi_1000'");
+    }
+
+    @Test
+    @DisplayName("UserPurchase lookup by transaction uses the transaction_id key")
+    void userPurchaseByTransaction() throws SQLException {
+        assertNoSeqScan("userpurchases",
+                "SELECT * FROM userpurchases WHERE transaction_id = md5('tx1000')::uuid");
+    }
+
+    @Test
+    @DisplayName("Pending purchase items lookup and cleanup by payment intent are indexed")
+    void pendingItemsByPaymentIntent() throws SQLException {
+        assertNoSeqScan("pending_purchase_items",
+                "SELECT * FROM pending_purchase_items WHERE stripe_payment_intent_id = 'pi_1000'");
+        assertNoSeqScan("pending_purchase_items",
+                "DELETE FROM pending_purchase_items WHERE stripe_payment_intent_id = 'pi_1000'");
+    }
+
+    @Test
+    @DisplayName("Course names for a page of purchases are read through the userpurchase index")
+    void purchaseItemsByUserPurchase() throws SQLException {
+        assertNoSeqScan("purchase_items",
+                "SELECT userpurchase_id, course_name FROM purchase_items "
+                        + "WHERE userpurchase_id IN (md5('up2')::uuid, md5('up4')::uuid, md5('up6')::uuid)");
+    }
+
+    @Test
+    @DisplayName("Subscription lookups by Stripe id and by user and status are indexed")
+    void subscriptionLookups() throws SQLException {
+        assertNoSeqScan("user_subscription_payments",
+                "SELECT * FROM user_subscription_payments WHERE stripe_subscription_id = 'sub_1001'");
+        assertNoSeqScan("user_subscription_payments",
+                "SELECT * FROM user_subscription_payments "
+                        + "WHERE user_id = md5('user1001')::uuid AND status = 'ACTIVE'");
+    }
+
+    @Test
+    @DisplayName("Transaction listing pages walk the (created_at, id) index")
+    void transactionPages() throws SQLException {
+        assertNoSeqScan("transactions",
+                "SELECT * FROM transactions ORDER BY created_at DESC, id DESC LIMIT 50");
+        assertNoSeqScan("transactions",
+                "SELECT * FROM transactions WHERE (created_at, id) < (now() - interval '30 days', "
+                        + "md5('tx1')::uuid) ORDER BY created_at DESC, id DESC LIMIT 50");
+    }
+
+    @Test
+    @DisplayName("Reconciler page of pending purchases only touches pending transactions")
+    void pendingPurchasePage() throws SQLException {
+        assertNoSeqScan("transactions",
+                "SELECT up.*, t.* FROM userpurchases up JOIN transactions t ON t.id = up.transaction_id "
+                        + "WHERE t.status = 'PENDING' AND up.stripe_payment_intent_id IS NOT NULL "
+                        + "AND t.created_at >= now() - interval '72 hours' "
+                        + "AND t.created_at < now() - interval '15 minutes' "
+                        + "AND (t.created_at > timestamp '1970-01-01' "
+                        + "OR (t.created_at = timestamp '1970-01-01' AND t.id > '00000000-0000-0000-0000-000000000000')) "
+                        + "ORDER BY t.created_at, t.id LIMIT 100");
+    }
+
+    @Test
+    @DisplayName("Transaction lock by id uses the primary key")
+    void transactionForUpdate() throws SQLException {
+        assertNoSeqScan("transactions",
+                "SELECT * FROM transactions WHERE id = md5('tx1000')::uuid FOR UPDATE");
+    }
+
+    @Test
+    @DisplayName("Webhook inbox claim and purge skip processed events")
+    void webhookInbox() throws SQLException {
+        assertNoSeqScan("stripe_webhook_events",
+                "SELECT e.* FROM stripe_webhook_events e "
+                        + "WHERE e.status IN ('PENDING', 'PROCESSING') AND e.next_attempt_at <= now() "
+                        + "AND (e.ordering_key IS NULL OR NOT EXISTS ("
+                        + "  SELECT 1 FROM stripe_webhook_events earlier "
+                        + "  WHERE earlier.ordering_key = e.ordering_key "
+                        + "  AND earlier.status IN ('PENDING', 'PROCESSING') "
+                        + "  AND (earlier.received_at, earlier.id) < (e.received_at, e.id))) "
+                        + "ORDER BY e.received_at LIMIT 50 FOR UPDATE SKIP LOCKED");
+        assertNoSeqScan("stripe_webhook_events",
+                "DELETE FROM stripe_webhook_events WHERE status = 'PROCESSED' "
+                        + "AND processed_at < now() - interval '30 days'");
+    }
+
+    private static void assertNoSeqScan(String table, String sql) throws SQLException {
+        String plan = explain(sql);
+        assertFalse(plan.contains("Seq Scan on " + table),
+                () -> "Expected an index path on " + table + " for:\n" + sql + "\nbut got plan:\n" + plan);
+    }
+
+    private static String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = connect()) {
+            // EXPLAIN of a DELETE does not execute it, but keep the seed intact regardless
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+        return plan.toString();
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+}
@@ -0,0 +1,130 @@
+package com.levelup.payment_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.levelup.payment_service.dto.message.PaymentNotificationMessage;
+import com.levelup.payment_service.repository.OutboxMessageRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Relays outbox messages through a mocked broker connection and checks the order each user's messages
+ * were confirmed in, with two relays running at once as on two instances and one batch failing.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox",
+        "payment.outbox.poll-interval-ms=3600000",
+        "payment.outbox.batch-size=3",
+        "payment.outbox.retry-delay-ms=200"
+})
+@DisplayName("Outbox relay tests")
+class OutboxRelayTest {
+
+    private static final int USERS = 4;
+    private static final int MESSAGES_PER_USER = 8;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private MessagePublisherService messagePublisherService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("outboxRelayExecutor")
+    private ThreadPoolTaskExecutor outboxRelayExecutor;
+
+    private final List<Message> confirmed = new ArrayList<>();
+    private final AtomicBoolean failNextBatch = new AtomicBoolean(true);
+
+    @Test
+    @DisplayName("Each user's messages reach the broker in the order they were written, across a failed batch")
+    void publishesInOrderPerUser() throws Exception {
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation -> {
+            List<Message> sent = new ArrayList<>();
+            RabbitOperations operations = mock(RabbitOperations.class);
+            doAnswer(send -> sent.add(send.getArgument(2)))
+                    .when(operations).send(anyString(), anyString(), any(Message.class));
+            RabbitOperations.OperationsCallback<?> callback = invocation.getArgument(0);
+            Object result = callback.doInRabbit(operations);
+            if (failNextBatch.getAndSet(false)) {
+                throw new AmqpTimeoutException("Timed out waiting for publisher confirms");
+            }
+            synchronized (confirmed) {
+                confirmed.addAll(sent);
+            }
+            return result;
+        });
+
+        // Both relays below, and the scheduled run at startup, share one executor sized for a single relay
+        outboxRelayExecutor.setMaxPoolSize(8);
+
+        List<UUID> users = IntStream.range(0, USERS).mapToObj(i -> UUID.randomUUID()).toList();
+        for (int n = 0; n < MESSAGES_PER_USER; n++) {
+            for (UUID userId : users) {
+                messagePublisherService.sendPaymentNotificationMessage(PaymentNotificationMessage.builder()
+                        .userId(userId)
+                        .eventType(String.valueOf(n))
+                        .build());
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (outboxMessageRepository.count() > 0 && System.currentTimeMillis() < deadline) {
+            CompletableFuture<Void> other = CompletableFuture.runAsync(outboxRelay::relay);
+            outboxRelay.relay();
+            other.join();
+            Thread.sleep(50);
+        }
+        assertEquals(0, outboxMessageRepository.count());
+        assertFalse(failNextBatch.get());
+
+        Map<UUID, List<Integer>> received = new LinkedHashMap<>();
+        for (Message message : confirmed) {
+            PaymentNotificationMessage payload =
+                    objectMapper.readValue(message.getBody(), PaymentNotificationMessage.class);
+            received.computeIfAbsent(payload.getUserId(), id -> new ArrayList<>())
+                    .add(Integer.parseInt(payload.getEventType()));
+        }
+        List<Integer> expected = IntStream.range(0, MESSAGES_PER_USER).boxed().toList();
+        for (UUID userId : users) {
+            assertEquals(expected, received.get(userId), "messages of user " + userId);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.levelup.payment_service.service;
+
+import com.levelup.payment_service.model.PendingPurchaseItem;
+import com.levelup.payment_service.model.Transaction;
+import com.levelup.payment_service.model.UserPurchase;
+import com.levelup.payment_service.repository.PendingPurchaseItemRepository;
+import com.levelup.payment_service.repository.TransactionRepository;
+import com.levelup.payment_service.repository.UserPurchaseRepository;
+import com.stripe.Stripe;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs the reconciler against a local Stripe stub that serves the PaymentIntent list and retrieve endpoints.
+ * Settlement itself is PaymentService's job and uses Postgres-only SQL, so it is mocked here; the tests check
+ * which purchases the reconciler settles, and how.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reconciliation",
+        "payment.reconciliation.initial-delay-ms=3600000",
+        "payment.reconciliation.min-age-minutes=0",
+        "payment.reconciliation.stripe-requests-per-second=1000"
+})
+@DisplayName("Payment reconciler tests")
+class PaymentReconcilerTest {
+
+    // Listed in id order, as the stub pages by id
+    private static final Map<String, String> INTENTS = new ConcurrentSkipListMap<>();
+    private static final Set<String> UNLISTED = ConcurrentHashMap.newKeySet();
+    private static final Set<String> RETRIEVED = ConcurrentHashMap.newKeySet();
+    private static final AtomicInteger LIST_CALLS = new AtomicInteger();
+    private static final HttpServer STRIPE = startStripeStub();
+
+    @MockBean
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentReconciler paymentReconciler;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserPurchaseRepository userPurchaseRepository;
+
+    @Autowired
+    private PendingPurchaseItemRepository pendingPurchaseItemRepository;
+
+    @BeforeEach
+    void pointStripeAtStub() {
+        Stripe.overrideApiBase("http://localhost:" + STRIPE.getAddress().getPort());
+    }
+
+    @AfterEach
+    void reset() {
+        // The API base is process-wide; leave it as other test classes expect it
+        Stripe.overrideApiBase(Stripe.LIVE_API_BASE);
+        userPurchaseRepository.deleteAll();
+        pendingPurchaseItemRepository.deleteAll();
+        transactionRepository.deleteAll();
+        INTENTS.clear();
+        UNLISTED.clear();
+        RETRIEVED.clear();
+        LIST_CALLS.set(0);
+    }
+
+    @AfterAll
+    static void stopStripeStub() {
+        STRIPE.stop(0);
+    }
+
+    @Test
+    @DisplayName("Pending purchases are settled to the status Stripe reports")
+    void correctsStatusMismatches() {
+        UserPurchase succeeded = pendingPurchase();
+        UserPurchase canceled = pendingPurchase();
+        UserPurchase declined = pendingPurchase();
+        UserPurchase processing = pendingPurchase();
+        stripeIntent(succeeded, "succeeded", false);
+        stripeIntent(canceled, "canceled", false);
+        stripeIntent(declined, "requires_payment_method", true);
+        stripeIntent(processing, "processing", false);
+
+        paymentReconciler.reconcilePendingPurchases();
+
+        verify(paymentService).handlePaymentSuccess(eq(succeeded.getStripePaymentIntentId()),
+                eq(metadataOf(succeeded)));
+        verify(paymentService).handlePaymentFailure(eq(canceled.getStripePaymentIntentId()),
+                eq(metadataOf(canceled)));
+        verify(paymentService).handlePaymentFailure(eq(declined.getStripePaymentIntentId()),
+                eq(metadataOf(declined)));
+        verifyNotSettled(processing.getStripePaymentIntentId());
+        // Everything was answered by the list call
+        assertFalse(RETRIEVED.contains(succeeded.getStripePaymentIntentId()));
+    }
+
+    @Test
+    @DisplayName("Intents missing from the listing are retrieved, and intents unknown locally are ignored")
+    void handlesPaymentsMissingOnEitherSide() {
+        UserPurchase unlisted = pendingPurchase();
+        stripeIntent(unlisted, "succeeded", false);
+        UNLISTED.add(unlisted.getStripePaymentIntentId());
+
+        String strayIntentId = "pi_stray_" + UUID.randomUUID().toString().replace("-", "");
+        INTENTS.put(strayIntentId, intentJson(strayIntentId, "succeeded", false,
+                Map.of("transaction_id", UUID.randomUUID().toString(), "user_id", UUID.randomUUID().toString())));
+
+        UserPurchase unknownToStripe = pendingPurchase();
+
+        paymentReconciler.reconcilePendingPurchases();
+
+        assertTrue(RETRIEVED.contains(unlisted.getStripePaymentIntentId()));
+        verify(paymentService).handlePaymentSuccess(eq(unlisted.getStripePaymentIntentId()),
+                eq(metadataOf(unlisted)));
+
+        assertFalse(RETRIEVED.contains(strayIntentId));
+        verifyNotSettled(strayIntentId);
+
+        assertTrue(RETRIEVED.contains(unknownToStripe.getStripePaymentIntentId()));
+        verifyNotSettled(unknownToStripe.getStripePaymentIntentId());
+        assertEquals(Transaction.TransactionStatus.PENDING,
+                transactionRepository.findById(unknownToStripe.getTransaction().getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Listing stops at the page that holds the last pending intent of the window")
+    void stopsListingOnceAllPendingIntentsAreFound() {
+        List<UserPurchase> pending = List.of(pendingPurchase(), pendingPurchase(), pendingPurchase());
+        pending.forEach(purchase -> stripeIntent(purchase, "succeeded", false));
+        // Other intents of the account, listed after the pending ones
+        for (int i = 0; i < 250; i++) {
+            String strayIntentId = "pi_zz" + String.format("%04d", i);
+            INTENTS.put(strayIntentId, intentJson(strayIntentId, "processing", false, Map.of()));
+        }
+
+        paymentReconciler.reconcilePendingPurchases();
+
+        assertEquals(1, LIST_CALLS.get());
+        assertTrue(RETRIEVED.isEmpty());
+        pending.forEach(purchase -> verify(paymentService).handlePaymentSuccess(
+                eq(purchase.getStripePaymentIntentId()), eq(metadataOf(purchase))));
+    }
+
+    @Test
+    @DisplayName("A window with a single pending purchase is retrieved instead of listed")
+    void retrievesSmallWindows() {
+        UserPurchase purchase = pendingPurchase();
+        stripeIntent(purchase, "succeeded", false);
+
+        paymentReconciler.reconcilePendingPurchases();
+
+        assertEquals(0, LIST_CALLS.get());
+        assertEquals(Set.of(purchase.getStripePaymentIntentId()), RETRIEVED);
+        verify(paymentService).handlePaymentSuccess(eq(purchase.getStripePaymentIntentId()),
+                eq(metadataOf(purchase)));
+    }
+
+    private UserPurchase pendingPurchase() {
+        Transaction transaction = transactionRepository.save(Transaction.builder()
+                .type(Transaction.TransactionType.PURCHASE)
+                .amount(new BigDecimal("49.99"))
+                .currency("USD")
+                .status(Transaction.TransactionStatus.PENDING)
+                .build());
+        String intentId = "pi_" + UUID.randomUUID().toString().replace("-", "");
+        pendingPurchaseItemRepository.save(PendingPurchaseItem.builder()
+                .stripePaymentIntentId(intentId)
+                .courseId(UUID.randomUUID())
+                .courseName("Reconciled course")
+                .coursePrice(new BigDecimal("49.99"))
+                .build());
+        return userPurchaseRepository.save(UserPurchase.builder()
+                .transaction(transaction)
+                .stripePaymentIntentId(intentId)
+                .userId(UUID.randomUUID())
+                .build());
+    }
+
+    private void stripeIntent(UserPurchase purchase, String status, boolean paymentFailed) {
+        String intentId = purchase.getStripePaymentIntentId();
+        INTENTS.put(intentId, intentJson(intentId, status, paymentFailed, metadataOf(purchase)));
+    }
+
+    private Map<String, String> metadataOf(UserPurchase purchase) {
+        return Map.of("transaction_id", purchase.getTransaction().getId().toString(),
+                "user_id", purchase.getUserId().toString());
+    }
+
+    private void verifyNotSettled(String intentId) {
+        verify(paymentService, never()).handlePaymentSuccess(eq(intentId), anyMap());
+        verify(paymentService, never()).handlePaymentFailure(eq(intentId), anyMap());
+    }
+
+    private static String intentJson(String id, String status, boolean paymentFailed, Map<String, String> metadata) {
+        String metadataJson = metadata.entrySet().stream()
+                .map(e -> "\"" + e.getKey() + "\":\"" + e.getValue() + "\"")
+                .collect(Collectors.joining(",", "{", "}"));
+        String lastPaymentError = paymentFailed
+                ? "{\"type\":\"card_error\",\"code\":\"card_declined\"}"
+                : "null";
+        return "{\"id\":\"" + id + "\",\"object\":\"payment_intent\",\"amount\":4999,\"currency\":\"usd\","
+                + "\"status\":\"" + status + "\",\"last_payment_error\":" + lastPaymentError
+                + ",\"metadata\":" + metadataJson + "}";
+    }
+
+    private static HttpServer startStripeStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/v1/payment_intents", exchange -> {
+                String path = exchange.getRequestURI().getPath();
+                if (path.equals("/v1/payment_intents")) {
+                    LIST_CALLS.incrementAndGet();
+                    Map<String, String> query = queryOf(exchange);
+                    int limit = Integer.parseInt(query.getOrDefault("limit", "10"));
+                    String startingAfter = query.get("starting_after");
+                    List<String> listed = INTENTS.entrySet().stream()
+                            .filter(e -> !UNLISTED.contains(e.getKey()))
+                            .filter(e -> startingAfter == null || e.getKey().compareTo(startingAfter) > 0)
+                            .map(Map.Entry::getValue)
+                            .toList();
+                    String data = String.join(",", listed.subList(0, Math.min(limit, listed.size())));
+                    respond(exchange, 200, "{\"object\":\"list\",\"url\":\"/v1/payment_intents\","
+                            + "\"has_more\":" + (listed.size() > limit) + ",\"data\":[" + data + "]}");
+                    return;
+                }
+
+                String intentId = path.substring(path.lastIndexOf('/') + 1);
+                RETRIEVED.add(intentId);
+                String intent = INTENTS.get(intentId);
+                if (intent == null) {
+                    respond(exchange, 404, "{\"error\":{\"type\":\"invalid_request_error\","
+                            + "\"code\":\"resource_missing\",\"message\":\"No such payment_intent\"}}");
+                } else {
+                    respond(exchange, 200, intent);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start Stripe stub", e);
+        }
+    }
+
+    private static Map<String, String> queryOf(HttpExchange exchange) {
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        if (rawQuery == null) {
+            return Map.of();
+        }
+        return Arrays.stream(rawQuery.split("&"))
+                .map(pair -> pair.split("=", 2))
+                .collect(Collectors.toMap(
+                        pair -> URLDecoder.decode(pair[0], StandardCharsets.UTF_8),
+                        pair -> pair.length > 1 ? URLDecoder.decode(pair[1], StandardCharsets.UTF_8) : "",
+                        (first, second) -> second));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.levelup.payment_service.service;
+
+import com.levelup.payment_service.model.RevenueLedgerEntry;
+import com.levelup.payment_service.model.RevenueLedgerKey;
+import com.levelup.payment_service.model.Transaction;
+import com.levelup.payment_service.repository.RevenueLedgerRepository;
+import com.levelup.payment_service.repository.TransactionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Creates and settles transactions from several threads while ledger rebuilds run in parallel, then checks the
+ * incrementally maintained ledger against one rebuilt from the transactions table. The ledger upsert and the
+ * rebuild lock are Postgres SQL, so this runs against Postgres; skipped when Docker is unavailable.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("RevenueLedgerService concurrency tests")
+class RevenueLedgerServiceConcurrencyTest {
+
+    private static final int WRITERS = 8;
+    private static final int TRANSACTIONS_PER_WRITER = 40;
+    private static final Transaction.TransactionType[] TYPES = {
+            Transaction.TransactionType.PURCHASE,
+            Transaction.TransactionType.USER_SUBSCRIPTION_PAYMENT,
+            Transaction.TransactionType.REFUND
+    };
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @Autowired
+    private RevenueLedgerService revenueLedgerService;
+
+    @Autowired
+    private RevenueLedgerRepository revenueLedgerRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("Concurrent creations and status flips leave the same ledger a rebuild produces")
+    void incrementalLedgerMatchesRebuild() throws Exception {
+        // Rebuilds run alongside the first round only, so the second round is counted by increments alone
+        writeConcurrently(0, true);
+        writeConcurrently(1, false);
+
+        Map<RevenueLedgerKey, RevenueLedgerEntry> incremental = nonEmptyLedger();
+        RevenueLedgerService.LedgerSummary summary = revenueLedgerService.getSummary();
+
+        revenueLedgerService.rebuildLedger();
+        Map<RevenueLedgerKey, RevenueLedgerEntry> rebuilt = nonEmptyLedger();
+
+        assertEquals(rebuilt, incremental);
+        assertEquals(2L * WRITERS * TRANSACTIONS_PER_WRITER, summary.getTotalTransactions());
+        assertEquals(revenueLedgerService.getSummary(), summary);
+    }
+
+    private void writeConcurrently(int round, boolean withRebuilds) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int first = (round * WRITERS + w) * TRANSACTIONS_PER_WRITER;
+                writers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < TRANSACTIONS_PER_WRITER; i++) {
+                        createAndSettle(first + i);
+                    }
+                    return null;
+                }));
+            }
+            Future<?> rebuilder = pool.submit(() -> {
+                start.await();
+                while (withRebuilds && writing.get()) {
+                    revenueLedgerService.rebuildLedger();
+                    Thread.sleep(20);
+                }
+                return null;
+            });
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            rebuilder.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Every third transaction stays pending, every fifth of the rest fails; the others succeed.
+     */
+    private void createAndSettle(int n) {
+        Transaction created = transactionTemplate.execute(status -> {
+            Transaction transaction = transactionRepository.save(Transaction.builder()
+                    .type(TYPES[n % TYPES.length])
+                    .amount(BigDecimal.valueOf(1000 + n, 2))
+                    .currency("USD")
+                    .status(Transaction.TransactionStatus.PENDING)
+                    .build());
+            revenueLedgerService.recordCreated(transaction);
+            return transaction;
+        });
+        if (n % 3 == 0) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Transaction transaction = transactionRepository.findById(created.getId()).orElseThrow();
+            Transaction.TransactionStatus previous = transaction.getStatus();
+            transaction.setStatus(n % 5 == 0
+                    ? Transaction.TransactionStatus.FAILED
+                    : Transaction.TransactionStatus.SUCCESS);
+            transactionRepository.save(transaction);
+            revenueLedgerService.recordStatusChange(transaction, previous);
+        });
+    }
+
+    // Rows whose transactions all moved to another status stay behind with zero totals; a rebuild omits them
+    private Map<RevenueLedgerKey, RevenueLedgerEntry> nonEmptyLedger() {
+        Map<RevenueLedgerKey, RevenueLedgerEntry> ledger = new HashMap<>();
+        for (RevenueLedgerEntry entry : revenueLedgerRepository.findAll()) {
+            if (entry.getTransactionCount() != 0) {
+                ledger.put(entry.getId(), entry);
+            }
+        }
+        return ledger;
+    }
+}
@@ -0,0 +1,133 @@
+package com.levelup.payment_service.service;
+
+import com.levelup.payment_service.model.SubscriptionPlan;
+import com.levelup.payment_service.model.Transaction;
+import com.levelup.payment_service.model.UserSubscriptionPayment;
+import com.levelup.payment_service.repository.SubscriptionPlanRepository;
+import com.levelup.payment_service.repository.TransactionRepository;
+import com.levelup.payment_service.repository.UserSubscriptionPaymentRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Records activations and cancellations around the 30- and 60-day window edges and checks which window each
+ * subscription lands in, before and after a rebuild of the projection. The projection upsert is Postgres SQL,
+ * so this runs against Postgres; skipped when Docker is unavailable.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("SubscriptionMetricsService tests")
+class SubscriptionMetricsServiceTest {
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @Autowired
+    private SubscriptionMetricsService subscriptionMetricsService;
+
+    @Autowired
+    private SubscriptionPlanRepository subscriptionPlanRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserSubscriptionPaymentRepository userSubscriptionPaymentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("Subscriptions are bucketed by the calendar day of their creation time")
+    @SuppressWarnings("unchecked")
+    void bucketsByCreationDay() {
+        SubscriptionPlan plan = subscriptionPlanRepository.save(SubscriptionPlan.builder()
+                .name("Boundary plan")
+                .amount(new BigDecimal("10.00"))
+                .billingCycle(SubscriptionPlan.BillingCycle.MONTHLY)
+                .isActive(true)
+                .build());
+        LocalDate today = LocalDate.now();
+
+        // For each window: the first moment of its oldest day, and the last moment of the day just outside it
+        activate(plan, today.minusDays(29).atStartOfDay(), "1.00");
+        activate(plan, today.minusDays(30).atTime(23, 59, 59), "2.00");
+        activate(plan, today.minusDays(59).atStartOfDay(), "4.00");
+        activate(plan, today.minusDays(60).atTime(23, 59, 59), "8.00");
+        UserSubscriptionPayment canceled = activate(plan, LocalDateTime.now(), "16.00");
+        transactionTemplate.executeWithoutResult(status -> {
+            UserSubscriptionPayment subscription =
+                    userSubscriptionPaymentRepository.findById(canceled.getId()).orElseThrow();
+            subscription.setStatus(UserSubscriptionPayment.SubscriptionStatus.CANCELED);
+            userSubscriptionPaymentRepository.save(subscription);
+            subscriptionMetricsService.recordDeactivated(subscription);
+        });
+
+        Map<String, Object> incremental = subscriptionMetricsService.refreshSnapshot();
+        assertEquals(4L, incremental.get("totalSubscribers"));
+        assertEquals(1L, incremental.get("newSubscribersThisMonth"));
+        assertEquals(1.0, incremental.get("monthlyRecurringRevenue"));
+        assertEquals(15.0, incremental.get("annualRecurringRevenue"));
+        // One new subscriber this month against two the month before
+        assertEquals(-50.0, incremental.get("revenueGrowth"));
+        Map<String, Object> planInfo = ((List<Map<String, Object>>) incremental.get("planDistribution")).stream()
+                .filter(info -> plan.getId().equals(info.get("planId")))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(4L, planInfo.get("subscribers"));
+
+        subscriptionMetricsService.rebuildMetrics();
+        assertEquals(incremental, subscriptionMetricsService.refreshSnapshot());
+    }
+
+    private UserSubscriptionPayment activate(SubscriptionPlan plan, LocalDateTime createdAt, String amount) {
+        return transactionTemplate.execute(status -> {
+            Transaction transaction = transactionRepository.save(Transaction.builder()
+                    .type(Transaction.TransactionType.USER_SUBSCRIPTION_PAYMENT)
+                    .amount(new BigDecimal(amount))
+                    .currency("USD")
+                    .status(Transaction.TransactionStatus.SUCCESS)
+                    .build());
+            UserSubscriptionPayment subscription = userSubscriptionPaymentRepository.save(
+                    UserSubscriptionPayment.builder()
+                            .transaction(transaction)
+                            .subscriptionPlan(plan)
+                            .userId(UUID.randomUUID())
+                            .stripeSubscriptionId("sub_" + UUID.randomUUID())
+                            .firstPeriodStart(createdAt)
+                            .firstPeriodEnd(createdAt.plusMonths(1))
+                            .status(UserSubscriptionPayment.SubscriptionStatus.ACTIVE)
+                            .build());
+            subscriptionMetricsService.recordActivated(subscription, transaction.getAmount());
+            return subscription;
+        });
+    }
+}
@@ -0,0 +1,116 @@
+package com.levelup.payment_service.service;
+
+import com.levelup.payment_service.client.ExternalCallMetrics;
+import com.levelup.payment_service.client.UserServiceClient;
+import com.levelup.payment_service.controller.SubscriptionController;
+import com.levelup.payment_service.dto.request.CreateSubscriptionRequest;
+import com.levelup.payment_service.dto.response.SubscriptionResponse;
+import com.levelup.payment_service.model.SubscriptionPlan;
+import com.levelup.payment_service.repository.SubscriptionPlanRepository;
+import com.levelup.payment_service.repository.TransactionRepository;
+import com.levelup.payment_service.repository.UserSubscriptionPaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.math.BigDecimal;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Subscription checkout when the user lookup fails: the lookup runs asynchronously, so its failure arrives
+ * wrapped and has to be unwrapped before it is told apart from other errors.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SubscriptionService user lookup tests")
+class SubscriptionServiceTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final UUID PLAN_ID = UUID.randomUUID();
+
+    @Mock
+    private SubscriptionPlanRepository subscriptionPlanRepository;
+
+    @Mock
+    private UserSubscriptionPaymentRepository userSubscriptionPaymentRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    @Mock
+    private MessagePublisherService messagePublisherService;
+
+    @Mock
+    private RevenueLedgerService revenueLedgerService;
+
+    @Mock
+    private SubscriptionMetricsService subscriptionMetricsService;
+
+    private SubscriptionService subscriptionService;
+
+    @BeforeEach
+    void setUp() {
+        subscriptionService = new SubscriptionService(subscriptionPlanRepository, userSubscriptionPaymentRepository,
+                transactionRepository, userServiceClient, messagePublisherService, revenueLedgerService,
+                subscriptionMetricsService, new ExternalCallMetrics(new SimpleMeterRegistry()));
+        when(subscriptionPlanRepository.findByIdAndIsActive(PLAN_ID, true)).thenReturn(Optional.of(
+                SubscriptionPlan.builder()
+                        .id(PLAN_ID)
+                        .name("Monthly")
+                        .amount(new BigDecimal("9.99"))
+                        .isActive(true)
+                        .build()));
+    }
+
+    @Test
+    @DisplayName("A user-service 404 is reported as an unknown user and answered with 404")
+    void unknownUserIsNotFound() {
+        when(userServiceClient.getUserByIdAsync(USER_ID)).thenReturn(CompletableFuture.failedFuture(
+                WebClientResponseException.create(404, "Not Found", null, null, null)));
+
+        NoSuchElementException e = assertThrows(NoSuchElementException.class,
+                () -> subscriptionService.createSubscription(new CreateSubscriptionRequest(PLAN_ID), USER_ID));
+        assertEquals("User not found", e.getMessage());
+        verify(transactionRepository, never()).save(any());
+
+        ResponseEntity<SubscriptionResponse> response = new SubscriptionController(subscriptionService)
+                .createSubscription(new CreateSubscriptionRequest(PLAN_ID), USER_ID.toString());
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Other user-service failures still fail the checkout, with the unwrapped cause")
+    void otherLookupFailuresFail() {
+        WebClientResponseException failure =
+                WebClientResponseException.create(503, "Service Unavailable", null, null, null);
+        when(userServiceClient.getUserByIdAsync(USER_ID)).thenReturn(CompletableFuture.failedFuture(failure));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> subscriptionService.createSubscription(new CreateSubscriptionRequest(PLAN_ID), USER_ID));
+        assertEquals("Failed to create subscription", e.getMessage());
+        assertSame(failure, e.getCause());
+        verify(transactionRepository, never()).save(any());
+
+        ResponseEntity<SubscriptionResponse> response = new SubscriptionController(subscriptionService)
+                .createSubscription(new CreateSubscriptionRequest(PLAN_ID), USER_ID.toString());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+}
@@ -0,0 +1,193 @@
+package com.levelup.payment_service.service;
+
+import com.levelup.payment_service.model.StripeWebhookEvent;
+import com.levelup.payment_service.repository.StripeWebhookEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+
+/**
+ * Feeds events into the webhook inbox and lets the scheduled worker drain it with dispatch mocked, checking that
+ * a redelivered event is handled once and that events sharing an ordering key are handled one at a time, in the
+ * order received, across a failed attempt and its backoff. The claim query is Postgres SQL, so this runs against
+ * Postgres; skipped when Docker is unavailable.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "payment.webhook.poll-interval-ms=50",
+        "payment.webhook.base-backoff-ms=300"
+})
+@DisplayName("Webhook inbox worker tests")
+class WebhookInboxWorkerTest {
+
+    private static final int KEYS = 3;
+    private static final int EVENTS_PER_KEY = 5;
+    private static final int DELIVERIES = 8;
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @MockBean
+    private WebhookService webhookService;
+
+    @Autowired
+    private WebhookInboxService webhookInboxService;
+
+    @Autowired
+    private StripeWebhookEventRepository stripeWebhookEventRepository;
+
+    @AfterEach
+    void tearDown() {
+        stripeWebhookEventRepository.deleteAll();
+        reset(webhookService);
+    }
+
+    @Test
+    @DisplayName("An event delivered several times at once is stored and dispatched once")
+    void duplicateDeliveryIsDispatchedOnce() throws Exception {
+        List<String> dispatched = new ArrayList<>();
+        doAnswer(invocation -> {
+            synchronized (dispatched) {
+                dispatched.add(invocation.getArgument(0));
+            }
+            return null;
+        }).when(webhookService).dispatch(anyString());
+
+        ExecutorService deliveries = Executors.newFixedThreadPool(DELIVERIES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < DELIVERIES; i++) {
+                results.add(deliveries.submit(() -> {
+                    start.await();
+                    try {
+                        return webhookInboxService.enqueue("evt_duplicate", "invoice.paid", "cus_1", "duplicate");
+                    } catch (DataIntegrityViolationException e) {
+                        // A concurrent duplicate that passed the existence check; WebhookService ignores it the same way
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+        } finally {
+            deliveries.shutdown();
+        }
+
+        int stored = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(30, TimeUnit.SECONDS)) {
+                stored++;
+            }
+        }
+        assertEquals(1, stored);
+
+        awaitProcessed(1);
+        // Give a second dispatch, if one were coming, the chance to happen
+        Thread.sleep(500);
+        assertEquals(1, stripeWebhookEventRepository.count());
+        assertEquals(List.of("duplicate"), dispatched);
+
+        assertFalse(webhookInboxService.enqueue("evt_duplicate", "invoice.paid", "cus_1", "duplicate"));
+        Thread.sleep(200);
+        assertEquals(List.of("duplicate"), dispatched);
+    }
+
+    @Test
+    @DisplayName("Events sharing an ordering key run one at a time in received order, across a retried failure")
+    void eventsOfOneKeyRunInOrder() throws Exception {
+        Map<String, List<Integer>> handled = new LinkedHashMap<>();
+        Set<String> inFlight = ConcurrentHashMap.newKeySet();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        AtomicBoolean failedOnce = new AtomicBoolean();
+        doAnswer(invocation -> {
+            String payload = invocation.getArgument(0);
+            String key = payload.substring(0, payload.indexOf('|'));
+            int n = Integer.parseInt(payload.substring(payload.indexOf('|') + 1));
+            if (!inFlight.add(key)) {
+                overlapped.set(true);
+            }
+            try {
+                Thread.sleep(20);
+                // The first event of key0 fails once, so its successors must wait out the backoff
+                if (key.equals("key0") && n == 0 && failedOnce.compareAndSet(false, true)) {
+                    throw new IllegalStateException("Simulated handler failure");
+                }
+                synchronized (handled) {
+                    handled.computeIfAbsent(key, k -> new ArrayList<>()).add(n);
+                }
+                return null;
+            } finally {
+                inFlight.remove(key);
+            }
+        }).when(webhookService).dispatch(anyString());
+
+        for (int n = 0; n < EVENTS_PER_KEY; n++) {
+            for (int k = 0; k < KEYS; k++) {
+                assertTrue(webhookInboxService.enqueue(
+                        "evt_" + k + "_" + n, "customer.subscription.updated", "key" + k, "key" + k + "|" + n));
+            }
+        }
+
+        awaitProcessed(KEYS * EVENTS_PER_KEY);
+        assertTrue(failedOnce.get());
+        assertFalse(overlapped.get(), "two events of one key were dispatched at the same time");
+
+        List<Integer> expected = IntStream.range(0, EVENTS_PER_KEY).boxed().toList();
+        for (int k = 0; k < KEYS; k++) {
+            assertEquals(expected, handled.get("key" + k), "events of key" + k);
+        }
+    }
+
+    private void awaitProcessed(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (processedCount() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(expected, processedCount());
+    }
+
+    private long processedCount() {
+        return stripeWebhookEventRepository.countByStatusIn(List.of(StripeWebhookEvent.InboxStatus.PROCESSED));
+    }
+}
@@ -14,12 +14,14 @@ public class RabbitMQConfig {
 
     // Exchange names
     public static final String USER_SUBSCRIPTION_EXCHANGE = "user.subscription.exchange";
+    public static final String INSTRUCTOR_EXCHANGE = "instructor.exchange";
 
     // Queue names
     public static final String USER_SUBSCRIPTION_QUEUE = "user.subscription.queue";
 
     // Routing keys
     public static final String USER_SUBSCRIPTION_ROUTING_KEY = "user.subscription";
+    public static final String INSTRUCTOR_CHANGED_ROUTING_KEY = "instructor.changed";
 
     @Bean
     public Jackson2JsonMessageConverter messageConverter() {
@@ -53,4 +55,10 @@ public class RabbitMQConfig {
                 .to(userSubscriptionExchange())
                 .with(USER_SUBSCRIPTION_ROUTING_KEY);
     }
-}
\ No newline at end of file
+
+    // Instructor change exchange; each consumer binds its own queue
+    @Bean
+    public TopicExchange instructorExchange() {
+        return new TopicExchange(INSTRUCTOR_EXCHANGE);
+    }
+}
@@ -0,0 +1,18 @@
+package com.levelup.user_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InstructorChangedMessage {
+    private UUID userId;
+    private UUID instructorId;
+    private String change; // REGISTERED, APPROVED, DELETED
+}
@@ -19,6 +19,7 @@ public class InstructorApplicationService {
     private final InstructorApplicationRepository applicationRepository;
     private final UserRepository userRepository;
     private final InstructorRepository instructorRepository;
+    private final InstructorChangePublisher instructorChangePublisher;
 
     public InstructorApplicationDTO submit(UUID userId, InstructorApplicationDTO dto) {
         User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
@@ -69,6 +70,8 @@ public class InstructorApplicationService {
                     .build();
             instructorRepository.save(instructor);
         }
+        instructorChangePublisher.publish(user.getId(),
+                instructorRepository.findByUserId(user.getId()).map(Instructor::getId).orElse(null), "APPROVED");
 
         return toDTO(app);
     }
@@ -0,0 +1,37 @@
+package com.levelup.user_service.service;
+
+import com.levelup.user_service.config.RabbitMQConfig;
+import com.levelup.user_service.dto.InstructorChangedMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Tells other services that a user gained or lost instructor status, so they can drop cached
+ * instructor validations. Delivery is best effort: consumers also expire their cache entries after a TTL.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InstructorChangePublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public void publish(UUID userId, UUID instructorId, String change) {
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.INSTRUCTOR_EXCHANGE,
+                    RabbitMQConfig.INSTRUCTOR_CHANGED_ROUTING_KEY,
+                    InstructorChangedMessage.builder()
+                            .userId(userId)
+                            .instructorId(instructorId)
+                            .change(change)
+                            .build());
+            log.info("Published instructor {} change for user: {}", change, userId);
+        } catch (Exception e) {
+            log.error("Failed to publish instructor {} change for user: {}", change, userId, e);
+        }
+    }
+}
@@ -19,6 +19,7 @@ public class InstructorService {
 
     private final InstructorRepository instructorRepository;
     private final UserRepository userRepository;
+    private final InstructorChangePublisher instructorChangePublisher;
 
     public String registerInstructor(UUID userId, InstructorDTO instructorDTO) {
 
@@ -43,6 +44,7 @@ public class InstructorService {
 
         userRepository.save(user);
         instructorRepository.save(instructor);
+        instructorChangePublisher.publish(userId, instructor.getId(), "REGISTERED");
 
         return "Instructor registered successfully";
     }
@@ -122,6 +124,7 @@ public class InstructorService {
         }
 
         instructorRepository.delete(instructor);
+        instructorChangePublisher.publish(currentUserId, instructorId, "DELETED");
         return "Instructor deleted successfully";
     }
 
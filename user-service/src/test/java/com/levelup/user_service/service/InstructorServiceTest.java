@@ -30,6 +30,9 @@ class InstructorServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private InstructorChangePublisher instructorChangePublisher;
+
     @InjectMocks
     private InstructorService instructorService;
 
@@ -238,6 +241,7 @@ class InstructorServiceTest {
 
         assertEquals("Instructor deleted successfully", result);
         verify(instructorRepository).delete(instructor);
+        verify(instructorChangePublisher).publish(U1, I1, "DELETED");
     }
 
     @Test